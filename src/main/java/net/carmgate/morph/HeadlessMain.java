@@ -0,0 +1,63 @@
+package net.carmgate.morph;
+
+import net.carmgate.morph.conf.Conf;
+import net.carmgate.morph.conf.Conf.ConfItem;
+import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.entities.common.EntityType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the simulation without display.
+ * No OpenGL context is created, no texture is loaded and no particle is emitted.
+ * The ticks are run one after the other, as fast as possible.
+ * Usage : HeadlessMain [number of ticks]
+ */
+public class HeadlessMain {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HeadlessMain.class);
+
+	/**
+	 * Main Class
+	 */
+	public static void main(String[] argv) {
+		int ticks;
+		if (argv.length > 0) {
+			ticks = Integer.parseInt(argv[0]);
+		} else {
+			ticks = Conf.getIntProperty(ConfItem.HEADLESS_TICKS);
+		}
+
+		long elapsedMillis = run(ticks);
+
+		StringBuilder sb = new StringBuilder();
+		for (EntityType entityType : EntityType.values()) {
+			if (Model.getModel().getEntitiesByType(entityType) != null) {
+				sb.append(" ").append(entityType).append(": ").append(Model.getModel().getEntitiesByType(entityType).size());
+			}
+		}
+		LOGGER.info("Ran " + ticks + " ticks (" + Model.getModel().getCurrentTS() + "ms of game time) in " + elapsedMillis + "ms."
+				+ " Remaining entities -" + sb);
+
+		String behaviorSystemsProfile = Model.getModel().getBehaviorSystemsProfile();
+		if (behaviorSystemsProfile != null) {
+			LOGGER.info("Time spent in the behavior systems :\n" + behaviorSystemsProfile);
+		}
+	}
+
+	/**
+	 * Runs the given number of simulation ticks without display.
+	 * @param ticks the number of ticks to run
+	 * @return the real time spent running the ticks, in millis
+	 */
+	public static long run(int ticks) {
+		Model.getModel().setHeadless(true);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			Model.getModel().step();
+		}
+		return (System.nanoTime() - start) / 1000000;
+	}
+}
@@ -13,12 +13,13 @@ import net.carmgate.morph.actions.ShipEditorSelect;
 import net.carmgate.morph.actions.WorldMultiSelect;
 import net.carmgate.morph.actions.WorldSelect;
 import net.carmgate.morph.actions.common.Action;
-import net.carmgate.morph.actions.common.ActionHints;
 import net.carmgate.morph.actions.common.UIEvent;
 import net.carmgate.morph.actions.common.UIEvent.EventType;
 import net.carmgate.morph.actions.drag.DragContext;
 import net.carmgate.morph.conf.Conf;
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.common.ClassDescriptors;
+import net.carmgate.morph.model.common.ClassDescriptors.ActionDescriptor;
 import net.carmgate.morph.model.entities.common.Renderable;
 import net.carmgate.morph.ui.UIState;
 import net.carmgate.morph.ui.common.RenderUtils;
@@ -87,7 +88,8 @@ public class Main {
 
 				// Handle actions hints
 				// Instanciate drag actions with common drag context
-				if (action.getAnnotation(ActionHints.class).dragAction()) {
+				ActionDescriptor actionDescriptor = ClassDescriptors.ofAction(action);
+				if (actionDescriptor.isDragAction()) {
 					// Get the fields of type DragContext
 					Set<Field> fields = ReflectionUtils.getFields(action, new Predicate<Field>() {
 						@Override
@@ -110,12 +112,12 @@ public class Main {
 				}
 
 				// autoload mouse actions if requested
-				if (action.getAnnotation(ActionHints.class).mouseActionAutoload()) {
+				if (actionDescriptor.isMouseActionAutoload()) {
 					mouseActions.add(actionInstance);
 				}
 
 				// autoload keyboard actions if requested
-				if (action.getAnnotation(ActionHints.class).keyboardActionAutoload()) {
+				if (actionDescriptor.isKeyboardActionAutoload()) {
 					keyboardActions.add(actionInstance);
 				}
 			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | SecurityException e) {
@@ -248,12 +250,8 @@ public class Main {
 	 * Run an action, if the current {@link UIState} matches the {@link UIState} defined for the action.
 	 */
 	private void runAction(Action action) {
-		ActionHints actionHints = action.getClass().getAnnotation(ActionHints.class);
-		for (UIState uiState : actionHints.uiState()) {
-			if (uiState == Model.getModel().getUiContext().getUiState()) {
-				action.run();
-				break;
-			}
+		if (ClassDescriptors.ofAction(action.getClass()).isEnabledIn(Model.getModel().getUiContext().getUiState())) {
+			action.run();
 		}
 	}
 
@@ -287,7 +285,8 @@ public class Main {
 			if (!Keyboard.isKeyDown(Keyboard.KEY_LSHIFT)) {
 				render();
 			} else {
-				new WorldSelect().render(GL11.GL_SELECT);
+				// show the pickable areas
+				new WorldSelect().render(GL11.GL_RENDER);
 			}
 
 			// updates display and sets frame rate
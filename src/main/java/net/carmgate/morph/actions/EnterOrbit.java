@@ -10,6 +10,7 @@ import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.behaviors.InflictLaserDamage;
 import net.carmgate.morph.model.behaviors.common.Movement;
 import net.carmgate.morph.model.behaviors.steering.Orbit;
+import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Planet;
 import net.carmgate.morph.model.entities.Star;
 import net.carmgate.morph.model.entities.common.Entity;
@@ -51,7 +52,7 @@ public class EnterOrbit implements Action {
 				selectable.removeBehaviorsByClass(InflictLaserDamage.class);
 
 				// Add new orbit behavior
-				selectable.addBehavior(new Orbit(selectable, target, selectable.getPos().distance(target.getPos()) + 20, false));
+				selectable.addBehavior(new Orbit(selectable, target, selectable.getPos(new Vect3D()).distance(target.getPos(new Vect3D())) + 20, false));
 			}
 		}
 	}
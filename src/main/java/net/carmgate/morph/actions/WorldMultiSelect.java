@@ -3,37 +3,110 @@ package net.carmgate.morph.actions;
 import java.util.List;
 
 import net.carmgate.morph.actions.common.ActionHints;
-import net.carmgate.morph.actions.common.UIEvent;
 import net.carmgate.morph.actions.common.SelectionType;
+import net.carmgate.morph.actions.common.UIEvent;
 import net.carmgate.morph.actions.common.UIEvent.EventType;
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.GameMouse;
+import net.carmgate.morph.ui.UiContext;
+import net.carmgate.morph.ui.ViewPort;
+import net.carmgate.morph.ui.Window;
 
+import org.apache.commons.collections.Predicate;
 import org.lwjgl.input.Keyboard;
-import org.lwjgl.input.Mouse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Adds entities to the selection with the left button while holding LCONTROL.
+ * A click adds the entity under the mouse, a drag adds all the entities within the dragged rectangle.
+ * The rectangle is resolved with a range query on the world, see {@link Model#pickEntities(float, float, float, float, Predicate, List)}.
+ */
 @ActionHints
 public class WorldMultiSelect extends WorldSelect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(WorldMultiSelect.class);
 
+	/** Below this distance (in pixels) between the button down and up positions, the mouse did not move and it is a click. */
+	private static final int CLICK_TOLERANCE = 3;
+
+	/** Accepts the entities that can be added to the simple selection. */
+	private static final Predicate SIMPLE_SELECTABLE = new Predicate() {
+		@Override
+		public boolean evaluate(Object object) {
+			return ((Entity) object).getDescriptor().isSelectable();
+		}
+	};
+
+	/** The position of the mouse in the window when the button was pressed. null if there is no selection in progress. */
+	private int[] boxStart;
+	private final Vect3D boxCorner1 = new Vect3D();
+	private final Vect3D boxCorner2 = new Vect3D();
+
 	public WorldMultiSelect() {
 	}
 
 	@Override
 	public void run() {
-		List<UIEvent> lastEvents = Model.getModel().getInteractionStack().getLastEvents(2);
-		if (lastEvents.get(1).getEventType() != EventType.MOUSE_BUTTON_DOWN
-				|| lastEvents.get(1).getButton() != 0
-				|| lastEvents.get(0).getEventType() != EventType.MOUSE_BUTTON_UP
-				|| !Keyboard.isKeyDown(Keyboard.KEY_LCONTROL)) {
+		UIEvent lastEvent = Model.getModel().getInteractionStack().getLastEvent();
+		UiContext uiContext = Model.getModel().getUiContext();
+
+		// Start of the selection
+		if (lastEvent.getEventType() == EventType.MOUSE_BUTTON_DOWN
+				&& lastEvent.getButton() == 0
+				&& Keyboard.isKeyDown(Keyboard.KEY_LCONTROL)) {
+			boxStart = lastEvent.getPositionInWindow().clone();
+			return;
+		}
+
+		if (boxStart == null) {
+			return;
+		}
+
+		// Drag : update the displayed rectangle
+		if (lastEvent.getEventType() == EventType.MOUSE_MOVE) {
+			uiContext.setSelectionBox(new int[] { boxStart[0], boxStart[1], GameMouse.getX(), GameMouse.getY() });
+			return;
+		}
+
+		if (lastEvent.getEventType() != EventType.MOUSE_BUTTON_UP || lastEvent.getButton() != 0) {
 			return;
 		}
 
-		// pick
-		select(Mouse.getX() - Model.getModel().getWindow().getWidth() / 2, Mouse.getY() - Model.getModel().getWindow().getHeight() / 2, SelectionType.SIMPLE,
-				true);
+		// End of the selection
+		int[] boxEnd = lastEvent.getPositionInWindow();
+		if (Math.abs(boxEnd[0] - boxStart[0]) <= CLICK_TOLERANCE && Math.abs(boxEnd[1] - boxStart[1]) <= CLICK_TOLERANCE) {
+			select(GameMouse.getXInWorld(), GameMouse.getYInWorld(), SelectionType.SIMPLE, true);
+		} else {
+			selectBox(boxStart, boxEnd);
+		}
 		LOGGER.debug(Model.getModel().getSimpleSelection().toString());
+
+		boxStart = null;
+		uiContext.setSelectionBox(null);
+	}
+
+	/**
+	 * Adds all the selectable entities within a rectangle of the window to the simple selection.
+	 * @param corner1 a corner of the rectangle in window coordinates
+	 * @param corner2 the opposite corner in window coordinates
+	 */
+	private void selectBox(int[] corner1, int[] corner2) {
+		ViewPort viewport = Model.getModel().getViewport();
+		Window window = Model.getModel().getWindow();
+		viewport.getWorldPos(window, corner1[0], corner1[1], boxCorner1);
+		viewport.getWorldPos(window, corner2[0], corner2[1], boxCorner2);
+
+		pickedEntities.clear();
+		Model.getModel().pickEntities(Math.min(boxCorner1.x, boxCorner2.x), Math.min(boxCorner1.y, boxCorner2.y),
+				Math.max(boxCorner1.x, boxCorner2.x), Math.max(boxCorner1.y, boxCorner2.y), SIMPLE_SELECTABLE, pickedEntities);
+		for (int i = 0; i < pickedEntities.size(); i++) {
+			Entity entity = pickedEntities.get(i);
+			addToSelection(entity, SelectionType.SIMPLE);
+		}
+		LOGGER.debug("Box selection: " + pickedEntities.size() + " entities");
+		pickedEntities.clear();
 	}
 }
@@ -1,6 +1,6 @@
 package net.carmgate.morph.actions;
 
-import java.nio.IntBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.carmgate.morph.actions.common.Action;
@@ -8,18 +8,18 @@ import net.carmgate.morph.actions.common.ActionHints;
 import net.carmgate.morph.actions.common.UIEvent;
 import net.carmgate.morph.actions.common.UIEvent.EventType;
 import net.carmgate.morph.actions.common.SelectionType;
+import net.carmgate.morph.model.EntityMap;
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Entity;
-import net.carmgate.morph.model.entities.common.EntityHints;
-import net.carmgate.morph.ui.Window;
+import net.carmgate.morph.model.common.ClassDescriptors.EntityDescriptor;
+import net.carmgate.morph.ui.GameMouse;
+import net.carmgate.morph.ui.common.RenderUtils;
 import net.carmgate.morph.ui.common.RenderingSteps;
 
-import org.lwjgl.BufferUtils;
+import org.apache.commons.collections.Predicate;
 import org.lwjgl.input.Keyboard;
-import org.lwjgl.input.Mouse;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.util.glu.GLU;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,13 +28,24 @@ public class WorldSelect implements Action {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(WorldSelect.class);
 
+	/** Accepts the entities that can be selected one way or the other. */
+	protected static final Predicate SELECTABLE = new Predicate() {
+		@Override
+		public boolean evaluate(Object object) {
+			EntityDescriptor descriptor = ((Entity) object).getDescriptor();
+			return descriptor.isSelectable() || descriptor.isActionSelectable();
+		}
+	};
+
+	/** The entities picked by the last selection, reused from one selection to the next. */
+	protected final List<Entity> pickedEntities = new ArrayList<>();
+
 	public WorldSelect() {
 	}
 
-	/** 
-	 * Renders the scene for selection.
-	 * Can also be used directly for debugging purposes to show the pickable areas.
-	 * @param zoomFactor
+	/**
+	 * Renders the pickable areas of the entities.
+	 * Used for debugging purposes.
 	 * @param glMode
 	 */
 	public void render(int glMode) {
@@ -45,19 +56,23 @@ public class WorldSelect implements Action {
 		GL11.glRotatef(Model.getModel().getViewport().getRotation(), 0, 0, 1);
 		GL11.glScalef(zoomFactor, zoomFactor, 1);
 
-		// In select mode, we render the model elements in reverse order, because, the first items drawn will
-		// be the first picked
+		GL11.glColor4f(1, 1, 1, 0.5f);
 		for (RenderingSteps renderingStep : RenderingSteps.values()) {
-			if (Model.getModel().getEntitiesByRenderingType(renderingStep) != null) {
-				for (Entity entity : Model.getModel().getEntitiesByRenderingType(renderingStep).values()) {
-					GL11.glPushName(entity.getClass().getAnnotation(EntityHints.class).entityType().ordinal());
-					GL11.glPushName(entity.getId());
-					entity.render(GL11.GL_SELECT);
-					GL11.glPopName();
-					GL11.glPopName();
+			EntityMap entityMap = Model.getModel().getEntitiesByRenderingType(renderingStep);
+			if (entityMap != null) {
+				for (int i = 0; i < entityMap.size(); i++) {
+					Entity entity = entityMap.valueAt(i);
+					float pickRadius = entity.getPickRadius();
+					if (pickRadius > 0) {
+						Vect3D renderPos = entity.getRenderPos();
+						GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+						RenderUtils.renderDisc(pickRadius);
+						GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
+					}
 				}
 			}
 		}
+		GL11.glColor4f(1, 1, 1, 1);
 
 		GL11.glScalef(1f / zoomFactor, 1f / zoomFactor, 1);
 		GL11.glRotatef(-Model.getModel().getViewport().getRotation(), 0, 0, 1);
@@ -77,8 +92,7 @@ public class WorldSelect implements Action {
 			Model.getModel().clearSimpleSelection();
 
 			// pick
-			select(Mouse.getX() - Model.getModel().getWindow().getWidth() / 2, Mouse.getY() - Model.getModel().getWindow().getHeight() / 2,
-					SelectionType.SIMPLE, true);
+			select(GameMouse.getXInWorld(), GameMouse.getYInWorld(), SelectionType.SIMPLE, true);
 			LOGGER.debug("New simple selection: " + Model.getModel().getSimpleSelection().toString());
 		}
 
@@ -92,105 +106,48 @@ public class WorldSelect implements Action {
 			Model.getModel().clearActionSelection();
 
 			// pick
-			select(Mouse.getX() - Model.getModel().getWindow().getWidth() / 2, Mouse.getY() - Model.getModel().getWindow().getHeight() / 2,
-					SelectionType.ACTION, true);
+			select(GameMouse.getXInWorld(), GameMouse.getYInWorld(), SelectionType.ACTION, true);
 			LOGGER.debug("New action selection: " + Model.getModel().getActionSelection().toString());
 		}
 	}
 
 	/**
-	 * Picks model elements.
-	 * @param x
-	 * @param y
-	 * @param onlyOne true if the engine should select a unique model element (first encountered)
+	 * Adds an entity to the selection.
+	 * @param entity
+	 * @param selectionType
 	 */
-	protected void select(int x, int y, SelectionType selectionType, boolean onlyOne) {
-
-		LOGGER.debug("Picking at " + x + " " + y + "(" + selectionType + ")");
-
-		// get viewport
-		IntBuffer viewport = BufferUtils.createIntBuffer(16);
-		GL11.glGetInteger(GL11.GL_VIEWPORT, viewport);
-
-		IntBuffer selectBuf = BufferUtils.createIntBuffer(512);
-		GL11.glSelectBuffer(selectBuf);
-		GL11.glRenderMode(GL11.GL_SELECT);
-
-		GL11.glInitNames();
-
-		GL11.glMatrixMode(GL11.GL_PROJECTION);
-		GL11.glPushMatrix();
-		GL11.glLoadIdentity();
-
-		GLU.gluPickMatrix(x, y, 6.0f, 6.0f, viewport);
-
-		Window window = Model.getModel().getWindow();
-		GL11.glOrtho(0, window.getWidth(), 0, -window.getHeight(), 1, -1);
-		GL11.glViewport(0, 0, window.getWidth(), window.getHeight());
-
-		render(GL11.GL_SELECT);
-
-		GL11.glMatrixMode(GL11.GL_PROJECTION);
-		GL11.glPopMatrix();
-		GL11.glFlush();
-
-		int hits = GL11.glRenderMode(GL11.GL_RENDER);
-
-		// For debugging purpose only ...
-		// This allows to see the select buffer
-		String result = "[";
-		for (int i = 0; i < selectBuf.capacity(); i++)
-		{
-			result += selectBuf.get(i) + ", ";
+	protected void addToSelection(Entity entity, SelectionType selectionType) {
+		if (selectionType == SelectionType.SIMPLE) {
+			Model.getModel().getSimpleSelection().add(entity);
+			entity.setSelected(true);
+		} else {
+			Model.getModel().getActionSelection().add(entity);
 		}
-		LOGGER.trace("hits: " + hits + ", result : " + result + "]");
-
-		// Get the model elements picked
-		// The current index we are looking for in the select buffer
-		int selectBufIndex = 0;
-
-		// The picked entity if any
-		Entity pickedEntity = null;
-
-		// Iterate over the hits
-		for (int i = 0; i < hits; i++) {
-			// get the number of names on this part of the stack
-			int nbNames = selectBuf.get(selectBufIndex++);
-
-			// jump over the two extremes of the picking z-index range
-			selectBufIndex += 2;
+	}
 
-			// get the matching element in the model
-			Entity entity = Model.getModel().getEntitiesByType(selectBuf.get(selectBufIndex++)).get(selectBuf.get(selectBufIndex++));
-			if (!entity.getClass().getAnnotation(EntityHints.class).selectable() && !entity.getClass().getAnnotation(EntityHints.class).actionSelectable()) {
-				continue;
-			}
+	/**
+	 * Picks model elements.
+	 * The picking is done on the CPU, see {@link Model#pickEntity(float, float, org.apache.commons.collections.Predicate)}.
+	 * @param x x in world coordinates
+	 * @param y y in world coordinates
+	 * @param onlyOne true if the engine should select a unique model element (the one on top)
+	 */
+	protected void select(float x, float y, SelectionType selectionType, boolean onlyOne) {
 
-			// if we were asked a unique selection, clear the selection before adding the new selected element
-			if (onlyOne) {
-				pickedEntity = entity;
-			} else {
-				if (selectionType == SelectionType.SIMPLE) {
-					Model.getModel().getSimpleSelection().add(entity);
-					entity.setSelected(true);
-				} else {
-					Model.getModel().getActionSelection().add(entity);
-				}
-			}
+		LOGGER.debug("Picking at " + x + " " + y + "(" + selectionType + ")");
 
-			// Jump over the other ones if needed
-			for (int j = 2; j < nbNames; j++) {
-				selectBufIndex++;
+		if (onlyOne) {
+			Entity pickedEntity = Model.getModel().pickEntity(x, y, SELECTABLE);
+			if (pickedEntity != null) {
+				addToSelection(pickedEntity, selectionType);
 			}
-		}
-
-		if (onlyOne && pickedEntity != null) {
-			if (selectionType == SelectionType.SIMPLE) {
-				Model.getModel().getSimpleSelection().add(pickedEntity);
-				pickedEntity.setSelected(true);
-			} else {
-				Model.getModel().getActionSelection().add(pickedEntity);
+		} else {
+			pickedEntities.clear();
+			Model.getModel().pickEntities(x, y, x, y, SELECTABLE, pickedEntities);
+			for (Entity entity : pickedEntities) {
+				addToSelection(entity, selectionType);
 			}
+			pickedEntities.clear();
 		}
 
 	}
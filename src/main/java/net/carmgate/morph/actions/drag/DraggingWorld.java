@@ -11,6 +11,7 @@ import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.ui.GameMouse;
 import net.carmgate.morph.ui.ViewPort;
 
+import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +28,9 @@ public class DraggingWorld implements Action {
 		List<UIEvent> lastEvents = Model.getModel().getInteractionStack().getLastEvents(2);
 		if (lastEvents.get(1).getEventType() != EventType.MOUSE_BUTTON_DOWN
 				|| lastEvents.get(1).getButton() != 0
-				|| lastEvents.get(0).getEventType() != EventType.MOUSE_MOVE) {
+				|| lastEvents.get(0).getEventType() != EventType.MOUSE_MOVE
+				|| Keyboard.isKeyDown(Keyboard.KEY_LCONTROL)) {
+			// dragging with LCONTROL selects entities, see WorldMultiSelect
 			return;
 		}
 
@@ -10,6 +10,11 @@ import org.slf4j.LoggerFactory;
 public class Conf {
 
 	public static enum ConfItem {
+		HEADLESS_TICKS("headless.ticks"),
+		GRAVITY_BARNESHUT_OPENINGANGLE("gravity.barnesHut.openingAngle"),
+		GRAVITY_FIELD_RESOLUTION("gravity.field.resolution"),
+		GRAVITY_PLANETSANDSTATIONSATTRACT("gravity.planetsAndStationsAttract"),
+		GRAVITY_SOLVER("gravity.solver"),
 		MORPH_ARMOR_HITPOINTS_LEVEL1("morph.armor.hitpoints.level1"),
 		MORPH_LASER_MAXXPPERHIT("morph.laser.maxXpPerHit"),
 		MORPH_LASER_MAXXPPERHIT_FOR_OVERMIND("morph.laser.maxXpPerHit.forOvermind"),
@@ -22,10 +27,19 @@ public class Conf {
 		MORPH_SIMPLEPROPULSOR_MAXSPEED_FACTORPERLEVEL("morph.simplePropulsor.maxSpeed.factorPerLevel"),
 		MORPH_SIMPLEPROPULSOR_MAXXPPERSECOND("morph.simplePropulsor.maxXpPerSecond"),
 		MORPH_SIMPLEPROPULSOR_MAXXPPERSECOND_FOR_OVERMIND("morph.simplePropulsor.maxXpPerSecond.forOvermind"),
+		PARTICLES_MAXCOUNT("particles.maxCount"),
+		PARTICLES_SPAWNBUDGETPERSECOND("particles.spawnBudgetPerSecond"),
 		SHIP_HEALTH_PER_MASS("ship.healthPerMass"),
 		SHIP_NORADAR_DETECTION_RANGE("ship.noradar.detectionRange"),
 		SHIP_TRAIL_NUMBEROFSEGMENTS("ship.trail.numberOfSegments"),
 		SHIP_TRAIL_UPDATEINTERVAL("ship.trail.updateInterval"),
+		SIMULATION_BEHAVIORSYSTEMS("simulation.behaviorSystems"),
+		SIMULATION_MAXCATCHUPTICKS("simulation.maxCatchUpTicks"),
+		SIMULATION_PARALLELUPDATE("simulation.parallelUpdate"),
+		SIMULATION_PARALLELUPDATE_THRESHOLD("simulation.parallelUpdate.threshold"),
+		SIMULATION_TICKRATE("simulation.tickRate"),
+		SPATIAL_GRID_CELLSIZE("spatialGrid.cellSize"),
+		WORLDAREA_ROOTLEVEL("worldArea.rootLevel"),
 		ZOOM_VARIATIONFACTOR("zoom.variationFactor"),
 		ZOOM_MAX("zoom.max");
 
@@ -43,6 +57,14 @@ public class Conf {
 	private static final Conf _instance = new Conf();
 	private static final Logger LOGGER = LoggerFactory.getLogger(Conf.class);
 
+	public static boolean getBooleanProperty(ConfItem confItem) {
+		return Boolean.parseBoolean(_instance.prop.getProperty(confItem.getKey()));
+	}
+
+	public static boolean getBooleanProperty(String key) {
+		return Boolean.parseBoolean(_instance.prop.getProperty(key));
+	}
+
 	public static float getFloatProperty(ConfItem confItem) {
 		return Float.parseFloat(_instance.prop.getProperty(confItem.getKey()));
 	}
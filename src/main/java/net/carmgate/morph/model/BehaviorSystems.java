@@ -0,0 +1,169 @@
+package net.carmgate.morph.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.behaviors.common.BehaviorArray;
+import net.carmgate.morph.model.behaviors.common.BehaviorPhase;
+import net.carmgate.morph.model.common.ClassDescriptors;
+import net.carmgate.morph.model.common.ClassDescriptors.BehaviorDescriptor;
+import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.model.physics.KinematicsStore;
+
+/**
+ * Runs the behaviors of the entities updated in parallel by systems : the active behaviors of a given class
+ * are gathered and run in a row, before moving to the next class.
+ * The classes are run in the order of their {@link BehaviorPhase}, then in the order they were registered in {@link ClassDescriptors}.
+ * This replaces the behaviors loop of {@link Entity#updateDecisions()}. The AI and the forces computation are run
+ * by the {@link EntityUpdateTask.Phase#AI} and {@link EntityUpdateTask.Phase#FORCES} phases.
+ * A system is split among the threads of the update pool when it holds enough behaviors. This is safe since a system
+ * holds at most one behavior of each entity : the other behaviors of the same class are run afterwards on the calling thread.
+ */
+class BehaviorSystems {
+
+	/**
+	 * Runs a range of the behaviors of a system.
+	 */
+	private static final class SystemTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BehaviorArray<Behavior> behaviors;
+		private final int from;
+		private final int to;
+		private final int threshold;
+
+		public SystemTask(BehaviorArray<Behavior> behaviors, int from, int to, int threshold) {
+			this.behaviors = behaviors;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > threshold) {
+				int middle = from + to >>> 1;
+				invokeAll(new SystemTask(behaviors, from, middle, threshold), new SystemTask(behaviors, middle, to, threshold));
+				return;
+			}
+
+			for (int i = from; i < to; i++) {
+				runBehavior(behaviors.get(i));
+			}
+		}
+	}
+
+	private static void runBehavior(Behavior behavior) {
+		behavior.run();
+		behavior.computeXpContribution();
+	}
+
+	/** The behaviors gathered for the current tick, by kind index. */
+	private final List<BehaviorArray<Behavior>> systems = new ArrayList<>();
+	/** The behaviors of an entity already holding a behavior of the same kind in {@link #systems}, by kind index. */
+	private final List<BehaviorArray<Behavior>> overflows = new ArrayList<>();
+	/** The time spent in each system, by kind index. */
+	private final long[] nanosByKind = new long[Long.SIZE];
+
+	/** The kind indexes in the order the systems are run. */
+	private final int[] order = new int[Long.SIZE];
+	/** The number of kinds when {@link #order} was computed. */
+	private int orderedKindCount = -1;
+
+	private void gather(KinematicsStore entities) {
+		int kindCount = ClassDescriptors.getBehaviorKindCount();
+		while (systems.size() < kindCount) {
+			systems.add(new BehaviorArray<Behavior>());
+			overflows.add(new BehaviorArray<Behavior>());
+		}
+
+		for (int i = 0; i < entities.size(); i++) {
+			BehaviorArray<Behavior> behaviors = entities.getEntity(i).getBehaviors();
+			long gatheredKinds = 0;
+			for (int j = 0; j < behaviors.size(); j++) {
+				Behavior behavior = behaviors.get(j);
+				BehaviorDescriptor behaviorDescriptor = ClassDescriptors.ofBehavior(behavior.getClass());
+				if ((gatheredKinds & behaviorDescriptor.getKindBit()) == 0) {
+					gatheredKinds |= behaviorDescriptor.getKindBit();
+					systems.get(behaviorDescriptor.getKindIndex()).add(behavior);
+				} else {
+					overflows.get(behaviorDescriptor.getKindIndex()).add(behavior);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the time spent in each system since the beginning, one line per behavior class, in the order the systems are run
+	 */
+	public String getProfile() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < orderedKindCount; i++) {
+			Class<?> behaviorClass = ClassDescriptors.getBehaviorKind(order[i]);
+			sb.append(ClassDescriptors.ofBehavior(behaviorClass).getPhase()).append(" ").append(behaviorClass.getSimpleName())
+					.append(": ").append(nanosByKind[order[i]] / 1000000).append("ms\n");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Runs all the active behaviors of the entities, system after system.
+	 * @param entities the entities, their slots must not change while the systems run
+	 * @param pool the pool used to split the systems
+	 * @param parallel false to run all the systems on the calling thread
+	 * @param threshold the number of behaviors under which a system is not split anymore
+	 */
+	public void run(KinematicsStore entities, ForkJoinPool pool, boolean parallel, int threshold) {
+		gather(entities);
+		updateOrder();
+
+		for (int i = 0; i < orderedKindCount; i++) {
+			int kindIndex = order[i];
+			BehaviorArray<Behavior> system = systems.get(kindIndex);
+			BehaviorArray<Behavior> overflow = overflows.get(kindIndex);
+			if (system.isEmpty()) {
+				continue;
+			}
+
+			long start = System.nanoTime();
+			SystemTask task = new SystemTask(system, 0, system.size(), threshold);
+			if (!parallel || system.size() <= threshold) {
+				// not worth waking up the pool
+				task.compute();
+			} else {
+				pool.invoke(task);
+			}
+			for (int j = 0; j < overflow.size(); j++) {
+				runBehavior(overflow.get(j));
+			}
+			nanosByKind[kindIndex] += System.nanoTime() - start;
+
+			system.clear();
+			overflow.clear();
+		}
+	}
+
+	/**
+	 * Sorts the kinds by phase if new behavior classes have been registered since last time.
+	 */
+	private void updateOrder() {
+		int kindCount = ClassDescriptors.getBehaviorKindCount();
+		if (kindCount == orderedKindCount) {
+			return;
+		}
+
+		int n = 0;
+		for (BehaviorPhase phase : BehaviorPhase.values()) {
+			for (int kindIndex = 0; kindIndex < kindCount; kindIndex++) {
+				if (ClassDescriptors.ofBehavior(ClassDescriptors.getBehaviorKind(kindIndex)).getPhase() == phase) {
+					order[n++] = kindIndex;
+				}
+			}
+		}
+		orderedKindCount = kindCount;
+	}
+}
@@ -0,0 +1,104 @@
+package net.carmgate.morph.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.entities.common.Entity;
+
+/**
+ * Records the structural changes of the world requested during a simulation tick :
+ * entity creations, entity destructions and behavior attachments.
+ * They are applied in one batch at the end of the tick (see {@link Model#step()}),
+ * so that the entity collections are never modified while they are iterated.
+ * Commands can be recorded from any thread. They are applied in the order in which they were recorded.
+ */
+public class EntityCommandBuffer {
+
+	private static enum CommandType {
+		CREATE,
+		DESTROY,
+		ATTACH_BEHAVIOR;
+	}
+
+	// The recorded commands, as parallel lists
+	private List<CommandType> types = new ArrayList<>();
+	private List<Entity> entities = new ArrayList<>();
+	private List<Behavior> behaviors = new ArrayList<>();
+
+	// The commands being applied. They are swapped with the recorded ones so that
+	// the commands recorded while applying are kept for the next tick.
+	private List<CommandType> appliedTypes = new ArrayList<>();
+	private List<Entity> appliedEntities = new ArrayList<>();
+	private List<Behavior> appliedBehaviors = new ArrayList<>();
+
+	/**
+	 * Applies the recorded commands.
+	 * @param model
+	 */
+	void apply(Model model) {
+		synchronized (this) {
+			List<CommandType> tmpTypes = types;
+			types = appliedTypes;
+			appliedTypes = tmpTypes;
+			List<Entity> tmpEntities = entities;
+			entities = appliedEntities;
+			appliedEntities = tmpEntities;
+			List<Behavior> tmpBehaviors = behaviors;
+			behaviors = appliedBehaviors;
+			appliedBehaviors = tmpBehaviors;
+		}
+
+		for (int i = 0; i < appliedTypes.size(); i++) {
+			Entity entity = appliedEntities.get(i);
+			switch (appliedTypes.get(i)) {
+			case CREATE:
+				model.addEntity(entity);
+				break;
+			case DESTROY:
+				model.removeEntity(entity);
+				break;
+			case ATTACH_BEHAVIOR:
+				entity.addBehavior(appliedBehaviors.get(i));
+				break;
+			}
+		}
+		model.compactEntities();
+
+		appliedTypes.clear();
+		appliedEntities.clear();
+		appliedBehaviors.clear();
+	}
+
+	/**
+	 * Attaches a behavior to an entity at the end of the tick.
+	 * @param entity
+	 * @param behavior
+	 */
+	public synchronized void attachBehavior(Entity entity, Behavior behavior) {
+		record(CommandType.ATTACH_BEHAVIOR, entity, behavior);
+	}
+
+	/**
+	 * Adds an entity to the model at the end of the tick.
+	 * @param entity
+	 */
+	public synchronized void create(Entity entity) {
+		record(CommandType.CREATE, entity, null);
+	}
+
+	/**
+	 * Removes an entity from the model at the end of the tick.
+	 * Destroying an entity several times is harmless.
+	 * @param entity
+	 */
+	public synchronized void destroy(Entity entity) {
+		record(CommandType.DESTROY, entity, null);
+	}
+
+	private void record(CommandType type, Entity entity, Behavior behavior) {
+		types.add(type);
+		entities.add(entity);
+		behaviors.add(behavior);
+	}
+}
@@ -1,27 +1,185 @@
 package net.carmgate.morph.model;
 
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Arrays;
 
 import net.carmgate.morph.model.entities.common.Entity;
 
+/**
+ * Maps entity ids to entities.
+ * The entities are stored in a dense array, in insertion order, so that they can be iterated without allocation :
+ * <pre>
+ * for (int i = 0; i &lt; entityMap.size(); i++) {
+ * 	Entity entity = entityMap.valueAt(i);
+ * }
+ * </pre>
+ * The ids are mapped to the index of their entity in the dense array by an open addressing hash table with linear probing,
+ * so that lookups and insertions do not box the ids.
+ * Removing an entity keeps the order of the others. The removals are batched : a removed entity only leaves a hole
+ * in the dense arrays, and the holes are compacted away in one pass, followed by a rebuild of the table,
+ * when {@link #compact()} is called. Therefore, removing k entities in a row costs a time linear in the size of the map, not k times.
+ * The map cannot be iterated between a removal and the next compaction.
+ */
 public class EntityMap {
-	private final HashMap<Integer, Entity> backingMap = new HashMap<>();
 
-	public Entity get(Object key) {
-		return backingMap.get(key);
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int NO_SLOT = -1;
+
+	// Dense arrays : the entities and their ids, in insertion order
+	private Entity[] values = new Entity[INITIAL_CAPACITY];
+	private int[] ids = new int[INITIAL_CAPACITY];
+	private int size;
+	/** Number of holes left in the dense arrays by the removals since the last compaction. */
+	private int removedCount;
+
+	/** The hash table, holding indexes in the dense arrays. Its length is a power of 2 and it is never more than half full. */
+	private int[] table = newTable(INITIAL_CAPACITY * 2);
+
+	private static int[] newTable(int length) {
+		int[] newTable = new int[length];
+		Arrays.fill(newTable, NO_SLOT);
+		return newTable;
+	}
+
+	/**
+	 * Removes the holes left by the removals from the dense arrays, keeping the order of the entities, then rebuilds the table.
+	 * Does nothing if nothing has been removed since the last compaction.
+	 */
+	public void compact() {
+		if (removedCount == 0) {
+			return;
+		}
+
+		int newSize = 0;
+		for (int slot = 0; slot < size; slot++) {
+			if (values[slot] != null) {
+				values[newSize] = values[slot];
+				ids[newSize] = ids[slot];
+				newSize++;
+			}
+		}
+		Arrays.fill(values, newSize, size, null);
+		size = newSize;
+		removedCount = 0;
+		rehash(table.length);
+	}
+
+	private static int hash(int id) {
+		// the ids are consecutive, spread them over the table
+		int h = id * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * @param id
+	 * @return the index in the table of the given id, or of the empty cell where it should be inserted
+	 */
+	private int find(int id) {
+		int mask = table.length - 1;
+		int index = hash(id) & mask;
+		while (table[index] != NO_SLOT && ids[table[index]] != id) {
+			index = index + 1 & mask;
+		}
+		return index;
+	}
+
+	public Entity get(int id) {
+		int slot = table[find(id)];
+		return slot == NO_SLOT ? null : values[slot];
 	}
 
-	protected Entity put(Integer key, Entity value) {
-		return backingMap.put(key, value);
+	protected Entity put(int id, Entity value) {
+		int index = find(id);
+		int slot = table[index];
+		if (slot != NO_SLOT) {
+			Entity oldValue = values[slot];
+			values[slot] = value;
+			return oldValue;
+		}
+
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		values[size] = value;
+		ids[size] = id;
+		table[index] = size;
+		size++;
+
+		if ((size - removedCount) * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+		return null;
+	}
+
+	private void rehash(int length) {
+		table = newTable(length);
+		for (int slot = 0; slot < size; slot++) {
+			if (values[slot] != null) {
+				table[find(ids[slot])] = slot;
+			}
+		}
+	}
+
+	public Entity remove(int id) {
+		int index = find(id);
+		int slot = table[index];
+		if (slot == NO_SLOT) {
+			return null;
+		}
+		Entity oldValue = values[slot];
+		removeFromTable(index);
+
+		// leave a hole, compacted away later
+		values[slot] = null;
+		removedCount++;
+
+		return oldValue;
+	}
+
+	/**
+	 * Empties a cell of the table and moves back the following entries of its cluster
+	 * so that they can still be found by linear probing.
+	 * @param index
+	 */
+	private void removeFromTable(int index) {
+		int mask = table.length - 1;
+		int hole = index;
+		int i = index;
+		while (true) {
+			i = i + 1 & mask;
+			int slot = table[i];
+			if (slot == NO_SLOT) {
+				break;
+			}
+
+			// the entry can fill the hole if its home cell is not cyclically within ]hole, i]
+			int home = hash(ids[slot]) & mask;
+			boolean homeBetween = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+			if (!homeBetween) {
+				table[hole] = slot;
+				hole = i;
+			}
+		}
+		table[hole] = NO_SLOT;
 	}
 
-	public Entity remove(Object arg0) {
-		return backingMap.remove(arg0);
+	/**
+	 * @return the number of entities in the map
+	 */
+	public int size() {
+		return size - removedCount;
 	}
 
-	public Collection<Entity> values() {
-		return backingMap.values();
+	/**
+	 * @param index index of the entity in insertion order, within [0, size()[
+	 * @return the entity
+	 * @throws IllegalStateException if entities have been removed since the last call to {@link #compact()}
+	 */
+	public Entity valueAt(int index) {
+		if (removedCount > 0) {
+			throw new IllegalStateException("The entity map must be compacted before being iterated");
+		}
+		return values[index];
 	}
 
 }
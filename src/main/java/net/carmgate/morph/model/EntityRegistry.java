@@ -0,0 +1,138 @@
+package net.carmgate.morph.model;
+
+import java.util.Arrays;
+
+import net.carmgate.morph.model.entities.common.Entity;
+
+/**
+ * Gives the entities their ids and finds the entities back from their ids.
+ * An id is a handle made of the index of a slot of the registry (low bits) and of the generation of this slot (high bits).
+ * When an entity is removed, its slot is freed and later reused with the next generation :
+ * the id of a removed entity is never given again and {@link #get(int)} returns null for it.
+ * A slot whose generation reaches the maximum is retired instead of being reused.
+ */
+public class EntityRegistry {
+
+	/** The id of the entities that are not registered. */
+	public static final int NO_ID = -1;
+
+	private static final int INDEX_BITS = 20;
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+	/** The ids must stay positive. */
+	private static final int MAX_GENERATION = (1 << 31 - INDEX_BITS) - 1;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private Entity[] entities = new Entity[INITIAL_CAPACITY];
+	private int[] generations = new int[INITIAL_CAPACITY];
+	/** Number of slots used so far. */
+	private int slotCount;
+	/** Number of registered entities. */
+	private int size;
+
+	/** The free slots, as a FIFO ring buffer, so that the generations of the slots grow as slowly as possible. */
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int freeHead;
+	private int freeCount;
+
+	private static int generationOf(int id) {
+		return id >>> INDEX_BITS;
+	}
+
+	private static int indexOf(int id) {
+		return id & INDEX_MASK;
+	}
+
+	/**
+	 * @param id
+	 * @return the entity registered with the given id, null if it has been removed or if the id is unknown
+	 */
+	public synchronized Entity get(int id) {
+		if (id < 0) {
+			return null;
+		}
+		int index = indexOf(id);
+		if (index >= slotCount || generations[index] != generationOf(id)) {
+			return null;
+		}
+		return entities[index];
+	}
+
+	/**
+	 * @param id
+	 * @return true if the id belongs to a registered entity
+	 */
+	public boolean isAlive(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Registers an entity and gives it its id.
+	 * @param entity
+	 * @return the id of the entity
+	 */
+	public synchronized int register(Entity entity) {
+		int index;
+		if (freeCount > 0) {
+			index = freeSlots[freeHead];
+			freeHead = (freeHead + 1) % freeSlots.length;
+			freeCount--;
+		} else {
+			if (slotCount > INDEX_MASK) {
+				throw new IllegalStateException("Too many entities: " + slotCount);
+			}
+			if (slotCount == entities.length) {
+				entities = Arrays.copyOf(entities, slotCount * 2);
+				generations = Arrays.copyOf(generations, slotCount * 2);
+			}
+			index = slotCount++;
+		}
+
+		entities[index] = entity;
+		size++;
+		int id = generations[index] << INDEX_BITS | index;
+		entity.setId(id);
+		return id;
+	}
+
+	/**
+	 * Removes an entity in constant time.
+	 * @param id the id of the entity
+	 * @return true if the entity was registered
+	 */
+	public synchronized boolean remove(int id) {
+		if (get(id) == null) {
+			return false;
+		}
+
+		int index = indexOf(id);
+		entities[index] = null;
+		size--;
+		generations[index]++;
+		if (generations[index] <= MAX_GENERATION) {
+			freeSlot(index);
+		}
+		return true;
+	}
+
+	private void freeSlot(int index) {
+		if (freeCount == freeSlots.length) {
+			// unroll the ring buffer into a bigger array
+			int[] newFreeSlots = new int[freeSlots.length * 2];
+			for (int i = 0; i < freeCount; i++) {
+				newFreeSlots[i] = freeSlots[(freeHead + i) % freeSlots.length];
+			}
+			freeSlots = newFreeSlots;
+			freeHead = 0;
+		}
+		freeSlots[(freeHead + freeCount) % freeSlots.length] = index;
+		freeCount++;
+	}
+
+	/**
+	 * @return the number of registered entities
+	 */
+	public synchronized int size() {
+		return size;
+	}
+}
@@ -0,0 +1,91 @@
+package net.carmgate.morph.model;
+
+import java.util.concurrent.RecursiveAction;
+
+import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.model.physics.KinematicsStore;
+
+/**
+ * Runs one phase of the update of the entities of a {@link KinematicsStore},
+ * splitting the slots among the threads of a ForkJoin pool.
+ */
+class EntityUpdateTask extends RecursiveAction {
+
+	public static enum Phase {
+		/** See {@link Entity#updateDecisions()}. */
+		DECISIONS,
+		/** The part of the decisions preceding the behaviors, when they are run by {@link BehaviorSystems}. */
+		AI,
+		/** The part of the decisions following the behaviors, when they are run by {@link BehaviorSystems}. */
+		FORCES,
+		/** See {@link Entity#commitUpdate()}. The slots are integrated in batch, then each entity completes its update. */
+		COMMIT;
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	private final KinematicsStore entities;
+	private final int from;
+	private final int to;
+	private final int threshold;
+	private final Phase phase;
+	private final float seconds;
+
+	/**
+	 * @param entities the store of the entities to update, its slots must not change while the task runs
+	 * @param from first slot to update (inclusive)
+	 * @param to last slot to update (exclusive)
+	 * @param threshold the number of slots under which the task is not split anymore
+	 * @param phase the phase to run
+	 * @param seconds the duration of the simulation tick
+	 */
+	public EntityUpdateTask(KinematicsStore entities, int from, int to, int threshold, Phase phase, float seconds) {
+		this.entities = entities;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+		this.phase = phase;
+		this.seconds = seconds;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > threshold) {
+			int middle = from + to >>> 1;
+			invokeAll(new EntityUpdateTask(entities, from, middle, threshold, phase, seconds),
+					new EntityUpdateTask(entities, middle, to, threshold, phase, seconds));
+			return;
+		}
+
+		switch (phase) {
+		case DECISIONS:
+			for (int i = from; i < to; i++) {
+				Entity entity = entities.getEntity(i);
+				entity.storePreviousPos();
+				entity.updateDecisions();
+			}
+			break;
+		case AI:
+			for (int i = from; i < to; i++) {
+				Entity entity = entities.getEntity(i);
+				entity.storePreviousPos();
+				entity.runAI();
+			}
+			break;
+		case FORCES:
+			for (int i = from; i < to; i++) {
+				entities.getEntity(i).completeDecisions();
+			}
+			break;
+		case COMMIT:
+			// the entities on rails are placed afterwards by completeUpdate
+			entities.integrate(from, to, seconds);
+			for (int i = from; i < to; i++) {
+				Entity entity = entities.getEntity(i);
+				entity.completeUpdate();
+				entity.processPendingBehaviors();
+			}
+			break;
+		}
+	}
+}
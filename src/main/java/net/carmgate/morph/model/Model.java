@@ -1,19 +1,21 @@
 package net.carmgate.morph.model;
 
-import java.util.Comparator;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import net.carmgate.morph.actions.common.InteractionStack;
+import net.carmgate.morph.conf.Conf;
+import net.carmgate.morph.conf.Conf.ConfItem;
 import net.carmgate.morph.model.ai.BalancedAI;
 import net.carmgate.morph.model.behaviors.SpawnShips;
-import net.carmgate.morph.model.behaviors.steering.Orbit;
+import net.carmgate.morph.model.behaviors.steering.KeplerOrbit;
 import net.carmgate.morph.model.behaviors.steering.WanderWithinRange;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph;
@@ -24,8 +26,13 @@ import net.carmgate.morph.model.entities.Star;
 import net.carmgate.morph.model.entities.Station;
 import net.carmgate.morph.model.entities.WorldArea;
 import net.carmgate.morph.model.entities.common.Entity;
-import net.carmgate.morph.model.entities.common.EntityHints;
 import net.carmgate.morph.model.entities.common.EntityType;
+import net.carmgate.morph.model.physics.Attractors;
+import net.carmgate.morph.model.physics.BarnesHutGravitySolver;
+import net.carmgate.morph.model.physics.DirectSumGravitySolver;
+import net.carmgate.morph.model.physics.GravityField;
+import net.carmgate.morph.model.physics.GravitySolver;
+import net.carmgate.morph.model.physics.KinematicsStore;
 import net.carmgate.morph.model.player.Player;
 import net.carmgate.morph.model.player.Player.FOF;
 import net.carmgate.morph.model.player.Player.PlayerType;
@@ -33,8 +40,8 @@ import net.carmgate.morph.ui.ParticleEngine;
 import net.carmgate.morph.ui.UiContext;
 import net.carmgate.morph.ui.ViewPort;
 import net.carmgate.morph.ui.Window;
-import net.carmgate.morph.ui.common.RenderingHints;
 import net.carmgate.morph.ui.common.RenderingSteps;
+import net.carmgate.morph.ui.common.SpriteBatch;
 
 import org.apache.commons.collections.Predicate;
 import org.slf4j.Logger;
@@ -43,6 +50,8 @@ import org.slf4j.LoggerFactory;
 public class Model {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Model.class);
+	/** The entities attracting the others when {@link ConfItem#GRAVITY_PLANETSANDSTATIONSATTRACT} is set, in addition to the stars. */
+	private static final EntityType[] MOVING_ATTRACTOR_TYPES = { EntityType.PLANET, EntityType.STATION };
 	private static final Model _instance = new Model();
 
 	static {
@@ -57,10 +66,21 @@ public class Model {
 	// Time management
 	/** number of millis since game start. */
 	private long currentTS = 0;
-	/** timestamp of game start. */
-	private long gameStartMsec = new Date().getTime();
-	private float secondsSinceLastUpdate;
 	private long lastUpdateTS;
+	/** number of simulation ticks since game start. */
+	private long tickCount;
+	/** number of simulation ticks per second. */
+	private final int tickRate = Conf.getIntProperty(ConfItem.SIMULATION_TICKRATE);
+	private final long tickNanos = 1000000000L / tickRate;
+	/** The duration of a tick. It does not depend on the frame rate. */
+	private final float secondsSinceLastUpdate = 1f / tickRate;
+	/** maximum number of ticks run in a single update to catch up with real time. */
+	private final int maxCatchUpTicks = Conf.getIntProperty(ConfItem.SIMULATION_MAXCATCHUPTICKS);
+	/** real time not yet consumed by the simulation. */
+	private long accumulatedNanos;
+	private long lastRealTimeNanos = System.nanoTime();
+	/** position of the rendered frame between the last two ticks, in [0, 1[. */
+	private float interpolationAlpha;
 
 	// Ui context
 	private final Window window = new Window();
@@ -73,53 +93,125 @@ public class Model {
 	private final InteractionStack interactionStack = new InteractionStack();
 	private final Set<Morph> morphSelection = new HashSet<>();
 
-	/** All the entities of the world can be searched by @entity uniqueId and entity instance uniqueId. */
-	// TODO we should rework this structure, it's not clean.
-	private final Set<Entity> entities = new HashSet<>();
+	/** All the entities of the world, by id. */
+	private final EntityRegistry entityRegistry = new EntityRegistry();
 	private final Map<EntityType, EntityMap> entitiesByEntityType = new HashMap<>();
 	private final Map<RenderingSteps, EntityMap> entitiesByRenderingStep = new HashMap<>();
-	private final Set<Entity> entitiesToRemove = new HashSet<>();
+	/** Entities created and destroyed during a tick are only added and removed at the end of the tick. */
+	private final EntityCommandBuffer commandBuffer = new EntityCommandBuffer();
+	private final SpatialGrid spatialGrid = new SpatialGrid(Conf.getFloatProperty(ConfItem.SPATIAL_GRID_CELLSIZE));
+	/** Candidates of the pick queries, reused from one query to the next. Picking only happens in the UI thread. */
+	private final List<Entity> pickCandidates = new ArrayList<>();
+
+	// parallel update
+	private final boolean parallelUpdate = Conf.getBooleanProperty(ConfItem.SIMULATION_PARALLELUPDATE);
+	private final int parallelUpdateThreshold = Conf.getIntProperty(ConfItem.SIMULATION_PARALLELUPDATE_THRESHOLD);
+	private final ForkJoinPool updatePool = new ForkJoinPool();
+	private final boolean behaviorSystemsEnabled = Conf.getBooleanProperty(ConfItem.SIMULATION_BEHAVIORSYSTEMS);
+	private final BehaviorSystems behaviorSystems = new BehaviorSystems();
+
+	// gravity
+	/** The bodies attracting the entities, collected at the beginning of each tick. */
+	private final Attractors attractors = new Attractors();
+	private final boolean planetsAndStationsAttract = Conf.getBooleanProperty(ConfItem.GRAVITY_PLANETSANDSTATIONSATTRACT);
+	/** Gravity and energy field of the attractors, sampled by {@link net.carmgate.morph.model.behaviors.StarsContribution}. */
+	private final GravitySolver gravitySolver = createGravitySolver();
+
+	/** The kinematics of the entities updated in parallel, in two phases, and integrated in batch. */
+	private final KinematicsStore parallelEntities = new KinematicsStore();
 
 	// particle engine
 	private final ParticleEngine particleEngine = new ParticleEngine();
 
+	/** Accumulates the textured quads of the entities, see NormalLayer. */
+	private final SpriteBatch spriteBatch = new SpriteBatch();
+
+	/** true if the simulation runs without display. */
+	private boolean headless;
+
 	// players and self ship
 	private final Player self;
 	private Ship selfShip;
 	private final Set<Player> players = new HashSet<>();
 
 	// world areas
-	// TODO #24 Replace this with some kind of particles to show that there is some movement without
-	// the hassle of using such a complex system.
-	// However, we should keep the world area code somewhere just in case we need it for optimization purpose later.
+	// The world area quadtree holds the background tiles and indexes all the entities of the world.
 	private final WorldArea rootWA;
+	private final ViewportTiles viewportTiles;
 
 	private Model() {
 		self = new Player(PlayerType.HUMAN, "Carm", FOF.SELF);
 
-		// WorldArea deacivated for now
-		// Review this strange initialization when reactivating
-		rootWA = new WorldArea();
-		// for (int i = 0; i < 16; i++) {
-		// rootWA = rootWA.getParent();
-		// }
+		rootWA = new WorldArea(Conf.getIntProperty(ConfItem.WORLDAREA_ROOTLEVEL));
+		viewportTiles = new ViewportTiles(rootWA);
 	}
 
 	/**
 	 * Add an entity to the model.
+	 * This must not be called while the entities are updated, use the {@link EntityCommandBuffer} instead.
 	 * @param entity
 	 */
-	public void addEntity(Entity entity) {
-		EntityType entityType = entity.getClass().getAnnotation(EntityHints.class).entityType();
-		RenderingSteps renderingStep = entity.getClass().getAnnotation(RenderingHints.class).renderingStep();
+	public synchronized void addEntity(Entity entity) {
+		EntityType entityType = entity.getDescriptor().getEntityType();
+		RenderingSteps renderingStep = entity.getDescriptor().getRenderingStep();
 		EntityMap entityMap = getEntitiesByType(entityType);
 		if (entityMap == null) {
 			entityMap = new EntityMap();
 			entitiesByEntityType.put(entityType, entityMap);
 			entitiesByRenderingStep.put(renderingStep, entityMap);
 		}
+		entityRegistry.register(entity);
 		entityMap.put(entity.getId(), entity);
-		entities.add(entity);
+		entity.storePreviousPos();
+		if (entity.getDescriptor().isParallelUpdate()) {
+			entity.getKinematics().moveTo(entity.getKinematicsSlot(), parallelEntities);
+		}
+		spatialGrid.add(entity);
+		rootWA.add(entity);
+	}
+
+	/**
+	 * Fills {@link #attractors} with the stars and, if configured, the planets and stations.
+	 */
+	private void collectAttractors() {
+		attractors.clear();
+		EntityMap stars = getEntitiesByType(EntityType.STAR);
+		if (stars != null) {
+			for (int i = 0; i < stars.size(); i++) {
+				Star star = (Star) stars.valueAt(i);
+				attractors.add(star.getPosX(), star.getPosY(), star.getMass(), star.getEnergyFlow(), star.getKillingRadius());
+			}
+		}
+
+		if (planetsAndStationsAttract) {
+			for (EntityType entityType : MOVING_ATTRACTOR_TYPES) {
+				EntityMap entityMap = getEntitiesByType(entityType);
+				if (entityMap != null) {
+					for (int i = 0; i < entityMap.size(); i++) {
+						Entity entity = entityMap.valueAt(i);
+						attractors.add(entity.getPosX(), entity.getPosY(), entity.getMass(), 0, 0);
+					}
+				}
+			}
+		}
+	}
+
+	private GravitySolver createGravitySolver() {
+		int rootLevel = Conf.getIntProperty(ConfItem.WORLDAREA_ROOTLEVEL);
+		GravitySolver.Type type = GravitySolver.Type.valueOf(Conf.getProperty(ConfItem.GRAVITY_SOLVER));
+		if (type == GravitySolver.Type.FIELD && planetsAndStationsAttract) {
+			LOGGER.warn("The gravity field cannot follow moving attractors, using " + GravitySolver.Type.BARNES_HUT + " instead");
+			type = GravitySolver.Type.BARNES_HUT;
+		}
+
+		switch (type) {
+		case BARNES_HUT:
+			return new BarnesHutGravitySolver(rootLevel, Conf.getFloatProperty(ConfItem.GRAVITY_BARNESHUT_OPENINGANGLE));
+		case DIRECT_SUM:
+			return new DirectSumGravitySolver();
+		default:
+			return new GravityField(rootLevel, Conf.getFloatProperty(ConfItem.GRAVITY_FIELD_RESOLUTION));
+		}
 	}
 
 	// IMPROVE We must fix the temptation to use getSelection.clear() instead
@@ -143,38 +235,116 @@ public class Model {
 		simpleSelection.clear();
 	}
 
-	// TODO Rework this method .. maybe with a Predicate
-	public Set<Entity> findEntitiesWithinDistanceOfLocationAndNotPlayerOwned(final Vect3D location, float radius,
-			Predicate predicate) {
-		// TODO Check this ... it is probably very bad in terms of performance
-		Set<Entity> resultSet = new TreeSet<>(new Comparator<Entity>() {
-			@Override
-			public int compare(Entity o1, Entity o2) {
-				float d1 = o1.getPos().distance(location);
-				float d2 = o2.getPos().distance(location);
-				if (d1 < d2) {
-					return -1;
-				}
-				if (d1 > d2) {
-					return 1;
-				}
-				return 0;
+	/**
+	 * Finds the entities within a given distance of a location.
+	 * This relies on the {@link SpatialGrid} and only looks at the cells overlapping the search area.
+	 * @param location center of the search area
+	 * @param radius radius of the search area
+	 * @param predicate additional filter on the entities, might be null
+	 * @param result the result holder, it is cleared before being filled
+	 * @return the result holder, filled with entities sorted by increasing distance to the location
+	 */
+	public SpatialGrid.Result findEntitiesWithinDistance(Vect3D location, float radius, Predicate predicate, SpatialGrid.Result result) {
+		return spatialGrid.query(location, radius, predicate, result);
+	}
+
+	/**
+	 * Entities are indexed by their position, so the pick queries look for candidates up to a screen away from the picked area.
+	 * An entity whose pickable disc is larger than the screen can only be picked within a screen of its center.
+	 * @return the margin around the picked area, in world coordinates
+	 */
+	private float getPickSearchMargin() {
+		return Math.max(window.getWidth(), window.getHeight()) / viewport.getZoomFactor();
+	}
+
+	/**
+	 * Picks the entity drawn on top of the others at a given location.
+	 * The entities of the last rendering steps are drawn over the ones of the first steps.
+	 * Among the entities of a same rendering step, the closest to the location wins.
+	 * See {@link Entity#getPickRadius()}.
+	 * @param x x of the location in world coordinates
+	 * @param y y of the location in world coordinates
+	 * @param predicate additional filter on the entities, might be null
+	 * @return the picked entity or null if there is no entity at this location
+	 */
+	public Entity pickEntity(float x, float y, Predicate predicate) {
+		float margin = getPickSearchMargin();
+		pickCandidates.clear();
+		rootWA.findEntities(x - margin, y - margin, x + margin, y + margin, predicate, pickCandidates);
+
+		Entity pickedEntity = null;
+		int pickedRenderingStep = -1;
+		float pickedDistanceSquared = 0;
+		for (int i = 0; i < pickCandidates.size(); i++) {
+			Entity entity = pickCandidates.get(i);
+			float pickRadius = entity.getPickRadius();
+			Vect3D renderPos = entity.getRenderPos();
+			float dx = renderPos.x - x;
+			float dy = renderPos.y - y;
+			float distanceSquared = dx * dx + dy * dy;
+			if (distanceSquared >= pickRadius * pickRadius) {
+				continue;
+			}
+
+			int renderingStep = entity.getDescriptor().getRenderingStep().ordinal();
+			if (pickedEntity == null || renderingStep > pickedRenderingStep
+					|| renderingStep == pickedRenderingStep && distanceSquared < pickedDistanceSquared) {
+				pickedEntity = entity;
+				pickedRenderingStep = renderingStep;
+				pickedDistanceSquared = distanceSquared;
 			}
-		});
+		}
+		pickCandidates.clear();
+
+		return pickedEntity;
+	}
 
-		for (Entity entity : entities) {
-			if (entity.getPos().distance(location) < radius && predicate.evaluate(entity)) {
-				resultSet.add(entity);
+	/**
+	 * Picks all the entities whose pickable disc intersects a rectangular region of the world.
+	 * See {@link Entity#getPickRadius()}.
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @param predicate additional filter on the entities, might be null
+	 * @param result the entities picked are added to this list, it is not cleared beforehand
+	 * @return the result list
+	 */
+	public List<Entity> pickEntities(float minX, float minY, float maxX, float maxY, Predicate predicate, List<Entity> result) {
+		float margin = getPickSearchMargin();
+		pickCandidates.clear();
+		rootWA.findEntities(minX - margin, minY - margin, maxX + margin, maxY + margin, predicate, pickCandidates);
+
+		for (int i = 0; i < pickCandidates.size(); i++) {
+			Entity entity = pickCandidates.get(i);
+			float pickRadius = entity.getPickRadius();
+			Vect3D renderPos = entity.getRenderPos();
+			// distance between the center of the disc and the closest point of the region
+			float dx = renderPos.x - Math.max(minX, Math.min(renderPos.x, maxX));
+			float dy = renderPos.y - Math.max(minY, Math.min(renderPos.y, maxY));
+			if (dx * dx + dy * dy < pickRadius * pickRadius) {
+				result.add(entity);
 			}
 		}
+		pickCandidates.clear();
 
-		return resultSet;
+		return result;
 	}
 
 	public Deque<Entity> getActionSelection() {
 		return actionSelection;
 	}
 
+	/**
+	 * @return the time spent in each behavior system, or null if the behaviors are not run by systems
+	 */
+	public String getBehaviorSystemsProfile() {
+		if (!behaviorSystemsEnabled) {
+			return null;
+		}
+		return behaviorSystems.getProfile();
+	}
+
 	/**
 	 * @return number of millis since game start.
 	 */
@@ -182,6 +352,28 @@ public class Model {
 		return currentTS;
 	}
 
+	/**
+	 * @return the position of the rendered frame between the last two simulation ticks, in [0, 1[.
+	 */
+	public float getInterpolationAlpha() {
+		return interpolationAlpha;
+	}
+
+	/**
+	 * @param id
+	 * @return the entity with the given id, or null if it has been removed from the model
+	 */
+	public Entity getEntity(int id) {
+		return entityRegistry.get(id);
+	}
+
+	/**
+	 * @return the number of entities in the model
+	 */
+	public int getEntityCount() {
+		return entityRegistry.size();
+	}
+
 	public EntityMap getEntitiesByRenderingType(RenderingSteps renderingStep) {
 		return entitiesByRenderingStep.get(renderingStep);
 	}
@@ -222,6 +414,36 @@ public class Model {
 		return secondsSinceLastUpdate;
 	}
 
+	/**
+	 * Unlike {@link #getCurrentTS()}, this is not rounded to the milli.
+	 * @return number of seconds of simulation since game start.
+	 */
+	public double getSimulationTime() {
+		return (double) tickCount / tickRate;
+	}
+
+	/**
+	 * @return the buffer in which the entity creations and destructions are recorded during a tick
+	 */
+	public EntityCommandBuffer getCommandBuffer() {
+		return commandBuffer;
+	}
+
+	public SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+
+	public SpatialGrid getSpatialGrid() {
+		return spatialGrid;
+	}
+
+	/**
+	 * @return true if the simulation runs without display : nothing is rendered and no particle is emitted.
+	 */
+	public boolean isHeadless() {
+		return headless;
+	}
+
 	public Player getSelf() {
 		return self;
 	}
@@ -242,6 +464,14 @@ public class Model {
 		return viewport;
 	}
 
+	public GravitySolver getGravitySolver() {
+		return gravitySolver;
+	}
+
+	public ViewportTiles getViewportTiles() {
+		return viewportTiles;
+	}
+
 	public Window getWindow() {
 		return window;
 	}
@@ -250,7 +480,7 @@ public class Model {
 		Star star = new Star(3000, 3000, 0, 20000, 500, 4000000);
 		Model.getModel().addEntity(star);
 		Planet planet = new Planet(star, 1000, 100, 500000);
-		planet.addBehavior(new Orbit(planet, star, 500000, true));
+		planet.addBehavior(new KeplerOrbit(planet, star, 500000));
 		Model.getModel().addEntity(planet);
 
 		Player player = new Player(PlayerType.AI, "Nemesis", FOF.FOE);
@@ -264,11 +494,11 @@ public class Model {
 		enemyShip.addBehavior(new WanderWithinRange(enemyShip, 200, 100, station, 2000));
 		enemyShip.setAi(new BalancedAI(enemyShip));
 
-		station.addBehavior(new Orbit(station, planet, 7000, true));
-		station.addBehavior(new SpawnShips(station.getPos(), 10, 5000, enemyShip));
+		station.addBehavior(new KeplerOrbit(station, planet, 7000));
+		station.addBehavior(new SpawnShips(station, 10, 5000, enemyShip));
 		Model.getModel().addEntity(station);
 
-		selfShip = new Ship(station.getPos().x, station.getPos().y, station.getPos().z, 10, 8, self);
+		selfShip = new Ship(station.getPosX(), station.getPosY(), station.getPosZ(), 10, 8, self);
 		selfShip.addMorph(new Morph(MorphType.OVERMIND, selfShip));
 		selfShip.addMorph(new Morph(MorphType.SHIELD, selfShip));
 		selfShip.addMorph(new Morph(MorphType.SIMPLE_PROPULSOR, selfShip));
@@ -279,91 +509,163 @@ public class Model {
 
 		Model.getModel().getSimpleSelection().add(selfShip);
 		selfShip.setSelected(true);
-		Model.getModel().getViewport().getFocalPoint().copy(new Vect3D(selfShip.getPos()).mult(Model.getModel().getViewport().getZoomFactor()));
+		Model.getModel().getViewport().getFocalPoint().copy(selfShip.getPos(new Vect3D()).mult(Model.getModel().getViewport().getZoomFactor()));
 
 	}
 
-	public void removeEntity(Entity entity) {
-		entitiesToRemove.add(entity);
+	/**
+	 * Compacts the entity maps after the removals.
+	 */
+	synchronized void compactEntities() {
+		for (EntityMap entityMap : entitiesByEntityType.values()) {
+			entityMap.compact();
+		}
 	}
 
-	public void update() {
-		// long before = new GregorianCalendar().getTimeInMillis();
+	public void setHeadless(boolean headless) {
+		this.headless = headless;
+	}
 
-		// update the number of millis since game start
-		long tmpMsec = new Date().getTime() - gameStartMsec;
-		lastUpdateTS = currentTS;
-		if (uiContext.isPaused()) {
-			gameStartMsec += tmpMsec - currentTS;
-		} else {
-			currentTS = tmpMsec;
+	/**
+	 * Removes an entity from the model.
+	 * This must not be called while the entities are updated, use the {@link EntityCommandBuffer} instead.
+	 * Removing an entity that is not in the model does nothing.
+	 * The entity maps cannot be iterated until {@link #compactEntities()} has been called.
+	 * @param entity
+	 */
+	public synchronized void removeEntity(Entity entity) {
+		if (!entityRegistry.remove(entity.getId())) {
+			return;
 		}
-		secondsSinceLastUpdate = ((float) currentTS - lastUpdateTS) / 1000;
 
-		// if time has not progresse, we do nothing in the update part.
-		if (secondsSinceLastUpdate == 0) {
-			return;
+		// the map by rendering step is the same instance
+		getEntitiesByType(entity.getDescriptor().getEntityType()).remove(entity.getId());
+		if (entity.getKinematics() == parallelEntities) {
+			// the entity keeps its kinematic state
+			parallelEntities.moveTo(entity.getKinematicsSlot(), new KinematicsStore(1));
+		}
+		spatialGrid.remove(entity);
+		rootWA.remove(entity);
+
+		// do not keep references to the removed entity
+		if (simpleSelection.remove(entity)) {
+			entity.setSelected(false);
+		}
+		actionSelection.remove(entity);
+		if (viewport.getLockedOnEntity() == entity) {
+			viewport.setLockedOnEntity(null);
+		}
+	}
+
+	private void updateInParallel(EntityUpdateTask.Phase phase) {
+		EntityUpdateTask task = new EntityUpdateTask(parallelEntities, 0, parallelEntities.size(), parallelUpdateThreshold, phase,
+				getSecondsSinceLastUpdate());
+		if (!parallelUpdate || parallelEntities.size() <= parallelUpdateThreshold) {
+			// not worth waking up the pool
+			task.compute();
+		} else {
+			updatePool.invoke(task);
 		}
+	}
+
+	/**
+	 * Keeps the spatial indexes in sync with the position of the entity.
+	 * This must be called each time the position of an indexed entity changes.
+	 * @param entity
+	 */
+	public void updateEntityLocation(Entity entity) {
+		spatialGrid.update(entity);
+		rootWA.update(entity);
+	}
+
+	/**
+	 * Advances the simulation according to the real time elapsed since the last call.
+	 * The simulation runs by fixed ticks. The time that does not fill a whole tick is kept for the next call
+	 * and used to interpolate the rendered positions between the last two ticks.
+	 * If the simulation falls too far behind, at most {@link #maxCatchUpTicks} ticks are run and the remaining time is dropped.
+	 */
+	public void update() {
+		long now = System.nanoTime();
+		long elapsedNanos = now - lastRealTimeNanos;
+		lastRealTimeNanos = now;
 
-		// Update WAs
-		// Create necessary WAs
-		// FIXME if content dead code ?
+		// Create the WAs covering the viewport
+		// Only the tiles entering the viewport are processed
 		if (viewport.getZoomFactor() > 0.25) {
-			float zoomFactor = Model.getModel().getViewport().getZoomFactor();
-			float windowWidthInWorld = window.getWidth() / zoomFactor;
-			float windowHeightInWorld = window.getHeight() / zoomFactor;
-			Vect3D focalPointInWorld = new Vect3D().add(new Vect3D(viewport.getFocalPoint())).mult(1f / zoomFactor);
-			for (float x = focalPointInWorld.x - windowWidthInWorld / 2; x < focalPointInWorld.x + windowWidthInWorld + 512 / zoomFactor; x += 512 / zoomFactor) {
-				for (float y = focalPointInWorld.y - windowHeightInWorld / 2; y < focalPointInWorld.y + windowHeightInWorld + 512 / zoomFactor; y += 512 / zoomFactor) {
-
-					Vect3D studiedPoint = new Vect3D(x, y, 0);
-
-					// get the WA under the focal point
-					Set<WorldArea> fpWAs = rootWA.getOverlappingWAs(studiedPoint, 0);
-					WorldArea fpWA = null;
-
-					if (fpWAs.isEmpty()) {
-						// the focal point is not even in the root wa ..
-						// not probable for now
-						LOGGER.debug("empty");
-					} else {
-						int minLevel = Integer.MAX_VALUE;
-						for (WorldArea wa : fpWAs) {
-							if (minLevel > wa.getLevel()) {
-								minLevel = wa.getLevel();
-								fpWA = wa;
-							}
-						}
-
-						// fpWAs is not empty, therefore, fpWA cannot be null
-						if (minLevel > 0) {
-							// LOGGER.debug(studiedPoint.toString());
-							fpWA = fpWA.createDescendantWA(studiedPoint, 0);
-						}
-					}
-				}
+			viewportTiles.update(viewport, window);
+		}
 
-			}
+		// when paused, the simulation time does not progress
+		if (uiContext.isPaused()) {
+			accumulatedNanos = 0;
+			return;
+		}
+
+		accumulatedNanos += elapsedNanos;
+		int ticks = 0;
+		while (accumulatedNanos >= tickNanos && ticks < maxCatchUpTicks) {
+			step();
+			accumulatedNanos -= tickNanos;
+			ticks++;
+		}
 
+		if (accumulatedNanos >= tickNanos) {
+			LOGGER.debug("Simulation is late, dropping " + accumulatedNanos / tickNanos + " ticks");
+			accumulatedNanos %= tickNanos;
 		}
+		interpolationAlpha = (float) accumulatedNanos / tickNanos;
+	}
+
+	/**
+	 * Runs one fixed-duration simulation tick.
+	 */
+	public void step() {
+		tickCount++;
+		lastUpdateTS = currentTS;
+		currentTS = tickCount * 1000 / tickRate;
 
-		// Update all entities
+		// the decisions of the tick are taken on the gravity of the attractors at the beginning of the tick
+		collectAttractors();
+		gravitySolver.update(attractors);
+
+		// Update the entities that do not allow parallel updates, one after the other
 		// IMPROVE Find a way to filter the entities needing an update
 		for (EntityMap entityMap : entitiesByEntityType.values()) {
-			for (Entity entity : entityMap.values()) {
+			for (int i = 0; i < entityMap.size(); i++) {
+				Entity entity = entityMap.valueAt(i);
+				if (entity.getKinematics() == parallelEntities) {
+					continue;
+				}
+
+				entity.storePreviousPos();
 				entity.update();
 				entity.processPendingBehaviors();
+				updateEntityLocation(entity);
 			}
 		}
 
-		// Remove entities flagged as "needing to be removed"
-		for (Entity entity : entitiesToRemove) {
-			getEntitiesByRenderingType(entity.getClass().getAnnotation(RenderingHints.class).renderingStep()).remove(entity.getId());
-			getEntitiesByType(entity.getClass().getAnnotation(EntityHints.class).entityType()).remove(entity.getId());
+		// Update the other entities in two phases : all the decisions are taken on the same state of the world,
+		// then they are all committed.
+		if (parallelEntities.size() > 0) {
+			if (behaviorSystemsEnabled) {
+				updateInParallel(EntityUpdateTask.Phase.AI);
+				behaviorSystems.run(parallelEntities, updatePool, parallelUpdate, parallelUpdateThreshold);
+				updateInParallel(EntityUpdateTask.Phase.FORCES);
+			} else {
+				updateInParallel(EntityUpdateTask.Phase.DECISIONS);
+			}
+			updateInParallel(EntityUpdateTask.Phase.COMMIT);
+
+			// the spatial indexes are not thread safe
+			for (int i = 0; i < parallelEntities.size(); i++) {
+				updateEntityLocation(parallelEntities.getEntity(i));
+			}
 		}
 
+		// Apply the creations and destructions requested during the tick
+		commandBuffer.apply(this);
+
 		// particle engine update
 		particleEngine.update();
-
 	}
 }
@@ -0,0 +1,267 @@
+package net.carmgate.morph.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.common.Entity;
+
+import org.apache.commons.collections.Predicate;
+
+/**
+ * Uniform grid spatial index.
+ * Entities are bucketed by the square cell containing their position.
+ * An entity is only moved from one bucket to another when it crosses a cell boundary.
+ * The buckets are found by an open addressing hash table with linear probing on the primitive cell keys.
+ * Emptied buckets are kept for reuse and only dropped when the table has to grow.
+ * <b>This class is not thread safe</b> : queries can run concurrently, but not while the grid is being updated.
+ */
+public class SpatialGrid {
+
+	/**
+	 * Holds the result of a radius query : the matching entities sorted by increasing squared distance.
+	 * Instances are meant to be kept by the caller and reused from one query to the next.
+	 */
+	public static class Result {
+		private Entity[] entities = new Entity[16];
+		private float[] distancesSquared = new float[16];
+		private int size;
+
+		private void add(Entity entity, float distanceSquared) {
+			if (size == entities.length) {
+				Entity[] newEntities = new Entity[size * 2];
+				System.arraycopy(entities, 0, newEntities, 0, size);
+				entities = newEntities;
+				float[] newDistances = new float[size * 2];
+				System.arraycopy(distancesSquared, 0, newDistances, 0, size);
+				distancesSquared = newDistances;
+			}
+
+			// insertion sort : results are usually few and almost sorted
+			int i = size - 1;
+			while (i >= 0 && distancesSquared[i] > distanceSquared) {
+				entities[i + 1] = entities[i];
+				distancesSquared[i + 1] = distancesSquared[i];
+				i--;
+			}
+			entities[i + 1] = entity;
+			distancesSquared[i + 1] = distanceSquared;
+			size++;
+		}
+
+		public void clear() {
+			for (int i = 0; i < size; i++) {
+				entities[i] = null;
+			}
+			size = 0;
+		}
+
+		/**
+		 * @param i index of the result
+		 * @return the i-th closest entity
+		 */
+		public Entity get(int i) {
+			return entities[i];
+		}
+
+		/**
+		 * @param i index of the result
+		 * @return the squared distance between the i-th closest entity and the query location
+		 */
+		public float getDistanceSquared(int i) {
+			return distancesSquared[i];
+		}
+
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		public int size() {
+			return size;
+		}
+	}
+
+	/** Cell key of an entity that is not in the grid. */
+	public static final long NO_CELL = Long.MIN_VALUE;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final float cellSize;
+
+	// The hash table : cell keys and their buckets, a null bucket marks an empty slot.
+	// Its length is a power of 2 and it is never more than half full.
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private List<Entity>[] cells = newCells(INITIAL_CAPACITY);
+	private int cellCount;
+
+	/**
+	 * @param cellSize the width of a cell in world coordinates.
+	 * It should be in the order of magnitude of the usual query radius.
+	 */
+	public SpatialGrid(float cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	private static long cellKey(int cellX, int cellY) {
+		return (long) cellX << 32 | cellY & 0xffffffffL;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ h >>> 32);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Entity>[] newCells(int length) {
+		return new List[length];
+	}
+
+	private int cellCoord(float coord) {
+		return (int) Math.floor(coord / cellSize);
+	}
+
+	/**
+	 * Adds an entity to the grid.
+	 * @param entity
+	 */
+	public void add(Entity entity) {
+		long key = cellKey(cellCoord(entity.getPosX()), cellCoord(entity.getPosY()));
+		entity.setSpatialGridCell(key);
+		getOrCreateCell(key).add(entity);
+	}
+
+	/**
+	 * @param key
+	 * @return the index in the table of the given key, or of the empty slot where it should be inserted
+	 */
+	private int find(long key) {
+		int mask = keys.length - 1;
+		int index = hash(key) & mask;
+		while (cells[index] != null && keys[index] != key) {
+			index = index + 1 & mask;
+		}
+		return index;
+	}
+
+	private List<Entity> getCell(long key) {
+		return cells[find(key)];
+	}
+
+	private List<Entity> getOrCreateCell(long key) {
+		int index = find(key);
+		List<Entity> cell = cells[index];
+		if (cell == null) {
+			if ((cellCount + 1) * 2 > keys.length) {
+				rehash();
+				index = find(key);
+			}
+			cell = new ArrayList<>();
+			keys[index] = key;
+			cells[index] = cell;
+			cellCount++;
+		}
+		return cell;
+	}
+
+	/**
+	 * Rebuilds the table, dropping the empty buckets, and doubles its length if it would still be more than a quarter full.
+	 */
+	private void rehash() {
+		long[] oldKeys = keys;
+		List<Entity>[] oldCells = cells;
+
+		int usedCount = 0;
+		for (List<Entity> cell : oldCells) {
+			if (cell != null && !cell.isEmpty()) {
+				usedCount++;
+			}
+		}
+		int length = usedCount * 4 > oldKeys.length ? oldKeys.length * 2 : oldKeys.length;
+
+		keys = new long[length];
+		cells = newCells(length);
+		cellCount = 0;
+		for (int i = 0; i < oldCells.length; i++) {
+			if (oldCells[i] != null && !oldCells[i].isEmpty()) {
+				int index = find(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				cells[index] = oldCells[i];
+				cellCount++;
+			}
+		}
+	}
+
+	/**
+	 * Finds the entities within a given distance of a location.
+	 * @param location center of the search area
+	 * @param radius radius of the search area
+	 * @param predicate additional filter on the entities, might be null
+	 * @param result the result holder, it is cleared before being filled
+	 * @return the result holder, filled with entities sorted by distance
+	 */
+	public Result query(Vect3D location, float radius, Predicate predicate, Result result) {
+		result.clear();
+
+		float radiusSquared = radius * radius;
+		int minCellX = cellCoord(location.x - radius);
+		int maxCellX = cellCoord(location.x + radius);
+		int minCellY = cellCoord(location.y - radius);
+		int maxCellY = cellCoord(location.y + radius);
+
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				List<Entity> cell = getCell(cellKey(cellX, cellY));
+				if (cell == null) {
+					continue;
+				}
+
+				for (int i = 0; i < cell.size(); i++) {
+					Entity entity = cell.get(i);
+					float dx = entity.getPosX() - location.x;
+					float dy = entity.getPosY() - location.y;
+					float dz = entity.getPosZ() - location.z;
+					float distanceSquared = dx * dx + dy * dy + dz * dz;
+					if (distanceSquared < radiusSquared && (predicate == null || predicate.evaluate(entity))) {
+						result.add(entity, distanceSquared);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes an entity from the grid.
+	 * Removing an entity that is not in the grid does nothing.
+	 * @param entity
+	 */
+	public void remove(Entity entity) {
+		long key = entity.getSpatialGridCell();
+		if (key == NO_CELL) {
+			return;
+		}
+		entity.setSpatialGridCell(NO_CELL);
+		getCell(key).remove(entity);
+	}
+
+	/**
+	 * Moves the entity to the cell matching its current position if it crossed a cell boundary.
+	 * @param entity
+	 */
+	public void update(Entity entity) {
+		long oldKey = entity.getSpatialGridCell();
+		if (oldKey == NO_CELL) {
+			return;
+		}
+
+		long newKey = cellKey(cellCoord(entity.getPosX()), cellCoord(entity.getPosY()));
+		if (oldKey == newKey) {
+			return;
+		}
+
+		getCell(oldKey).remove(entity);
+		entity.setSpatialGridCell(newKey);
+		getOrCreateCell(newKey).add(entity);
+	}
+}
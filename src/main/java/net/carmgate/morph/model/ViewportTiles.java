@@ -0,0 +1,122 @@
+package net.carmgate.morph.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.WorldArea;
+import net.carmgate.morph.ui.ViewPort;
+import net.carmgate.morph.ui.Window;
+
+/**
+ * Cache of the level 0 {@link WorldArea}s covering the viewport.
+ * When the viewport moves or zooms, only the tiles entering or leaving the covered range are processed.
+ * Therefore, a still viewport costs nothing.
+ * The covered tiles are pinned so that they are not pruned from the quadtree while they are in view.
+ */
+public class ViewportTiles {
+
+	private final WorldArea rootWA;
+	private final Map<Long, WorldArea> tiles = new HashMap<>();
+
+	/** The range of tiles currently covered, in tile coordinates (inclusive). */
+	private int minTileX;
+	private int minTileY;
+	private int maxTileX;
+	private int maxTileY;
+	private boolean initialized;
+
+	// avoid allocations on each update
+	private final float[] bounds = new float[4];
+	private final Vect3D tileCenter = new Vect3D();
+
+	public ViewportTiles(WorldArea rootWA) {
+		this.rootWA = rootWA;
+	}
+
+	private static long tileKey(int tileX, int tileY) {
+		return (long) tileX << 32 | tileY & 0xffffffffL;
+	}
+
+	private static int tileCoord(float coord) {
+		return (int) Math.floor(coord / WorldArea.LEAF_WIDTH);
+	}
+
+	private void addTile(int tileX, int tileY) {
+		tileCenter.copy((tileX + 0.5f) * WorldArea.LEAF_WIDTH, (tileY + 0.5f) * WorldArea.LEAF_WIDTH, 0);
+		if (rootWA.contains(tileCenter)) {
+			WorldArea tile = rootWA.createDescendantWA(tileCenter, 0);
+			tile.pin();
+			tiles.put(tileKey(tileX, tileY), tile);
+		}
+	}
+
+	/**
+	 * @return the level 0 world areas covering the viewport at last update.
+	 */
+	public Collection<WorldArea> getTiles() {
+		return tiles.values();
+	}
+
+	/**
+	 * Adds or removes the tiles in the first range that are not in the second range.
+	 */
+	private void processDifference(int minX, int minY, int maxX, int maxY, int otherMinX, int otherMinY, int otherMaxX, int otherMaxY,
+			boolean add) {
+		for (int tileY = minY; tileY <= maxY; tileY++) {
+			if (tileY < otherMinY || tileY > otherMaxY) {
+				// the whole row is out of the other range
+				processRow(tileY, minX, maxX, add);
+			} else {
+				processRow(tileY, minX, Math.min(maxX, otherMinX - 1), add);
+				processRow(tileY, Math.max(minX, otherMaxX + 1), maxX, add);
+			}
+		}
+	}
+
+	private void processRow(int tileY, int fromX, int toX, boolean add) {
+		for (int tileX = fromX; tileX <= toX; tileX++) {
+			if (add) {
+				addTile(tileX, tileY);
+			} else {
+				WorldArea tile = tiles.remove(tileKey(tileX, tileY));
+				if (tile != null) {
+					tile.unpin();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the covered tiles to match the region of the world seen through the viewport.
+	 * Missing world areas are created on the fly.
+	 * @param viewport
+	 * @param window
+	 */
+	public void update(ViewPort viewport, Window window) {
+		viewport.getWorldBounds(window, bounds);
+		int newMinTileX = tileCoord(bounds[0]);
+		int newMinTileY = tileCoord(bounds[1]);
+		int newMaxTileX = tileCoord(bounds[2]);
+		int newMaxTileY = tileCoord(bounds[3]);
+
+		if (!initialized) {
+			for (int tileY = newMinTileY; tileY <= newMaxTileY; tileY++) {
+				processRow(tileY, newMinTileX, newMaxTileX, true);
+			}
+			initialized = true;
+		} else if (newMinTileX == minTileX && newMinTileY == minTileY && newMaxTileX == maxTileX && newMaxTileY == maxTileY) {
+			return;
+		} else {
+			// drop the tiles that are not covered anymore, then add the newly covered ones
+			processDifference(minTileX, minTileY, maxTileX, maxTileY, newMinTileX, newMinTileY, newMaxTileX, newMaxTileY, false);
+			processDifference(newMinTileX, newMinTileY, newMaxTileX, newMaxTileY, minTileX, minTileY, maxTileX, maxTileY, true);
+		}
+
+		minTileX = newMinTileX;
+		minTileY = newMinTileY;
+		maxTileX = newMaxTileX;
+		maxTileY = newMaxTileY;
+	}
+}
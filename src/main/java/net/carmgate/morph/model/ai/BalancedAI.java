@@ -7,6 +7,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.SpatialGrid;
 import net.carmgate.morph.model.behaviors.InflictLaserDamage;
 import net.carmgate.morph.model.behaviors.common.Movement;
 import net.carmgate.morph.model.behaviors.steering.Break;
@@ -47,6 +48,21 @@ public class BalancedAI {
 
 	private Entity target;
 
+	/** Reused from one run to the next to avoid allocating on each detection. */
+	private final SpatialGrid.Result detectedEnemies = new SpatialGrid.Result();
+	private final Vect3D predictedEnemyPos = new Vect3D();
+	private final Vect3D enemySpeed = new Vect3D();
+	private final Vect3D shipPos = new Vect3D();
+	private final Predicate enemyPredicate = new Predicate() {
+
+		@Override
+		public boolean evaluate(Object object) {
+			Entity entity = (Entity) object;
+			return entity.getPlayer() != ship.getPlayer()
+					&& entity.getPlayer().getPlayerType() != PlayerType.NOONE;
+		}
+	};
+
 	public BalancedAI(Ship ship) {
 		this.ship = ship;
 	}
@@ -93,17 +109,8 @@ public class BalancedAI {
 		}
 	}
 
-	private Set<Entity> detectEnemies() {
-		return Model.getModel().findEntitiesWithinDistanceOfLocationAndNotPlayerOwned(ship.getPos(),
-				1000, new Predicate() {
-
-			@Override
-			public boolean evaluate(Object object) {
-				Entity entity = (Entity) object;
-						return entity.getPlayer() != ship.getPlayer()
-								&& entity.getPlayer().getPlayerType() != PlayerType.NOONE;
-			}
-		});
+	private SpatialGrid.Result detectEnemies() {
+		return Model.getModel().findEntitiesWithinDistance(ship.getPos(shipPos), 1000, enemyPredicate, detectedEnemies);
 	}
 
 	public void handleEvent(Event event) {
@@ -133,7 +140,7 @@ public class BalancedAI {
 
 	public void run() {
 		computePremices();
-		Set<Entity> detectedEnemies = detectEnemies();
+		detectEnemies();
 
 		// If dps is too high to win the battle : flee
 		if (currentTotalDpsTaken > ship.getMaxDpsInflictable()) {
@@ -150,7 +157,8 @@ public class BalancedAI {
 
 		// if we are fleeing but have not taken any damage for more than 2s, the break and reset AI
 		if (fleeing) {
-			if (ship.getPos().distance(new Vect3D(mostDangerousEnemy.getPos()).add(mostDangerousEnemy.getSpeed())) > 1000) {
+			mostDangerousEnemy.getPos(predictedEnemyPos).add(mostDangerousEnemy.getSpeed(enemySpeed));
+			if (ship.getPos(shipPos).distanceSquared(predictedEnemyPos) > 1000 * 1000) {
 				LOGGER.debug("Now, we're safe ... no damage for more than 3s");
 				ship.removeBehaviorsByClass(Flee.class);
 				ship.addBehavior(new Break(ship));
@@ -167,7 +175,7 @@ public class BalancedAI {
 			// + detectedEnemies.size());
 
 			if (ship.getMaxDpsInflictable() > 0 && !detectedEnemies.isEmpty() && target == null) {
-				target = detectedEnemies.iterator().next();
+				target = detectedEnemies.get(0);
 				LOGGER.debug("Removing movement");
 				ship.removeBehaviorsByClass(Movement.class);
 				ship.addBehavior(new Follow(ship, target, 200));
@@ -10,6 +10,7 @@ import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph;
 import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.Ship;
+import net.carmgate.morph.model.entities.common.Cullable;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.Renderable;
 import net.carmgate.morph.model.events.TakeDamage;
@@ -21,7 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Needs({ @ActivatedMorph(morphType = MorphType.LASER) })
-public class InflictLaserDamage implements Behavior, Renderable {
+public class InflictLaserDamage implements Behavior, Renderable, Cullable {
 	private static float maxDamageLevel1 = Conf.getFloatProperty(ConfItem.MORPH_LASER_MAXDAMAGELEVEL1);
 
 	private final Logger LOGGER = LoggerFactory.getLogger(InflictLaserDamage.class);
@@ -32,6 +33,8 @@ public class InflictLaserDamage implements Behavior, Renderable {
 
 	private final Ship sourceOfDamage;
 	private final Entity target;
+	private final Vect3D sourcePos = new Vect3D();
+	private final Vect3D targetPos = new Vect3D();
 
 	private long timeOfLastAction;
 
@@ -90,21 +93,30 @@ public class InflictLaserDamage implements Behavior, Renderable {
 		// Nothing to do
 	}
 
+	/**
+	 * The laser beam is visible if it crosses the viewport. The stats of the player's lasers are always visible.
+	 */
+	@Override
+	public boolean isVisible(float[] worldBounds) {
+		return sourceOfDamage.getPlayer().getFof() == FOF.SELF
+				|| RenderUtils.isSegmentVisible(sourceOfDamage.getRenderPos(), target.getRenderPos(), worldBounds);
+	}
+
 	@Override
 	public void render(int glMode) {
 		if (timeOfLastFire != 0 && Math.abs(Model.getModel().getCurrentTS() - timeOfLastFire) < 200) {
 			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
-			RenderUtils.renderLine(sourceOfDamage.getPos(), target.getPos(), (float) (40 + Math.random() * 10)
+			RenderUtils.renderLine(sourceOfDamage.getRenderPos(), target.getRenderPos(), (float) (40 + Math.random() * 10)
 					, new Float[] { 1f, 0f, 0f, 1f }
 			, new Float[] { 0f, 0f, 0f, 0.4f });
-			RenderUtils.renderLine(sourceOfDamage.getPos(), target.getPos(), (float) (4 + Math.random() * 1)
+			RenderUtils.renderLine(sourceOfDamage.getRenderPos(), target.getRenderPos(), (float) (4 + Math.random() * 1)
 					, new Float[] { 1f, 0f, 0f, 1f }
 			, new Float[] { 1f, 0f, 0f, 0.8f });
 			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 		}
 
 		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
-		Vect3D focalPoint = new Vect3D(Model.getModel().getViewport().getFocalPoint());
+		Vect3D focalPoint = Model.getModel().getViewport().getFocalPoint();
 
 		GL11.glScalef(1f / zoomFactor, 1f / zoomFactor, 1);
 		GL11.glTranslatef(focalPoint.x, focalPoint.y, focalPoint.z);
@@ -133,7 +145,7 @@ public class InflictLaserDamage implements Behavior, Renderable {
 		// the orders one by one. (currentTs - timeOfLastAction / rateOfFire > 2)
 		// TODO This mechanism of regularly doing something should be generalized with a parameterized frequency
 		if (timeOfLastAction == 0 || (Model.getModel().getCurrentTS() - timeOfLastAction) * rateOfFire > 1) {
-			if (target.getPos().distance(sourceOfDamage.getPos()) < MAX_RANGE && consumeEnergy()) {
+			if (target.getPos(targetPos).distance(sourceOfDamage.getPos(sourcePos)) < MAX_RANGE && consumeEnergy()) {
 
 				target.fireEvent(new TakeDamage(sourceOfDamage, sourceOfDamage.getMaxDpsInflictable()));
 				timeOfLastFire = Model.getModel().getCurrentTS();
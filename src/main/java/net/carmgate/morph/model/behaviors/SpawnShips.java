@@ -5,7 +5,6 @@ import java.util.List;
 
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.behaviors.common.Behavior;
-import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.listener.DeathListener;
@@ -26,10 +25,11 @@ public class SpawnShips implements Behavior, DeathListener {
 	private final long spawnPeriod;
 	private long lastSpawnTS;
 	private final Ship modelShip;
-	private final Vect3D spawnLocation;
+	/** The ships are spawned at the position of this entity. */
+	private final Entity spawner;
 
-	public SpawnShips(Vect3D spawnLocation, int maxNumberOfShips, long spawnPeriod, Ship modelShip) {
-		this.spawnLocation = spawnLocation;
+	public SpawnShips(Entity spawner, int maxNumberOfShips, long spawnPeriod, Ship modelShip) {
+		this.spawner = spawner;
 		this.maxNumberOfShips = maxNumberOfShips;
 		this.spawnPeriod = spawnPeriod;
 		this.modelShip = modelShip;
@@ -40,7 +40,7 @@ public class SpawnShips implements Behavior, DeathListener {
 
 	@Override
 	public Behavior cloneForEntity(Entity entity) {
-		return new SpawnShips(spawnLocation, maxNumberOfShips, spawnPeriod, modelShip);
+		return new SpawnShips(spawner, maxNumberOfShips, spawnPeriod, modelShip);
 	}
 
 	@Override
@@ -49,7 +49,7 @@ public class SpawnShips implements Behavior, DeathListener {
 	}
 
 	@Override
-	public void handleDeathEvent(Entity deadShip) {
+	public synchronized void handleDeathEvent(Entity deadShip) {
 		spawnedShips.remove(deadShip);
 	}
 
@@ -61,10 +61,10 @@ public class SpawnShips implements Behavior, DeathListener {
 			if (spawnedShips.size() < maxNumberOfShips) {
 				// TODO The ship might not be the best place to clone a ship FOR this behavior ...
 				Ship newShip = modelShip.clone();
-				newShip.getPos().copy(spawnLocation);
+				newShip.setPos(spawner.getPosX(), spawner.getPosY(), spawner.getPosZ());
 				newShip.setHeading((float) (Math.random() * 360));
 				newShip.addDeathListener(this);
-				Model.getModel().addEntity(newShip);
+				Model.getModel().getCommandBuffer().create(newShip);
 				spawnedShips.add(newShip);
 			}
 
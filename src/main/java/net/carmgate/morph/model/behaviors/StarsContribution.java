@@ -1,16 +1,17 @@
 package net.carmgate.morph.model.behaviors;
 
-import net.carmgate.morph.model.Constants;
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.behaviors.common.BehaviorHints;
+import net.carmgate.morph.model.behaviors.common.BehaviorPhase;
 import net.carmgate.morph.model.behaviors.common.ForceGeneratingBehavior;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Ship;
-import net.carmgate.morph.model.entities.Star;
 import net.carmgate.morph.model.entities.common.Entity;
-import net.carmgate.morph.model.entities.common.EntityType;
 import net.carmgate.morph.model.entities.common.Renderable;
 import net.carmgate.morph.model.events.Die;
+import net.carmgate.morph.model.physics.GravitySample;
+import net.carmgate.morph.model.physics.GravitySolver;
 
 import org.lwjgl.opengl.GL11;
 
@@ -19,12 +20,17 @@ import org.lwjgl.opengl.GL11;
  * <ul><li>the force that is generated by the stars on a movable entity</li>
  * <li>the energy that the entity receives from the stars</li></ul>
  * It also kills killable entities if they enter the star death radius.
+ * The contributions of all the attractors are read from the {@link GravitySolver} of the model.
+ * It is sensed before the movements run, since {@link net.carmgate.morph.model.behaviors.steering.Orbit} compensates its force.
  */
+@BehaviorHints(phase = BehaviorPhase.SENSE)
 public class StarsContribution extends ForceGeneratingBehavior implements Renderable {
 
 	private final Entity movable;
 
 	private final Vect3D force = new Vect3D();
+	private final GravitySample sample = new GravitySample();
+	private final Vect3D movablePos = new Vect3D();
 
 	@Deprecated
 	public StarsContribution() {
@@ -60,36 +66,32 @@ public class StarsContribution extends ForceGeneratingBehavior implements Render
 
 	@Override
 	public void render(int glMode) {
-		GL11.glTranslatef(movable.getPos().x, movable.getPos().y, movable.getPos().z);
+		GL11.glTranslatef(movable.getPosX(), movable.getPosY(), movable.getPosZ());
 		if (Model.getModel().getUiContext().isDebugMode()) {
 			GL11.glColor4f(1, 0, 0, 1);
 			force.render(glMode);
 		}
-		GL11.glTranslatef(-movable.getPos().x, -movable.getPos().y, -movable.getPos().z);
+		GL11.glTranslatef(-movable.getPosX(), -movable.getPosY(), -movable.getPosZ());
 	}
 
 	@Override
 	public void run() {
-		for (Entity entity : Model.getModel().getEntitiesByType(EntityType.STAR).values()) {
-			Star star = (Star) entity;
-			force.copy(star.getPos()).substract(movable.getPos());
-			float distance = force.modulus();
-
-			// if the ship enters the star, it's destroyed
-			if (distance < star.getKillingRadius() && movable instanceof Ship) {
-				movable.fireEvent(new Die());
-			}
-
-			// Adds the gravity pulling force
-			force.normalize(1).mult((float) (Constants.SIMPLE_G * star.getMass() * movable.getMass() / (distance * distance)));
-
-			// Add energy inflow
-			if (movable instanceof Ship) {
-				float energyInflux = (float) (star.getEnergyFlow() * Math.sqrt(movable.getMass()) / movable.getPos().distance(star.getPos()));
-				movable.addEnergy(energyInflux * Model.getModel().getSecondsSinceLastUpdate());
-			}
-
-			// TODO Add overflow energy induced damage
+		Model.getModel().getGravitySolver().sample(movable.getPos(movablePos), sample);
+
+		// if the ship enters a star, it's destroyed
+		if (sample.isKilling() && movable instanceof Ship) {
+			movable.fireEvent(new Die());
 		}
+
+		// Adds the gravity pulling force
+		force.copy(sample.getAccelerationX(), sample.getAccelerationY(), 0).mult(movable.getMass());
+
+		// Add energy inflow
+		if (movable instanceof Ship) {
+			float energyInflux = (float) (sample.getEnergyFlow() * Math.sqrt(movable.getMass()));
+			movable.addEnergy(energyInflux * Model.getModel().getSecondsSinceLastUpdate());
+		}
+
+		// TODO Add overflow energy induced damage
 	}
 }
@@ -0,0 +1,74 @@
+package net.carmgate.morph.model.behaviors.common;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of behaviors meant to be iterated by index, so that walking the behaviors of an entity does not allocate.
+ * Elements are compared by identity and kept in insertion order.
+ * @param <T> the type of the elements
+ */
+public final class BehaviorArray<T> {
+
+	private Object[] elements = new Object[4];
+	private int size;
+
+	public void add(T element) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		elements[size++] = element;
+	}
+
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+	}
+
+	public boolean contains(Object element) {
+		return indexOf(element) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		return (T) elements[index];
+	}
+
+	private int indexOf(Object element) {
+		for (int i = 0; i < size; i++) {
+			if (elements[i] == element) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param element
+	 * @return true if the element was present
+	 */
+	public boolean remove(Object element) {
+		int index = indexOf(element);
+		if (index < 0) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * Removes the element at the given index, shifting the following ones.
+	 * @param index
+	 */
+	public void removeAt(int index) {
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,18 @@
+package net.carmgate.morph.model.behaviors.common;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BehaviorHints {
+
+	/**
+	 * When the behaviors are updated by systems, all the behaviors of a given class are run in a row,
+	 * phase after phase, before the next class is run.
+	 * Behaviors without this hint are run in the {@link BehaviorPhase#ACT} phase.
+	 */
+	BehaviorPhase phase() default BehaviorPhase.ACT;
+
+}
@@ -0,0 +1,14 @@
+package net.carmgate.morph.model.behaviors.common;
+
+/**
+ * The order in which the behaviors are run when the behaviors are updated by systems (see {@link BehaviorHints}).
+ * The forces resulting from the behaviors are integrated once all the phases have been run.
+ */
+public enum BehaviorPhase {
+	/** Behaviors gathering information on the surroundings of the entity. */
+	SENSE,
+	/** Movements, which may rely on what has been sensed. */
+	STEER,
+	/** Behaviors acting on the world or on the entity itself. */
+	ACT;
+}
@@ -10,8 +10,12 @@ import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.Renderable;
 
+@BehaviorHints(phase = BehaviorPhase.STEER)
 public abstract class Movement implements Behavior, Renderable {
 	protected final Entity movableEntity;
+	// The position and speed of the movable entity, for the movements that read them as vectors. Reused from one call to the next.
+	protected final Vect3D movablePos = new Vect3D();
+	protected final Vect3D movableSpeed = new Vect3D();
 
 	protected Movement(Entity movable) {
 		movableEntity = movable;
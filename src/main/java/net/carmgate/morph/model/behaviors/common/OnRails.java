@@ -0,0 +1,25 @@
+package net.carmgate.morph.model.behaviors.common;
+
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * A behavior giving the position and speed of its entity at any simulation time.
+ * As long as an entity holds such a behavior, its movement is not integrated anymore : it is placed on the rails at each update.
+ */
+public interface OnRails extends Behavior {
+
+	/**
+	 * @param time the simulation time, in seconds (see {@link net.carmgate.morph.model.Model#getSimulationTime()})
+	 * @param result the result holder
+	 * @return the result holder, filled with the world position of the entity at the given time
+	 */
+	Vect3D getPosition(double time, Vect3D result);
+
+	/**
+	 * Computes both the position and the speed, sharing the work they have in common.
+	 * @param time the simulation time, in seconds
+	 * @param position the holder filled with the world position of the entity at the given time
+	 * @param speed the holder filled with the speed of the entity at the given time, in the world frame
+	 */
+	void getPositionAndSpeed(double time, Vect3D position, Vect3D speed);
+}
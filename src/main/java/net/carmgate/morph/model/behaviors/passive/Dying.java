@@ -6,6 +6,7 @@ import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.Renderable;
 import net.carmgate.morph.model.entities.common.listener.DeathListener;
+import net.carmgate.morph.ui.BurstEmitter;
 
 public class Dying implements Behavior, Renderable {
 
@@ -35,23 +36,15 @@ public class Dying implements Behavior, Renderable {
 
 	@Override
 	public void render(int glMode) {
-		for (int i = 0; i < 200; i++) {
-			Model.getModel()
-			.getParticleEngine()
-			.addParticle(
-					new Vect3D(target.getPos()),
-					new Vect3D(200, 0, 0).rotate((float) (Math.random() * 360)).mult((float) Math.random()).add(
-							target.getSpeed()),
-							2, 0.5f,
-							0.5f, 0.05f);
-		}
-
+		// the explosion is rendered by the particle engine
 	}
 
 	@Override
 	public void run() {
+		Model.getModel().getParticleEngine().addEmitter(new BurstEmitter(target.getPos(new Vect3D()), target.getSpeed(new Vect3D()), 200, 200, 2, 0.5f, 0.5f, 0.05f));
+
 		target.setDead(true);
-		Model.getModel().removeEntity(target);
+		Model.getModel().getCommandBuffer().destroy(target);
 
 		// TODO maybe this should better be handled by the Model or the Entity ?
 		for (DeathListener lst : target.getDeathListeners()) {
@@ -16,6 +16,8 @@ public class TakingDamage implements Behavior, Renderable {
 
 	private Entity target;
 	private float maxDamage;
+	private final Vect3D targetPos = new Vect3D();
+	private final Vect3D targetSpeed = new Vect3D();
 
 	@Deprecated
 	public TakingDamage() {
@@ -46,19 +48,19 @@ public class TakingDamage implements Behavior, Renderable {
 
 	@Override
 	public void render(int glMode) {
-		// Rendering of the order
-		float explosionAngle = (float) (Math.random() * 180 + 90);
-		for (int i = 0; i < 5; i++) {
-			Model.getModel().getParticleEngine().addParticle(
-					new Vect3D(target.getPos()),
-					new Vect3D(target.getSpeed()).mult(0.25f).rotate((float) (explosionAngle + Math.random() * 5)).add(
-							target.getSpeed()),
-							2, 0.125f, 0.5f, 0.2f);
-		}
+		// the impact is rendered by the particle engine
 	}
 
 	@Override
 	public void run() {
+		// Sparks thrown sideways or backward from the target
+		double explosionAngle = Math.toRadians(Math.random() * 180 + 90);
+		float sin = (float) Math.sin(explosionAngle);
+		float cos = (float) Math.cos(explosionAngle);
+		Vect3D speed = target.getSpeed(targetSpeed);
+		Model.getModel().getParticleEngine().addDirectionalEmitter(target.getPos(targetPos), speed, (cos * speed.x - sin * speed.y) * 0.25f,
+				(sin * speed.x + cos * speed.y) * 0.25f, 5, 5, 0, 0, 2, 0.125f, 0.5f, 0.2f);
+
 		float realDamage = maxDamage;
 
 		LOGGER.debug("Taking damage: " + realDamage + "/" + maxDamage);
@@ -10,6 +10,7 @@ import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.Planet;
 import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.common.RenderUtils;
 
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.TextureImpl;
@@ -17,13 +18,10 @@ import org.newdawn.slick.opengl.TextureImpl;
 @Needs({ @ActivatedMorph(morphType = MorphType.SIMPLE_PROPULSOR) })
 public class Arrive extends Movement {
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
-
-	// Be careful, this is the real instance of the ship's position
+	// Be careful, this can be the real instance of a vector owned by another behavior, see Orbit
 	private Vect3D target;
+	/** The entity whose position is followed by the target, if any. */
+	private Entity targetEntity;
 	private final Vect3D desiredVelocity = new Vect3D();
 
 	private float slowingDistance;
@@ -42,7 +40,8 @@ public class Arrive extends Movement {
 
 	public Arrive(Entity movable, Entity target) {
 		super(movable);
-		this.target = target.getPos();
+		targetEntity = target;
+		this.target = target.getPos(new Vect3D());
 	}
 
 	public Arrive(Entity movable, Vect3D target) {
@@ -52,6 +51,9 @@ public class Arrive extends Movement {
 
 	@Override
 	public Behavior cloneForEntity(Entity entity) {
+		if (targetEntity != null) {
+			return new Arrive(entity, targetEntity);
+		}
 		return new Arrive(entity, target);
 	}
 
@@ -66,8 +68,8 @@ public class Arrive extends Movement {
 
 	@Override
 	public void render(int glMode) {
-		final Vect3D pos = movableEntity.getPos();
-		final Vect3D speed = movableEntity.getSpeed();
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
 		GL11.glTranslatef(pos.x, pos.y, pos.z);
 		if (Model.getModel().getUiContext().isDebugMode()) {
@@ -98,39 +100,13 @@ public class Arrive extends Movement {
 			GL11.glEnd();
 
 			// render limit of effect zone
-			GL11.glBegin(GL11.GL_LINES);
-			float t = 0; // temporary data holder
-			float x = 15; // radius
-			float y = 0;
-			for (int i = 0; i < nbSegments; i++) {
-				GL11.glColor4d(1, 1, 1, 0.15);
-				GL11.glVertex2d(x, y);
-
-				t = x;
-				x = cos * x - sin * y;
-				y = sin * t + cos * y;
-
-				GL11.glVertex2d(x, y);
-			}
-			GL11.glEnd();
+			GL11.glColor4d(1, 1, 1, 0.15);
+			RenderUtils.renderCircleOutline(15, 15);
 
 			if (Model.getModel().getUiContext().isDebugMode()) {
 				// render limit of effect zone
-				GL11.glBegin(GL11.GL_LINES);
-				t = 0; // temporary data holder
-				x = slowingDistance; // radius
-				y = 0;
-				for (int i = 0; i < nbSegments; i++) {
-					GL11.glColor4d(1, 0, 0, 0.15);
-					GL11.glVertex2d(x, y);
-
-					t = x;
-					x = cos * x - sin * y;
-					y = sin * t + cos * y;
-
-					GL11.glVertex2d(x, y);
-				}
-				GL11.glEnd();
+				GL11.glColor4d(1, 0, 0, 0.15);
+				RenderUtils.renderCircleOutline(slowingDistance, slowingDistance);
 			}
 
 			GL11.glScalef(zoomFactor, zoomFactor, 1);
@@ -143,10 +119,13 @@ public class Arrive extends Movement {
 
 		// Get some ship variables (must be final)
 		final float mass = movableEntity.getMass();
-		final Vect3D pos = new Vect3D(movableEntity.getPos());
-		final Vect3D speed = new Vect3D(movableEntity.getSpeed());
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
-		targetOffset.copy(target).substract(pos);
+		if (targetEntity != null) {
+			targetEntity.getPos(target);
+		}
+		targetOffset.copyDifference(target, pos);
 
 		if (targetOffset.modulus() == 0) {
 			// TODO If we do not return there is a division by 0 somewhere below this point.
@@ -157,9 +136,10 @@ public class Arrive extends Movement {
 		normalizedTargetOffset.copy(targetOffset).normalize(1);
 		speedOpposition.copy(normalizedTargetOffset).rotate(90).mult(speed.prodVectOnZ(normalizedTargetOffset));
 
+		float speedModulus = speed.modulus();
 		float cosSpeedToTO = 1;
-		if (speed.modulus() != 0) {
-			cosSpeedToTO = Math.abs(new Vect3D(speed).normalize(1).prodScal(normalizedTargetOffset));
+		if (speedModulus != 0) {
+			cosSpeedToTO = Math.abs(speed.prodScal(normalizedTargetOffset) / speedModulus);
 		}
 
 		// distance = length (target_offset)
@@ -167,7 +147,7 @@ public class Arrive extends Movement {
 
 		// Optimal slowing distance when cruising at MAX_SPEED before entering the slowing radius
 		// Optimal slowing distance is computed for debugging purposes only
-		slowingDistance = 0.00001f + (float) (Math.pow(speed.modulus(), 2) / (2 * movableEntity.getMaxSteeringForce() / mass * cosSpeedToTO));
+		slowingDistance = 0.00001f + (float) (speedModulus * speedModulus / (2 * movableEntity.getMaxSteeringForce() / mass * cosSpeedToTO));
 
 		// Ramped speed is the optimal target speed modulus
 		float rampedSpeed = (float) Math.sqrt(2 * movableEntity.getMaxSteeringForce() / mass * distance);
@@ -180,7 +160,7 @@ public class Arrive extends Movement {
 		float factor = 1.35f;
 		float sdmin = slowingDistance / factor;
 		float sdmax = slowingDistance;
-		float overdrive = 1.0f + speed.modulus() / rampedSpeed;
+		float overdrive = 1.0f + speedModulus / rampedSpeed;
 		if (distance > sdmax) {
 			steeringForce.truncate(movableEntity.getMaxSteeringForce()); // / mass
 		} else if (distance > sdmin) {
@@ -192,7 +172,7 @@ public class Arrive extends Movement {
 		}
 
 		// stop condition
-		if (new Vect3D(target).substract(pos).modulus() < 5 && speed.modulus() < 1 && movableEntity instanceof Ship) {
+		if (distance < 5 && speedModulus < 1 && movableEntity instanceof Ship) {
 			movableEntity.removeBehavior(this);
 		}
 	}
@@ -32,13 +32,15 @@ public class Break extends Movement {
 	@Override
 	public void run() {
 
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
+
 		// if speed last update is in the same direction as current speed, then we still need to break
-		if (speedLastUpdate.modulus() == 0 || speedLastUpdate.prodScal(movableEntity.getSpeed()) > 0) {
-			steeringForce.nullify().substract(movableEntity.getSpeed()).normalize(movableEntity.getMaxSteeringForce());
-			speedLastUpdate.copy(movableEntity.getSpeed());
+		if (speedLastUpdate.modulus() == 0 || speedLastUpdate.prodScal(speed) > 0) {
+			steeringForce.nullify().substract(speed).normalize(movableEntity.getMaxSteeringForce());
+			speedLastUpdate.copy(speed);
 		} else {
 			// Stop it completely
-			movableEntity.getSpeed().nullify();
+			movableEntity.setSpeed(0, 0, 0);
 			movableEntity.removeBehavior(this);
 		}
 	}
@@ -9,6 +9,7 @@ import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.common.RenderUtils;
 
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.TextureImpl;
@@ -16,10 +17,6 @@ import org.newdawn.slick.opengl.TextureImpl;
 @Needs({ @ActivatedMorph(morphType = MorphType.SIMPLE_PROPULSOR) })
 public class Flee extends Movement {
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
 
 	// Be careful, this is the real instance of the ship's position
 	private Entity target;
@@ -31,6 +28,7 @@ public class Flee extends Movement {
 	// private final Vect3D targetOffset = new Vect3D();
 	// private final Vect3D normalizedTargetOffset = new Vect3D();
 	private final Vect3D steeringForce = new Vect3D();
+	private final Vect3D targetPos = new Vect3D();
 
 	// private Vect3D targetSpeed;
 	/**
@@ -60,8 +58,8 @@ public class Flee extends Movement {
 
 	@Override
 	public void render(int glMode) {
-		final Vect3D pos = movableEntity.getPos();
-		final Vect3D speed = movableEntity.getSpeed();
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
 		GL11.glTranslatef(pos.x, pos.y, pos.z);
 		if (Model.getModel().getUiContext().isDebugMode()) {
@@ -79,7 +77,7 @@ public class Flee extends Movement {
 
 		if (target != null && movableEntity instanceof Ship && movableEntity.isSelected() && Model.getModel().getUiContext().isDebugMode()) {
 			// Show target
-			GL11.glTranslatef(target.getPos().x, target.getPos().y, 0);
+			GL11.glTranslatef(target.getPosX(), target.getPosY(), 0);
 
 			TextureImpl.bindNone();
 			GL11.glBegin(GL11.GL_QUADS);
@@ -90,22 +88,9 @@ public class Flee extends Movement {
 			GL11.glEnd();
 
 			// render limit of effect zone
-			GL11.glBegin(GL11.GL_LINES);
-			float t = 0; // temporary data holder
-			float x = slowingDistance; // radius
-			float y = 0;
-			for (int i = 0; i < nbSegments; i++) {
-				GL11.glColor4d(1, 1, 1, 0.15);
-				GL11.glVertex2d(x, y);
-
-				t = x;
-				x = cos * x - sin * y;
-				y = sin * t + cos * y;
-
-				GL11.glVertex2d(x, y);
-			}
-			GL11.glEnd();
-			GL11.glTranslatef(-target.getPos().x, -target.getPos().y, 0);
+			GL11.glColor4d(1, 1, 1, 0.15);
+			RenderUtils.renderCircleOutline(slowingDistance, slowingDistance * Model.getModel().getViewport().getZoomFactor());
+			GL11.glTranslatef(-target.getPosX(), -target.getPosY(), 0);
 		}
 	}
 
@@ -122,10 +107,10 @@ public class Flee extends Movement {
 
 		// Get some ship variables (must be final)
 		final float mass = movableEntity.getMass();
-		final Vect3D pos = new Vect3D(movableEntity.getPos());
-		final Vect3D speed = new Vect3D(movableEntity.getSpeed());
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
-		desiredVelocity.copy(new Vect3D(pos).substract(target.getPos())).mult(movableEntity.getMaxSpeed());
+		desiredVelocity.copyDifference(pos, target.getPos(targetPos)).mult(movableEntity.getMaxSpeed());
 		// we should add some wandering to delinearize the flee behavior
 
 		steeringForce.copy(desiredVelocity).substract(speed).mult(mass);
@@ -9,6 +9,7 @@ import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.common.RenderUtils;
 
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.TextureImpl;
@@ -16,10 +17,6 @@ import org.newdawn.slick.opengl.TextureImpl;
 @Needs({ @ActivatedMorph(morphType = MorphType.SIMPLE_PROPULSOR) })
 public class Follow extends Movement {
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
 
 	// Be careful, this is the real instance of the ship's position
 	private Entity target;
@@ -30,7 +27,9 @@ public class Follow extends Movement {
 	private final Vect3D targetOffset = new Vect3D();
 	private final Vect3D normalizedTargetOffset = new Vect3D();
 	private final Vect3D steeringForce = new Vect3D();
-	private Vect3D targetSpeed;
+	private final Vect3D recomputedTarget = new Vect3D();
+	private final Vect3D targetPos = new Vect3D();
+	private final Vect3D targetSpeed = new Vect3D();
 	private float maxDistance;
 
 	/**
@@ -45,7 +44,6 @@ public class Follow extends Movement {
 		super(shipToMove);
 		this.maxDistance = maxDistance;
 		this.target = target;
-		targetSpeed = target.getSpeed();
 	}
 
 	@Override
@@ -60,8 +58,8 @@ public class Follow extends Movement {
 
 	@Override
 	public void render(int glMode) {
-		final Vect3D pos = movableEntity.getPos();
-		final Vect3D speed = movableEntity.getSpeed();
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
 		GL11.glTranslatef(pos.x, pos.y, pos.z);
 		if (Model.getModel().getUiContext().isDebugMode()) {
@@ -79,7 +77,7 @@ public class Follow extends Movement {
 
 		if (target != null && movableEntity instanceof Ship && movableEntity.isSelected() && Model.getModel().getUiContext().isDebugMode()) {
 			// Show target
-			GL11.glTranslatef(target.getPos().x, target.getPos().y, 0);
+			GL11.glTranslatef(target.getPosX(), target.getPosY(), 0);
 
 			TextureImpl.bindNone();
 			GL11.glBegin(GL11.GL_QUADS);
@@ -90,22 +88,9 @@ public class Follow extends Movement {
 			GL11.glEnd();
 
 			// render limit of effect zone
-			GL11.glBegin(GL11.GL_LINES);
-			float t = 0; // temporary data holder
-			float x = slowingDistance; // radius
-			float y = 0;
-			for (int i = 0; i < nbSegments; i++) {
-				GL11.glColor4d(1, 1, 1, 0.15);
-				GL11.glVertex2d(x, y);
-
-				t = x;
-				x = cos * x - sin * y;
-				y = sin * t + cos * y;
-
-				GL11.glVertex2d(x, y);
-			}
-			GL11.glEnd();
-			GL11.glTranslatef(-target.getPos().x, -target.getPos().y, 0);
+			GL11.glColor4d(1, 1, 1, 0.15);
+			RenderUtils.renderCircleOutline(slowingDistance, slowingDistance * Model.getModel().getViewport().getZoomFactor());
+			GL11.glTranslatef(-target.getPosX(), -target.getPosY(), 0);
 		}
 	}
 
@@ -121,18 +106,20 @@ public class Follow extends Movement {
 
 		// Get some ship variables (must be final)
 		final float mass = movableEntity.getMass();
-		final Vect3D pos = new Vect3D(movableEntity.getPos());
-		final Vect3D speed = new Vect3D(movableEntity.getSpeed());
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
-		Vect3D recomputedTarget = new Vect3D(target.getPos()).add(new Vect3D(targetSpeed).truncate(targetSpeed.modulus() - maxDistance));
-		targetOffset.copy(recomputedTarget).substract(pos);
+		target.getSpeed(targetSpeed);
+		recomputedTarget.copy(targetSpeed).truncate(targetSpeed.modulus() - maxDistance).add(target.getPos(targetPos));
+		targetOffset.copyDifference(recomputedTarget, pos);
 
 		normalizedTargetOffset.copy(targetOffset).normalize(1);
 		speedOpposition.copy(normalizedTargetOffset).rotate(90).mult(speed.prodVectOnZ(normalizedTargetOffset));
 
+		float speedModulus = speed.modulus();
 		float cosSpeedToTO = 1;
-		if (speed.modulus() != 0) {
-			cosSpeedToTO = Math.abs(new Vect3D(speed).normalize(1).prodScal(normalizedTargetOffset));
+		if (speedModulus != 0) {
+			cosSpeedToTO = Math.abs(speed.prodScal(normalizedTargetOffset) / speedModulus);
 		}
 
 		// distance = length (target_offset)
@@ -140,7 +127,7 @@ public class Follow extends Movement {
 
 		// Optimal slowing distance when cruising at MAX_SPEED before entering the slowing radius
 		// Optimal slowing distance is computed for debugging purposes only
-		slowingDistance = 0.00001f + (float) (Math.pow(speed.modulus(), 2) / (2 * movableEntity.getMaxSteeringForce() / mass * cosSpeedToTO));
+		slowingDistance = 0.00001f + (float) (speedModulus * speedModulus / (2 * movableEntity.getMaxSteeringForce() / mass * cosSpeedToTO));
 
 		// desired_velocity would be the optimal speed vector if we had unlimited thrust
 		desiredVelocity.copy(targetOffset).add(speedOpposition).normalize(distance);
@@ -148,7 +135,7 @@ public class Follow extends Movement {
 		steeringForce.copy(desiredVelocity).substract(speed).mult(mass);
 
 		// stop condition
-		if (new Vect3D(recomputedTarget).substract(pos).modulus() < 5 && speed.modulus() < 60) {
+		if (distance < 5 && speedModulus < 60) {
 			movableEntity.removeBehavior(this);
 		}
 	}
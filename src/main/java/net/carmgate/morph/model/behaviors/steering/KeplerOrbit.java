@@ -0,0 +1,240 @@
+package net.carmgate.morph.model.behaviors.steering;
+
+import net.carmgate.morph.model.Constants;
+import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.behaviors.common.Movement;
+import net.carmgate.morph.model.behaviors.common.OnRails;
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.common.Cullable;
+import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.common.RenderUtils;
+
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.opengl.TextureImpl;
+
+/**
+ * Keeps an entity on a Keplerian orbit around another one : the position is computed from the orbital elements
+ * and the simulation time, instead of being integrated from forces.
+ * If the orbitee is itself on rails, its position at the same time is computed the same way, so that a station orbiting
+ * a planet orbiting a star is placed without any dependency on the update order.
+ * Any time, past or future, can be evaluated for the cost of a few Kepler equation iterations per level of the hierarchy.
+ * Unlike {@link Orbit}, this is not meant for ships : the orbiter cannot leave its orbit while it has this behavior.
+ */
+public class KeplerOrbit extends Movement implements OnRails, Cullable {
+
+	private static final int KEPLER_ITERATIONS = 8;
+
+	private final Entity orbitee;
+	private final float semiMajorAxis;
+	private final float eccentricity;
+	private final double semiMinorAxis;
+	/** Angle between the x axis and the periapsis, in radians. */
+	private final double argumentOfPeriapsis;
+	private final double cosArgumentOfPeriapsis;
+	private final double sinArgumentOfPeriapsis;
+	/** Mean anomaly at {@link #epoch}, in radians. */
+	private final double meanAnomalyAtEpoch;
+	/** Simulation time of reference of the mean anomaly, in seconds. */
+	private final double epoch;
+	/** Mean angular speed in radians per second, negative for a clockwise orbit. */
+	private final double meanMotion;
+
+	private final Vect3D steeringForce = new Vect3D();
+
+	@Deprecated
+	public KeplerOrbit() {
+		this(null, null, 0);
+	}
+
+	/**
+	 * Puts the orbiter on a counter-clockwise circular orbit going through its current position.
+	 * @param orbiter
+	 * @param orbitee
+	 * @param orbitRadius the orbiter is moved on the circle of this radius if it is not already on it.
+	 */
+	public KeplerOrbit(Entity orbiter, Entity orbitee, float orbitRadius) {
+		this(orbiter, orbitee, orbitRadius, 0, 0, orbiter == null ? 0 : (float) Math.toDegrees(Math.atan2(
+				orbiter.getPosY() - orbitee.getPosY(), orbiter.getPosX() - orbitee.getPosX())), false);
+	}
+
+	/**
+	 * @param orbiter
+	 * @param orbitee
+	 * @param semiMajorAxis
+	 * @param eccentricity within [0, 1[
+	 * @param argumentOfPeriapsis the angle between the x axis and the periapsis, in degrees
+	 * @param meanAnomaly the mean anomaly at the current simulation time, in degrees
+	 * @param clockwise
+	 */
+	public KeplerOrbit(Entity orbiter, Entity orbitee, float semiMajorAxis, float eccentricity, float argumentOfPeriapsis, float meanAnomaly,
+			boolean clockwise) {
+		this(orbiter, orbitee, semiMajorAxis, eccentricity, Math.toRadians(argumentOfPeriapsis), Math.toRadians(meanAnomaly),
+				orbiter == null ? 0 : Model.getModel().getSimulationTime(), clockwise);
+	}
+
+	private KeplerOrbit(Entity orbiter, Entity orbitee, float semiMajorAxis, float eccentricity, double argumentOfPeriapsis,
+			double meanAnomalyAtEpoch, double epoch, boolean clockwise) {
+		super(orbiter);
+		if (eccentricity < 0 || eccentricity >= 1) {
+			throw new IllegalArgumentException("The eccentricity of a closed orbit is within [0, 1[ : " + eccentricity);
+		}
+
+		this.orbitee = orbitee;
+		this.semiMajorAxis = semiMajorAxis;
+		this.eccentricity = eccentricity;
+		semiMinorAxis = semiMajorAxis * Math.sqrt(1 - eccentricity * eccentricity);
+		this.argumentOfPeriapsis = argumentOfPeriapsis;
+		cosArgumentOfPeriapsis = Math.cos(argumentOfPeriapsis);
+		sinArgumentOfPeriapsis = Math.sin(argumentOfPeriapsis);
+		this.meanAnomalyAtEpoch = meanAnomalyAtEpoch;
+		this.epoch = epoch;
+		if (orbiter != null) {
+			double meanMotionModulus = Math.sqrt(Constants.SIMPLE_G * (orbitee.getMass() + orbiter.getMass())
+					/ ((double) semiMajorAxis * semiMajorAxis * semiMajorAxis));
+			meanMotion = clockwise ? -meanMotionModulus : meanMotionModulus;
+		} else {
+			meanMotion = 0;
+		}
+	}
+
+	/**
+	 * Adds the given vector of the orbital frame, expressed in the world frame, to the result.
+	 * The y axis of the orbital frame is flipped for a clockwise orbit.
+	 * @return the result
+	 */
+	private Vect3D addRotated(Vect3D result, double x, double y) {
+		if (meanMotion < 0) {
+			y = -y;
+		}
+		result.x += cosArgumentOfPeriapsis * x - sinArgumentOfPeriapsis * y;
+		result.y += sinArgumentOfPeriapsis * x + cosArgumentOfPeriapsis * y;
+		return result;
+	}
+
+	@Override
+	public Behavior cloneForEntity(Entity entity) {
+		return new KeplerOrbit(entity, orbitee, semiMajorAxis, eccentricity, argumentOfPeriapsis, meanAnomalyAtEpoch, epoch, meanMotion < 0);
+	}
+
+	@Override
+	public void computeXpContribution() {
+		// no propulsor is involved
+	}
+
+	/**
+	 * Solves Kepler's equation M = E - e.sin(E) with Newton's method.
+	 * @param time
+	 * @return the eccentric anomaly at the given time
+	 */
+	private double computeEccentricAnomaly(double time) {
+		double meanAnomaly = meanAnomalyAtEpoch + Math.abs(meanMotion) * (time - epoch);
+		meanAnomaly %= 2 * Math.PI;
+		if (eccentricity == 0) {
+			return meanAnomaly;
+		}
+
+		double eccentricAnomaly = eccentricity < 0.8 ? meanAnomaly : Math.PI;
+		for (int i = 0; i < KEPLER_ITERATIONS; i++) {
+			eccentricAnomaly -= (eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly) - meanAnomaly)
+					/ (1 - eccentricity * Math.cos(eccentricAnomaly));
+		}
+		return eccentricAnomaly;
+	}
+
+	/**
+	 * @return the farthest distance between the orbitee and the orbiter
+	 */
+	private float getApoapsis() {
+		return semiMajorAxis * (1 + eccentricity);
+	}
+
+	/**
+	 * @return the closest distance between the orbitee and the orbiter
+	 */
+	private float getPeriapsis() {
+		return semiMajorAxis * (1 - eccentricity);
+	}
+
+	@Override
+	public Vect3D getPosition(double time, Vect3D result) {
+		// position of the orbitee at the same time
+		OnRails orbiteeRails = orbitee.getOnRails();
+		if (orbiteeRails != null) {
+			orbiteeRails.getPosition(time, result);
+		} else {
+			orbitee.getPos(result);
+		}
+
+		double eccentricAnomaly = computeEccentricAnomaly(time);
+		return addRotated(result, semiMajorAxis * (Math.cos(eccentricAnomaly) - eccentricity), semiMinorAxis * Math.sin(eccentricAnomaly));
+	}
+
+	/**
+	 * Kepler's equation is solved once for both the position and the speed, and once per level of the hierarchy.
+	 */
+	@Override
+	public void getPositionAndSpeed(double time, Vect3D position, Vect3D speed) {
+		// state of the orbitee at the same time
+		OnRails orbiteeRails = orbitee.getOnRails();
+		if (orbiteeRails != null) {
+			orbiteeRails.getPositionAndSpeed(time, position, speed);
+		} else {
+			orbitee.getPos(position);
+			orbitee.getSpeed(speed);
+		}
+
+		double eccentricAnomaly = computeEccentricAnomaly(time);
+		double cos = Math.cos(eccentricAnomaly);
+		double sin = Math.sin(eccentricAnomaly);
+		addRotated(position, semiMajorAxis * (cos - eccentricity), semiMinorAxis * sin);
+		double eccentricAnomalyRate = Math.abs(meanMotion) / (1 - eccentricity * cos);
+		addRotated(speed, -semiMajorAxis * sin * eccentricAnomalyRate, semiMinorAxis * cos * eccentricAnomalyRate);
+	}
+
+	@Override
+	public Vect3D getSteeringForce() {
+		// the orbiter is not integrated
+		return steeringForce;
+	}
+
+	/**
+	 * The orbit is visible if it crosses the viewport.
+	 */
+	@Override
+	public boolean isVisible(float[] worldBounds) {
+		Vect3D orbiteeRenderPos = orbitee.getRenderPos();
+		float x = orbiteeRenderPos.x;
+		float y = orbiteeRenderPos.y;
+		if (!RenderUtils.isCircleVisible(x, y, getApoapsis(), worldBounds)) {
+			return false;
+		}
+
+		// the viewport might be entirely inside the orbit
+		float farthestX = Math.max(Math.abs(worldBounds[0] - x), Math.abs(worldBounds[2] - x));
+		float farthestY = Math.max(Math.abs(worldBounds[1] - y), Math.abs(worldBounds[3] - y));
+		return farthestX * farthestX + farthestY * farthestY >= getPeriapsis() * getPeriapsis();
+	}
+
+	@Override
+	public void render(int glMode) {
+		Vect3D orbiteeRenderPos = orbitee.getRenderPos();
+
+		// the orbitee is on a focus of the ellipse
+		GL11.glPushMatrix();
+		GL11.glTranslatef(orbiteeRenderPos.x, orbiteeRenderPos.y, orbiteeRenderPos.z);
+		GL11.glRotatef((float) Math.toDegrees(argumentOfPeriapsis), 0, 0, 1);
+		GL11.glTranslatef(-semiMajorAxis * eccentricity, 0, 0);
+		GL11.glScalef(1, (float) (semiMinorAxis / semiMajorAxis), 1);
+
+		TextureImpl.bindNone();
+		RenderUtils.renderCircle(semiMajorAxis, 5 / Model.getModel().getViewport().getZoomFactor(),
+				new Float[] { 0f, 0f, 0f, 0f }, new Float[] { 1f, 1f, 1f, 0.3f }, new Float[] { 0f, 0f, 0f, 0f });
+		GL11.glPopMatrix();
+	}
+
+	@Override
+	public void run() {
+		// nothing to steer : the entity is placed on its orbit when it is updated
+	}
+}
@@ -7,6 +7,7 @@ import net.carmgate.morph.model.behaviors.common.Behavior;
 import net.carmgate.morph.model.behaviors.common.Movement;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Ship;
+import net.carmgate.morph.model.entities.common.Cullable;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.ui.common.RenderUtils;
 
@@ -15,14 +16,10 @@ import org.newdawn.slick.opengl.TextureImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class Orbit extends Movement {
+public class Orbit extends Movement implements Cullable {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Orbit.class);
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
 
 	private final float orbitRadius;
 	private final Entity orbitee;
@@ -31,6 +28,10 @@ public class Orbit extends Movement {
 	private final Vect3D steeringForce = new Vect3D();
 
 	private final Vect3D tangentialForce = new Vect3D();
+	private final Vect3D orbiteeToOrbiter = new Vect3D();
+	private final Vect3D radialVector = new Vect3D();
+	private final Vect3D tangentialVector = new Vect3D();
+	private final Vect3D orbiteePos = new Vect3D();
 
 	// TODO rework this ... awful thing
 	private StarsContribution starsContribution;
@@ -50,8 +51,9 @@ public class Orbit extends Movement {
 		this.orbitRadius = orbitRadius;
 		this.instantOrbit = instantOrbit;
 		if (movableEntity != null && orbitee != null) {
-			Vect3D orbiteeToOrbiter = new Vect3D(movableEntity.getPos()).substract(orbitee.getPos());
-			Vect3D orbitalTarget = new Vect3D(orbiteeToOrbiter).normalize(orbitRadius).add(orbitee.getPos());
+			orbitee.getPos(orbiteePos);
+			Vect3D orbiteeToOrbiter = movableEntity.getPos(new Vect3D()).substract(orbiteePos);
+			Vect3D orbitalTarget = new Vect3D(orbiteeToOrbiter).normalize(orbitRadius).add(orbiteePos);
 
 			if (!instantOrbit) {
 				arrive = new Arrive(movableEntity, orbitalTarget);
@@ -73,31 +75,50 @@ public class Orbit extends Movement {
 		return steeringForce;
 	}
 
+	/**
+	 * The orbit circle is visible if it crosses the viewport.
+	 */
+	@Override
+	public boolean isVisible(float[] worldBounds) {
+		Vect3D orbiteeRenderPos = orbitee.getRenderPos();
+		float x = orbiteeRenderPos.x;
+		float y = orbiteeRenderPos.y;
+		if (!RenderUtils.isCircleVisible(x, y, orbitRadius, worldBounds)) {
+			return false;
+		}
+
+		// the viewport might be entirely inside the circle
+		float farthestX = Math.max(Math.abs(worldBounds[0] - x), Math.abs(worldBounds[2] - x));
+		float farthestY = Math.max(Math.abs(worldBounds[1] - y), Math.abs(worldBounds[3] - y));
+		return farthestX * farthestX + farthestY * farthestY >= orbitRadius * orbitRadius;
+	}
+
 	@Override
 	public void render(int glMode) {
 
-		GL11.glTranslatef(orbitee.getPos().x, orbitee.getPos().y, orbitee.getPos().z);
+		Vect3D orbiteeRenderPos = orbitee.getRenderPos();
+		GL11.glTranslatef(orbiteeRenderPos.x, orbiteeRenderPos.y, orbiteeRenderPos.z);
 
 		TextureImpl.bindNone();
 		RenderUtils.renderCircle(orbitRadius, 5 / Model.getModel().getViewport().getZoomFactor(),
 				new Float[] { 0f, 0f, 0f, 0f }, new Float[] { 1f, 1f, 1f, 0.3f }, new Float[] { 0f, 0f, 0f, 0f });
 
-		GL11.glTranslatef(-orbitee.getPos().x, -orbitee.getPos().y, -orbitee.getPos().z);
+		GL11.glTranslatef(-orbiteeRenderPos.x, -orbiteeRenderPos.y, -orbiteeRenderPos.z);
 
 		if (Model.getModel().getUiContext().isDebugMode()) {
 			if (arrive != null) {
 				arrive.render(glMode);
 			}
 
-			GL11.glTranslatef(movableEntity.getPos().x, movableEntity.getPos().y, movableEntity.getPos().z);
+			GL11.glTranslatef(movableEntity.getPosX(), movableEntity.getPosY(), movableEntity.getPosZ());
 			GL11.glColor4f(1, 0, 1, 0.5f);
-			movableEntity.getSpeed().render(glMode);
+			movableEntity.getSpeed(movableSpeed).render(glMode);
 			tangentialForce.render(glMode);
 			GL11.glColor4f(0, 0, 1, 1);
 			getSteeringForce().render(glMode);
 			GL11.glColor4f(1f, 1f, 0f, 1);
 			new Vect3D(starsContribution.getNonSteeringForce()).add(steeringForce).render(glMode);
-			GL11.glTranslatef(-movableEntity.getPos().x, -movableEntity.getPos().y, -movableEntity.getPos().z);
+			GL11.glTranslatef(-movableEntity.getPosX(), -movableEntity.getPosY(), -movableEntity.getPosZ());
 		}
 	}
 
@@ -105,9 +126,12 @@ public class Orbit extends Movement {
 	public void run() {
 
 		steeringForce.nullify();
-		Vect3D orbiteeToOrbiter = new Vect3D(movableEntity.getPos()).substract(orbitee.getPos());
-		Vect3D radialVector = new Vect3D(orbiteeToOrbiter).normalize(1);
-		Vect3D tangentialVector = new Vect3D(radialVector).rotate(90);
+		movableEntity.getPos(movablePos);
+		movableEntity.getSpeed(movableSpeed);
+		orbitee.getPos(orbiteePos);
+		orbiteeToOrbiter.copyDifference(movablePos, orbiteePos);
+		radialVector.copy(orbiteeToOrbiter).normalize(1);
+		tangentialVector.copy(-radialVector.y, radialVector.x, radialVector.z);
 		float optimalSpeed = (float) Math.sqrt(Constants.SIMPLE_G * (orbitee.getMass() + movableEntity.getMass()) / orbitRadius);
 
 		if (stable || instantOrbit) {
@@ -115,15 +139,15 @@ public class Orbit extends Movement {
 			// IMPROVE we should check that the non steering force have not changed
 			// However, this behavior should not concern ship's or playable entities anywhere in the future
 			// TODO we might do that far less often
-			movableEntity.getPos().substract(orbitee.getPos()).normalize(orbitRadius).add(orbitee.getPos());
-			movableEntity.getSpeed().copy(tangentialVector).normalize(optimalSpeed);
+			movableEntity.setPos(movablePos.substract(orbiteePos).normalize(orbitRadius).add(orbiteePos));
+			movableEntity.setSpeed(movableSpeed.copy(tangentialVector).normalize(optimalSpeed));
 			if (movableEntity instanceof Ship) {
 				LOGGER.debug("stable2");
 			}
 			return;
 		}
 
-		if (tangentialForce.prodScal(movableEntity.getSpeed()) < 0) {
+		if (tangentialForce.prodScal(movableSpeed) < 0) {
 			// rotate in speed vector direction if not purely radial
 			tangentialForce.mult(-1);
 		}
@@ -131,36 +155,37 @@ public class Orbit extends Movement {
 		// If the orbiter is not on the desired distance, set an arrive behavior to go to it
 		// TODO there is a problem with arrive nullifying target
 		if (arrive != null && arrive.getTarget() != null) {
-			Vect3D orbitalTarget = new Vect3D(orbiteeToOrbiter).normalize(orbitRadius).add(orbitee.getPos());
-			arrive.getTarget().copy(orbitalTarget);
+			arrive.getTarget().copy(orbiteeToOrbiter).normalize(orbitRadius).add(orbiteePos);
 			arrive.run();
-			steeringForce.add(new Vect3D(radialVector).normalize(arrive.getSteeringForce().prodScal(radialVector)));
+			steeringForce.addScaled(radialVector, arrive.getSteeringForce().prodScal(radialVector));
 			steeringForce.substract(starsContribution.getNonSteeringForce());
 		}
 
 		tangentialForce.copy(tangentialVector);
-		float test = new Vect3D(tangentialVector).prodScal(new Vect3D(movableEntity.getSpeed()).normalize(1));
+		float speedModulus = movableSpeed.modulus();
+		float test = speedModulus == 0 ? 0 : tangentialVector.prodScal(movableSpeed) / speedModulus;
 		if (test == 0) {
 			test = 1;
 		}
-		tangentialForce.normalize((optimalSpeed - movableEntity.getSpeed().modulus())
+		tangentialForce.normalize((optimalSpeed - speedModulus)
 				* test);
 		tangentialForce.mult(movableEntity.getMass());
 		steeringForce.add(tangentialForce); // .substract(movableEntity.getSpeed());
 		// LOGGER.debug("" + movableEntity.getClass().getSimpleName() + ": " + steeringForce + ", optimal: " + optimalSpeed + ", current: "
 		// + movableEntity.getSpeed().modulus());
 
-		if (Math.abs(Math.abs(new Vect3D(movableEntity.getSpeed()).prodScal(tangentialVector)) - optimalSpeed) < optimalSpeed / 200
+		float tangentialSpeed = Math.abs(movableSpeed.prodScal(tangentialVector));
+		if (Math.abs(tangentialSpeed - optimalSpeed) < optimalSpeed / 200
 				&& Math.abs(orbiteeToOrbiter.modulus() - orbitRadius) < 0.01) {
-			movableEntity.getSpeed().copy(tangentialVector).mult(optimalSpeed);
+			movableEntity.setSpeed(movableSpeed.copy(tangentialVector).mult(optimalSpeed));
 			LOGGER.debug("now stable");
 			stable = true;
 			steeringForce.nullify();
 			tangentialForce.nullify();
 			arrive = null;
 		} else {
-			if (movableEntity instanceof Ship) {
-				LOGGER.debug(Math.abs(Math.abs(new Vect3D(movableEntity.getSpeed()).prodScal(tangentialVector)) - optimalSpeed) + "/" + optimalSpeed / 200);
+			if (movableEntity instanceof Ship && LOGGER.isDebugEnabled()) {
+				LOGGER.debug(Math.abs(tangentialSpeed - optimalSpeed) + "/" + optimalSpeed / 200);
 			}
 		}
 
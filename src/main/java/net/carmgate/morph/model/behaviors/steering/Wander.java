@@ -8,6 +8,7 @@ import net.carmgate.morph.model.behaviors.common.Needs;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.common.Entity;
+import net.carmgate.morph.ui.common.RenderUtils;
 
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.TextureImpl;
@@ -15,15 +16,12 @@ import org.newdawn.slick.opengl.TextureImpl;
 @Needs({ @ActivatedMorph(morphType = MorphType.SIMPLE_PROPULSOR) })
 public class Wander extends Movement {
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
 
 	protected final float wanderFocusDistance;
 	protected final float wanderRadius;
 	protected float wanderAngle;
 	private final Vect3D steeringForce = new Vect3D();
+	private final Vect3D wanderOffset = new Vect3D();
 
 	/**
 	 * Do not use.
@@ -57,8 +55,8 @@ public class Wander extends Movement {
 
 	@Override
 	public void render(int glMode) {
-		final Vect3D pos = movableEntity.getPos();
-		final Vect3D speed = movableEntity.getSpeed();
+		final Vect3D pos = movableEntity.getPos(movablePos);
+		final Vect3D speed = movableEntity.getSpeed(movableSpeed);
 
 		if (Model.getModel().getUiContext().isDebugMode()) {
 			GL11.glTranslatef(pos.x, pos.y, pos.z);
@@ -67,41 +65,15 @@ public class Wander extends Movement {
 			steeringForce.render(glMode);
 
 			// render limit of effect zone
-			GL11.glBegin(GL11.GL_LINES);
-			float t = 0; // temporary data holder
-			float x = wanderFocusDistance; // radius
-			float y = 0;
-			for (int i = 0; i < nbSegments; i++) {
-				GL11.glColor4d(1, 1, 1, 0.15);
-				GL11.glVertex2d(x, y);
-
-				t = x;
-				x = cos * x - sin * y;
-				y = sin * t + cos * y;
-
-				GL11.glVertex2d(x, y);
-			}
-			GL11.glEnd();
+			GL11.glColor4d(1, 1, 1, 0.15);
+			RenderUtils.renderCircleOutline(wanderFocusDistance, wanderFocusDistance * Model.getModel().getViewport().getZoomFactor());
 
 			GL11.glRotatef(movableEntity.getHeading(), 0, 0, 1);
 			GL11.glTranslatef(0, -wanderFocusDistance, 0);
 
 			// render limit of effect zone
-			GL11.glBegin(GL11.GL_LINES);
-			t = 0; // temporary data holder
-			x = wanderRadius; // radius
-			y = 0;
-			for (int i = 0; i < nbSegments; i++) {
-				GL11.glColor4d(1, 1, 1, 0.15);
-				GL11.glVertex2d(x, y);
-
-				t = x;
-				x = cos * x - sin * y;
-				y = sin * t + cos * y;
-
-				GL11.glVertex2d(x, y);
-			}
-			GL11.glEnd();
+			GL11.glColor4d(1, 1, 1, 0.15);
+			RenderUtils.renderCircleOutline(wanderRadius, wanderRadius * Model.getModel().getViewport().getZoomFactor());
 
 			GL11.glRotatef(wanderAngle - movableEntity.getHeading(), 0, 0, 1);
 			GL11.glTranslatef(0, -wanderRadius, 0);
@@ -127,12 +99,18 @@ public class Wander extends Movement {
 	@Override
 	public void run() {
 		wanderAngle += Math.random() * 4 - 2;
-		Vect3D target = new Vect3D(new Vect3D(Vect3D.NORTH).normalize(wanderFocusDistance).rotate(movableEntity.getHeading()))
-		.add(new Vect3D(Vect3D.NORTH).normalize(wanderRadius).rotate(wanderAngle));
+		steerTowardsWanderTarget();
+	}
+
+	/**
+	 * Computes the steering force toward the point of the wander circle given by the current wander angle.
+	 */
+	protected void steerTowardsWanderTarget() {
+		wanderOffset.copy(0, -wanderRadius, 0).rotate(wanderAngle);
 
 		// TODO is it right to multiply by mass ?
 		// What are we multiplying by mass ?
-		steeringForce.copy(target).truncate(movableEntity.getMaxSteeringForce())
-		.mult(movableEntity.getMass());
+		steeringForce.copy(0, -wanderFocusDistance, 0).rotate(movableEntity.getHeading()).add(wanderOffset)
+		.truncate(movableEntity.getMaxSteeringForce()).mult(movableEntity.getMass());
 	}
 }
\ No newline at end of file
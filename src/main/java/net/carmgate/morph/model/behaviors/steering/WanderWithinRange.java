@@ -21,6 +21,8 @@ public class WanderWithinRange extends Wander {
 	private final Entity target;
 	private final float range;
 	private float delta = 0.2f;
+	private final Vect3D offsetToTarget = new Vect3D();
+	private final Vect3D targetPos = new Vect3D();
 
 	/**
 	 * Do not use.
@@ -46,10 +48,10 @@ public class WanderWithinRange extends Wander {
 		super.render(glMode);
 
 		if (Model.getModel().getUiContext().isDebugMode()) {
-			GL11.glTranslatef(target.getPos().x, target.getPos().y, target.getPos().z);
+			GL11.glTranslatef(target.getPosX(), target.getPosY(), target.getPosZ());
 			RenderUtils.renderCircle(range, 3 / Model.getModel().getViewport().getZoomFactor(),
 					new Float[] { 0f, 0f, 0f, 0f }, new Float[] { 0f, 1f, 0f, 0.5f }, new Float[] { 0f, 0f, 0f, 0f });
-			GL11.glTranslatef(-target.getPos().x, -target.getPos().y, -target.getPos().z);
+			GL11.glTranslatef(-target.getPosX(), -target.getPosY(), -target.getPosZ());
 		}
 	}
 
@@ -67,12 +69,12 @@ public class WanderWithinRange extends Wander {
 		// if we are out of range, change the angle to take the ship back within range
 		// the farther we are out of range, the more we pull it back within range
 		// if we are twice as far as proper range, angle is full ahead to range center
-		Vect3D offsetToTarget = new Vect3D(target.getPos()).substract(movableEntity.getPos());
+		offsetToTarget.copyDifference(target.getPos(targetPos), movableEntity.getPos(movablePos));
 		float distanceToTarget = offsetToTarget.modulus();
 		float minDist = range * (1 - delta);
 		float maxDist = range * (1 + delta);
 		float forcedAngle = Vect3D.NORTH.angleWith(offsetToTarget);
-		float speedAdjustment = Math.abs(new Vect3D(offsetToTarget).normalize(1).prodScal(movableEntity.getSpeed()));
+		float speedAdjustment = distanceToTarget == 0 ? 0 : Math.abs(offsetToTarget.prodScal(movableEntity.getSpeed(movableSpeed)) / distanceToTarget);
 		// TODO Improve speed adjustment use
 		if (distanceToTarget + speedAdjustment > maxDist) {
 			wanderAngle = forcedAngle;
@@ -87,13 +89,6 @@ public class WanderWithinRange extends Wander {
 			}
 		}
 
-		Vect3D targetDirection = new Vect3D(new Vect3D(Vect3D.NORTH).normalize(wanderFocusDistance).rotate(movableEntity.getHeading()))
-		.add(new Vect3D(Vect3D.NORTH).normalize(wanderRadius).rotate(wanderAngle));
-
-		// TODO is it right to multiply by mass ?
-		// What are we multiplying by mass ?
-		getSteeringForce().copy(targetDirection).truncate(movableEntity.getMaxSteeringForce())
-		.mult(movableEntity.getMass());
-
+		steerTowardsWanderTarget();
 	}
 }
\ No newline at end of file
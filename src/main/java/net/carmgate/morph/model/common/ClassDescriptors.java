@@ -0,0 +1,321 @@
+package net.carmgate.morph.model.common;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.carmgate.morph.actions.common.ActionHints;
+import net.carmgate.morph.model.behaviors.common.ActivatedMorph;
+import net.carmgate.morph.model.behaviors.common.BehaviorHints;
+import net.carmgate.morph.model.behaviors.common.BehaviorPhase;
+import net.carmgate.morph.model.behaviors.common.ForceGeneratingBehavior;
+import net.carmgate.morph.model.behaviors.common.Movement;
+import net.carmgate.morph.model.behaviors.common.Needs;
+import net.carmgate.morph.model.behaviors.common.OnRails;
+import net.carmgate.morph.model.entities.common.Cullable;
+import net.carmgate.morph.model.entities.common.EntityHints;
+import net.carmgate.morph.model.entities.common.EntityType;
+import net.carmgate.morph.model.entities.common.Renderable;
+import net.carmgate.morph.ui.UIState;
+import net.carmgate.morph.ui.common.RenderingHints;
+import net.carmgate.morph.ui.common.RenderingSteps;
+
+/**
+ * Resolves the annotations of the entity, behavior and action classes once per class into compact descriptors,
+ * so that the hot paths read fields instead of calling {@link Class#getAnnotation(Class)}.
+ */
+public final class ClassDescriptors {
+
+	/**
+	 * What the {@link EntityHints} and {@link RenderingHints} annotations of an entity class say.
+	 */
+	public static final class EntityDescriptor {
+		private final EntityType entityType;
+		private final RenderingSteps renderingStep;
+		private final boolean selectable;
+		private final boolean actionSelectable;
+		private final boolean parallelUpdate;
+
+		private EntityDescriptor(Class<?> entityClass) {
+			EntityHints entityHints = entityClass.getAnnotation(EntityHints.class);
+			RenderingHints renderingHints = entityClass.getAnnotation(RenderingHints.class);
+			entityType = entityHints.entityType();
+			selectable = entityHints.selectable();
+			actionSelectable = entityHints.actionSelectable();
+			parallelUpdate = entityHints.parallelUpdate();
+			renderingStep = renderingHints.renderingStep();
+		}
+
+		public EntityType getEntityType() {
+			return entityType;
+		}
+
+		public RenderingSteps getRenderingStep() {
+			return renderingStep;
+		}
+
+		public boolean isActionSelectable() {
+			return actionSelectable;
+		}
+
+		public boolean isParallelUpdate() {
+			return parallelUpdate;
+		}
+
+		public boolean isSelectable() {
+			return selectable;
+		}
+	}
+
+	/**
+	 * What the {@link Needs} and {@link BehaviorHints} annotations of a behavior class say, and how the behavior is indexed by the entities.
+	 * Each concrete behavior class is given a kind bit, so that an entity can tell which kinds of behaviors it holds from a single long.
+	 */
+	public static final class BehaviorDescriptor {
+		private final boolean needsMorphs;
+		private final int neededMorphsMask;
+		private final int kindIndex;
+		private final long kindBit;
+		private final BehaviorPhase phase;
+		private final boolean movement;
+		private final boolean forceGenerating;
+		private final boolean renderable;
+		private final boolean cullable;
+		private final boolean onRails;
+
+		private BehaviorDescriptor(Class<?> behaviorClass) {
+			kindIndex = Modifier.isAbstract(behaviorClass.getModifiers()) || behaviorClass.isInterface() ? -1 : registerBehaviorKind(behaviorClass);
+			kindBit = kindIndex < 0 ? 0 : 1L << kindIndex;
+			BehaviorHints behaviorHints = behaviorClass.getAnnotation(BehaviorHints.class);
+			phase = behaviorHints == null ? BehaviorPhase.ACT : behaviorHints.phase();
+			movement = Movement.class.isAssignableFrom(behaviorClass);
+			forceGenerating = ForceGeneratingBehavior.class.isAssignableFrom(behaviorClass);
+			renderable = Renderable.class.isAssignableFrom(behaviorClass);
+			cullable = Cullable.class.isAssignableFrom(behaviorClass);
+			onRails = OnRails.class.isAssignableFrom(behaviorClass);
+
+			Needs needs = behaviorClass.getAnnotation(Needs.class);
+			needsMorphs = needs != null;
+			int mask = 0;
+			if (needs != null && needs.value() != null) {
+				for (ActivatedMorph need : needs.value()) {
+					mask |= 1 << need.morphType().ordinal();
+				}
+			}
+			neededMorphsMask = mask;
+		}
+
+		/**
+		 * @return the bit of the behavior class, 0 for abstract classes and interfaces
+		 */
+		public long getKindBit() {
+			return kindBit;
+		}
+
+		/**
+		 * @return the index of the behavior class among the registered behavior classes, -1 for abstract classes and interfaces
+		 */
+		public int getKindIndex() {
+			return kindIndex;
+		}
+
+		/**
+		 * @return a bit per morph type (1 &lt;&lt; ordinal) : the behavior needs at least one of them
+		 */
+		public int getNeededMorphsMask() {
+			return neededMorphsMask;
+		}
+
+		public BehaviorPhase getPhase() {
+			return phase;
+		}
+
+		public boolean isCullable() {
+			return cullable;
+		}
+
+		public boolean isForceGenerating() {
+			return forceGenerating;
+		}
+
+		public boolean isMovement() {
+			return movement;
+		}
+
+		public boolean isOnRails() {
+			return onRails;
+		}
+
+		public boolean isRenderable() {
+			return renderable;
+		}
+
+		/**
+		 * @return true if the behavior can only be added to a ship holding some morphs
+		 */
+		public boolean needsMorphs() {
+			return needsMorphs;
+		}
+	}
+
+	/**
+	 * The kind bits of the registered behavior classes assignable to a given class.
+	 * It is computed again when new behavior classes have been registered since.
+	 */
+	private static final class BehaviorKindsMask {
+		private final int kindCount;
+		private final long mask;
+
+		private BehaviorKindsMask(int kindCount, long mask) {
+			this.kindCount = kindCount;
+			this.mask = mask;
+		}
+	}
+
+	/**
+	 * What the {@link ActionHints} annotation of an action class says.
+	 */
+	public static final class ActionDescriptor {
+		private final int uiStateMask;
+		private final boolean dragAction;
+		private final boolean keyboardActionAutoload;
+		private final boolean mouseActionAutoload;
+
+		private ActionDescriptor(Class<?> actionClass) {
+			ActionHints actionHints = actionClass.getAnnotation(ActionHints.class);
+			int mask = 0;
+			for (UIState uiState : actionHints.uiState()) {
+				mask |= 1 << uiState.ordinal();
+			}
+			uiStateMask = mask;
+			dragAction = actionHints.dragAction();
+			keyboardActionAutoload = actionHints.keyboardActionAutoload();
+			mouseActionAutoload = actionHints.mouseActionAutoload();
+		}
+
+		public boolean isDragAction() {
+			return dragAction;
+		}
+
+		/**
+		 * @param uiState
+		 * @return true if the action can be run in the given {@link UIState}
+		 */
+		public boolean isEnabledIn(UIState uiState) {
+			return (uiStateMask & 1 << uiState.ordinal()) != 0;
+		}
+
+		public boolean isKeyboardActionAutoload() {
+			return keyboardActionAutoload;
+		}
+
+		public boolean isMouseActionAutoload() {
+			return mouseActionAutoload;
+		}
+	}
+
+	private static final ClassValue<EntityDescriptor> ENTITY_DESCRIPTORS = new ClassValue<EntityDescriptor>() {
+		@Override
+		protected EntityDescriptor computeValue(Class<?> type) {
+			return new EntityDescriptor(type);
+		}
+	};
+
+	private static final ClassValue<BehaviorDescriptor> BEHAVIOR_DESCRIPTORS = new ClassValue<BehaviorDescriptor>() {
+		@Override
+		protected BehaviorDescriptor computeValue(Class<?> type) {
+			return new BehaviorDescriptor(type);
+		}
+	};
+
+	/** The concrete behavior classes, by kind index. */
+	private static final List<Class<?>> BEHAVIOR_KINDS = new ArrayList<>();
+	private static final Map<Class<?>, Integer> BEHAVIOR_KIND_INDEXES = new HashMap<>();
+	private static volatile int behaviorKindCount;
+
+	private static final ClassValue<BehaviorKindsMask[]> BEHAVIOR_KINDS_MASKS = new ClassValue<BehaviorKindsMask[]>() {
+		@Override
+		protected BehaviorKindsMask[] computeValue(Class<?> type) {
+			return new BehaviorKindsMask[] { new BehaviorKindsMask(-1, 0) };
+		}
+	};
+
+	private static final ClassValue<ActionDescriptor> ACTION_DESCRIPTORS = new ClassValue<ActionDescriptor>() {
+		@Override
+		protected ActionDescriptor computeValue(Class<?> type) {
+			return new ActionDescriptor(type);
+		}
+	};
+
+	private static synchronized BehaviorKindsMask computeBehaviorKindsMask(Class<?> behaviorClass) {
+		long mask = 0;
+		for (int i = 0; i < BEHAVIOR_KINDS.size(); i++) {
+			if (behaviorClass.isAssignableFrom(BEHAVIOR_KINDS.get(i))) {
+				mask |= 1L << i;
+			}
+		}
+		return new BehaviorKindsMask(BEHAVIOR_KINDS.size(), mask);
+	}
+
+	/**
+	 * @param kindIndex
+	 * @return the behavior class registered with the given index
+	 */
+	public static synchronized Class<?> getBehaviorKind(int kindIndex) {
+		return BEHAVIOR_KINDS.get(kindIndex);
+	}
+
+	/**
+	 * @return the number of behavior classes registered so far
+	 */
+	public static int getBehaviorKindCount() {
+		return behaviorKindCount;
+	}
+
+	/**
+	 * @param behaviorClass any class or interface
+	 * @return the kind bits of all the behavior classes that are instances of the given class
+	 */
+	public static long getBehaviorKindsMask(Class<?> behaviorClass) {
+		BehaviorKindsMask[] holder = BEHAVIOR_KINDS_MASKS.get(behaviorClass);
+		BehaviorKindsMask kindsMask = holder[0];
+		if (kindsMask.kindCount != behaviorKindCount) {
+			kindsMask = computeBehaviorKindsMask(behaviorClass);
+			holder[0] = kindsMask;
+		}
+		return kindsMask.mask;
+	}
+
+	public static ActionDescriptor ofAction(Class<?> actionClass) {
+		return ACTION_DESCRIPTORS.get(actionClass);
+	}
+
+	public static BehaviorDescriptor ofBehavior(Class<?> behaviorClass) {
+		return BEHAVIOR_DESCRIPTORS.get(behaviorClass);
+	}
+
+	public static EntityDescriptor ofEntity(Class<?> entityClass) {
+		return ENTITY_DESCRIPTORS.get(entityClass);
+	}
+
+	private static synchronized int registerBehaviorKind(Class<?> behaviorClass) {
+		// the descriptor may be computed concurrently by several threads, only one of them is kept
+		Integer index = BEHAVIOR_KIND_INDEXES.get(behaviorClass);
+		if (index != null) {
+			return index;
+		}
+
+		if (BEHAVIOR_KINDS.size() == Long.SIZE) {
+			throw new IllegalStateException("No more than " + Long.SIZE + " behavior classes can be indexed, cannot add " + behaviorClass.getName());
+		}
+		BEHAVIOR_KINDS.add(behaviorClass);
+		BEHAVIOR_KIND_INDEXES.put(behaviorClass, BEHAVIOR_KINDS.size() - 1);
+		behaviorKindCount = BEHAVIOR_KINDS.size();
+		return BEHAVIOR_KINDS.size() - 1;
+	}
+
+	private ClassDescriptors() {
+	}
+}
@@ -0,0 +1,61 @@
+package net.carmgate.morph.model.common;
+
+/**
+ * A small xorshift pseudo random generator.
+ * It is much cheaper than {@link java.util.Random} and is good enough for visual effects.
+ * <b>This class is not thread safe</b> : each thread should use its own instance.
+ */
+public class FastRandom {
+
+	private long seed;
+	private boolean hasNextGaussian;
+	private float nextGaussian;
+
+	public FastRandom() {
+		this(System.nanoTime());
+	}
+
+	public FastRandom(long seed) {
+		// the xorshift state must never be 0
+		this.seed = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+	}
+
+	/**
+	 * @return a uniformly distributed float within [0, 1[.
+	 */
+	public float nextFloat() {
+		return (nextLong() >>> 40) / (float) (1 << 24);
+	}
+
+	/**
+	 * @return a normally distributed float with mean 0 and standard deviation 1.
+	 */
+	public float nextGaussian() {
+		if (hasNextGaussian) {
+			hasNextGaussian = false;
+			return nextGaussian;
+		}
+
+		// Marsaglia polar method : it produces two values at a time
+		float u, v, s;
+		do {
+			u = nextFloat() * 2 - 1;
+			v = nextFloat() * 2 - 1;
+			s = u * u + v * v;
+		} while (s >= 1 || s == 0);
+		float multiplier = (float) Math.sqrt(-2 * Math.log(s) / s);
+		nextGaussian = v * multiplier;
+		hasNextGaussian = true;
+		return u * multiplier;
+	}
+
+	/**
+	 * @return a uniformly distributed long.
+	 */
+	public long nextLong() {
+		seed ^= seed << 21;
+		seed ^= seed >>> 35;
+		seed ^= seed << 4;
+		return seed;
+	}
+}
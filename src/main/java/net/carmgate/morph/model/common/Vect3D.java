@@ -14,6 +14,9 @@ public class Vect3D implements Renderable {
 	public static final Vect3D NORTH = new Vect3D(0, -1, 0);
 	public static final Vect3D NULL = new Vect3D(0, 0, 0);
 
+	private static final float ARROW_COS = (float) Math.cos(Math.toRadians(20));
+	private static final float ARROW_SIN = (float) Math.sin(Math.toRadians(20));
+
 	public float x;
 	public float y;
 	public float z;
@@ -52,36 +55,42 @@ public class Vect3D implements Renderable {
 		return this;
 	}
 
+	/**
+	 * Adds the provided vector multiplied by a scalar : this = this + scalar.vector.
+	 * @param vector
+	 * @param scalar
+	 */
+	public Vect3D addScaled(Vect3D vector, float scalar) {
+		x += vector.x * scalar;
+		y += vector.y * scalar;
+		z += vector.z * scalar;
+		return this;
+	}
+
 	/**
 	 * @param vector vector 2.
-	 * @return the angle (in degrees) between current vector and the one provided.
+	 * @return the angle (in degrees, within ]-180, 180]) between current vector and the one provided.
 	 */
 	public float angleWith(Vect3D vector) {
-		float scal = x * vector.x + y * vector.y;
-		float vect = x * vector.y - y * vector.x;
-
-		float angle; // in radians
-		if (Math.abs(scal) > 0.0000001) { // the minimal value must be big enough to get rid of float rounding errors
-			angle = (float) Math.atan(vect / scal);
-		} else {
-			angle = (float) Math.PI / 2;
-		}
-		if (scal < 0) {
-			angle = (float) (Math.PI + angle);
-		}
+		return angleWith(vector.x, vector.y);
+	}
 
-		// Convert in degrees before returning
-		float angleInDegrees = (float) Math.toDegrees(angle);
-		if (angleInDegrees > 180) {
-			angleInDegrees = angleInDegrees - 360;
-		}
-		return angleInDegrees;
+	/**
+	 * @param vectorX x of vector 2.
+	 * @param vectorY y of vector 2.
+	 * @return the angle (in degrees, within ]-180, 180]) between current vector and the one provided.
+	 */
+	public float angleWith(float vectorX, float vectorY) {
+		float scal = x * vectorX + y * vectorY;
+		float vect = x * vectorY - y * vectorX;
+		return (float) Math.toDegrees(Math.atan2(vect, scal));
 	}
 
-	public void copy(float newX, float newY, float newZ) {
+	public Vect3D copy(float newX, float newY, float newZ) {
 		x = newX;
 		y = newY;
 		z = newZ;
+		return this;
 	}
 
 	/**
@@ -95,14 +104,36 @@ public class Vect3D implements Renderable {
 		return this;
 	}
 
+	/**
+	 * Copy the difference of the provided vectors : this = vector1 - vector2.
+	 * @param vector1
+	 * @param vector2
+	 */
+	public Vect3D copyDifference(Vect3D vector1, Vect3D vector2) {
+		x = vector1.x - vector2.x;
+		y = vector1.y - vector2.y;
+		z = vector1.z - vector2.z;
+		return this;
+	}
+
 	/**
 	 * @param vect
 	 * @return returns the distance between two points given as Vect3D.
 	 */
 	public float distance(Vect3D vect) {
-		Vect3D tmpVect = new Vect3D(this);
-		tmpVect.substract(vect);
-		return tmpVect.modulus();
+		return (float) Math.sqrt(distanceSquared(vect));
+	}
+
+	/**
+	 * Cheaper than {@link #distance(Vect3D)} when only comparing distances.
+	 * @param vect
+	 * @return returns the squared distance between two points given as Vect3D.
+	 */
+	public float distanceSquared(Vect3D vect) {
+		float dx = x - vect.x;
+		float dy = y - vect.y;
+		float dz = z - vect.z;
+		return dx * dx + dy * dy + dz * dz;
 	}
 
 	/**
@@ -141,7 +172,15 @@ public class Vect3D implements Renderable {
 	 * @return the modulus of current vector.
 	 */
 	public float modulus() {
-		return (float) Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2) + Math.pow(z, 2));
+		return (float) Math.sqrt(x * x + y * y + z * z);
+	}
+
+	/**
+	 * Cheaper than {@link #modulus()} when only comparing moduli.
+	 * @return the squared modulus of current vector.
+	 */
+	public float modulusSquared() {
+		return x * x + y * y + z * z;
 	}
 
 	public Vect3D mult(float scalar) {
@@ -199,8 +238,9 @@ public class Vect3D implements Renderable {
 	}
 
 	public void render(int glMode, int exagerate) {
-		Vect3D vector = new Vect3D(this).mult(exagerate);
-		Vect3D origin = new Vect3D(vector);
+		float originX = x * exagerate;
+		float originY = y * exagerate;
+		float originZ = z * exagerate;
 
 		TextureImpl.bindNone();
 		GL11.glLineWidth(2.0f);
@@ -209,18 +249,20 @@ public class Vect3D implements Renderable {
 
 		// main line
 		GL11.glVertex3f(0, 0, 0);
-		GL11.glVertex3f(vector.x, vector.y, vector.z);
-
-		// arrow detail
-		vector.normalize(vector.modulus() / 3);
-		vector.rotate(20);
-		GL11.glVertex3f(origin.x, origin.y, origin.z);
-		GL11.glVertex3f(origin.x - vector.x,
-				origin.y - vector.y,
-				origin.z - vector.z);
-		vector.rotate(-40);
-		GL11.glVertex3f(origin.x, origin.y, origin.z);
-		GL11.glVertex3f(origin.x - vector.x, origin.y - vector.y, origin.z - vector.z);
+		GL11.glVertex3f(originX, originY, originZ);
+
+		// arrow detail : a third of the vector, rotated by 20 degrees on each side
+		float arrowX = originX / 3;
+		float arrowY = originY / 3;
+		float arrowZ = originZ / 3;
+		GL11.glVertex3f(originX, originY, originZ);
+		GL11.glVertex3f(originX - (ARROW_COS * arrowX - ARROW_SIN * arrowY),
+				originY - (ARROW_SIN * arrowX + ARROW_COS * arrowY),
+				originZ - arrowZ);
+		GL11.glVertex3f(originX, originY, originZ);
+		GL11.glVertex3f(originX - (ARROW_COS * arrowX + ARROW_SIN * arrowY),
+				originY - (-ARROW_SIN * arrowX + ARROW_COS * arrowY),
+				originZ - arrowZ);
 
 		GL11.glEnd();
 	}
@@ -230,8 +272,19 @@ public class Vect3D implements Renderable {
 	 * @param angle the rotation angles in degrees along the z axis.
 	 */
 	public Vect3D rotate(float angle) {
-		float newX = (float) (Math.cos(Math.toRadians(angle)) * x - Math.sin(Math.toRadians(angle)) * y);
-		float newY = (float) (Math.sin(Math.toRadians(angle)) * x + Math.cos(Math.toRadians(angle)) * y);
+		double angleInRadians = Math.toRadians(angle);
+		return rotate((float) Math.sin(angleInRadians), (float) Math.cos(angleInRadians));
+	}
+
+	/**
+	 * Rotates a vector along the z axis by the angle whose sine and cosine are provided.
+	 * Use this when the same rotation is applied several times.
+	 * @param sin the sine of the rotation angle
+	 * @param cos the cosine of the rotation angle
+	 */
+	public Vect3D rotate(float sin, float cos) {
+		float newX = cos * x - sin * y;
+		float newY = sin * x + cos * y;
 		x = newX;
 		y = newY;
 		return this;
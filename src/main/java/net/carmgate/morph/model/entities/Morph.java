@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.carmgate.morph.conf.Conf;
 import net.carmgate.morph.conf.Conf.ConfItem;
@@ -44,7 +45,7 @@ public class Morph implements Renderable, Selectable {
 	}
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Morph.class);
-	private static Integer nextId = 0;
+	private static final AtomicInteger nextId = new AtomicInteger();
 	private int id;
 	private static Texture baseTexture;
 	private static TrueTypeFont font;
@@ -68,9 +69,7 @@ public class Morph implements Renderable, Selectable {
 		this.level = level;
 		this.xp = xp;
 		this.ship = ship;
-		synchronized (nextId) {
-			id = nextId++;
-		}
+		id = nextId.getAndIncrement();
 	}
 
 	public Morph(MorphType morphType, Ship ship) {
@@ -4,7 +4,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 
 import net.carmgate.morph.model.Model;
-import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.behaviors.common.BehaviorArray;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.EntityHints;
@@ -38,13 +38,13 @@ public class Planet extends Entity {
 
 	public Planet(Entity orbitee, float mass, float radius, float orbit) {
 		super(Player.NO_ONE);
-		maxSpeed = 100000;
+		setMaxSpeed(100000);
 		maxSteeringForce = 100000;
 
-		this.mass = mass;
+		setMass(mass);
 		this.radius = radius;
 		if (orbitee != null) {
-			pos.copy(new Vect3D(orbitee.getPos()).add(new Vect3D(Vect3D.NORTH).rotate((float) (Math.random() * 360)).mult(orbit)));
+			setPos(orbitee.getPos(new Vect3D()).add(new Vect3D(Vect3D.NORTH).rotate((float) (Math.random() * 360)).mult(orbit)));
 		}
 
 	}
@@ -62,6 +62,23 @@ public class Planet extends Entity {
 		}
 	}
 
+	@Override
+	public float getPickRadius() {
+		// see render : the planet disappears when zoomed out too much
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		if (zoomFactor < 0.0005f && !selected) {
+			return 0;
+		}
+		return getRenderRadius();
+	}
+
+	@Override
+	protected float getRenderRadius() {
+		// see render : the texture is 128 wide and never smaller than a few pixels on screen
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		return Math.max(radius, 0.002f * radius / zoomFactor) * 64;
+	}
+
 	@Override
 	public void render(int glMode) {
 		float scale = radius;
@@ -79,43 +96,44 @@ public class Planet extends Entity {
 			scale = 0.002f * radius / zoomFactor;
 		}
 
-		GL11.glTranslatef(pos.x, pos.y, pos.z);
-
-		GL11.glColor4f(1, 1, 1, 1);
-		GL11.glScalef(scale, scale, 1);
+		Vect3D renderPos = getRenderPos();
 		if (isSelectRendering(glMode)) {
+			GL11.glColor4f(1, 1, 1, 1);
+			GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+			GL11.glScalef(scale, scale, 1);
 			TextureImpl.bindNone();
 			RenderUtils.renderDisc(width / 2);
+			GL11.glScalef(1f / scale, 1f / scale, 1);
+			GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
 		} else {
-			baseTexture.bind();
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glTexCoord2f(0, 0);
-			GL11.glVertex2f(-width / 2, -width / 2);
-			GL11.glTexCoord2f(1, 0);
-			GL11.glVertex2f(width / 2, -width / 2);
-			GL11.glTexCoord2f(1, 1);
-			GL11.glVertex2f(width / 2, width / 2);
-			GL11.glTexCoord2f(0, 1);
-			GL11.glVertex2f(-width / 2, width / 2);
-			GL11.glEnd();
+			// the sprite batch is drawn in world coordinates
+			Model.getModel().getSpriteBatch().draw(baseTexture, renderPos.x, renderPos.y, width * scale, width * scale, 0, 1, 1, 1, 1);
 		}
-		GL11.glScalef(1f / scale, 1f / scale, 1);
+	}
 
-		if (Model.getModel().getUiContext().isDebugMode() && !isSelectRendering(glMode)) {
-			GL11.glColor4f(0, 1, 0, 1);
-			speed.render(glMode);
+	/**
+	 * Renders the speed in debug mode and the behaviors.
+	 */
+	@Override
+	public void renderOverlay(int glMode) {
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		// see render : the planet disappears when zoomed out too much
+		if (zoomFactor < 0.0005f && !selected || isSelectRendering(glMode)) {
+			return;
 		}
 
-		GL11.glTranslatef(-pos.x, -pos.y, -pos.z);
+		if (Model.getModel().getUiContext().isDebugMode()) {
+			Vect3D renderPos = getRenderPos();
+			GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+			GL11.glColor4f(0, 1, 0, 1);
+			getSpeed(new Vect3D()).render(glMode);
+			GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
+		}
 
 		// Render behaviors
-		if (!isSelectRendering(glMode)) {
-			for (Behavior behavior : getBehaviors()) {
-				if (behavior instanceof Renderable) {
-					((Renderable) behavior).render(glMode);
-				}
-			}
+		BehaviorArray<Renderable> renderableBehaviors = getRenderableBehaviors();
+		for (int i = 0; i < renderableBehaviors.size(); i++) {
+			renderableBehaviors.get(i).render(glMode);
 		}
-
 	}
 }
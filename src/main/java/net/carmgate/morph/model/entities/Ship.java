@@ -11,9 +11,10 @@ import net.carmgate.morph.conf.Conf;
 import net.carmgate.morph.conf.Conf.ConfItem;
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.ai.BalancedAI;
-import net.carmgate.morph.model.behaviors.common.ActivatedMorph;
 import net.carmgate.morph.model.behaviors.common.Behavior;
-import net.carmgate.morph.model.behaviors.common.Needs;
+import net.carmgate.morph.model.behaviors.common.BehaviorArray;
+import net.carmgate.morph.model.common.ClassDescriptors;
+import net.carmgate.morph.model.common.ClassDescriptors.BehaviorDescriptor;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Morph.MorphType;
 import net.carmgate.morph.model.entities.common.Entity;
@@ -36,15 +37,13 @@ import org.newdawn.slick.opengl.TextureLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@EntityHints(entityType = EntityType.SHIP)
+@EntityHints(entityType = EntityType.SHIP, parallelUpdate = true)
 @RenderingHints(renderingStep = RenderingSteps.SHIP)
 public class Ship extends Entity {
 
 	// Used for drawing circles efficiently
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
+	private static final Float[] SELECTION_COLOR_BORDER = new Float[] { 0f, 0.7f, 0f, 0f };
+	private static final Float[] SELECTION_COLOR_MIDDLE = new Float[] { 0f, 0.7f, 0f, 1f };
 
 	public static final Logger LOGGER = LoggerFactory.getLogger(Ship.class);
 
@@ -58,11 +57,20 @@ public class Ship extends Entity {
 	// morphs
 	private final Map<Integer, Morph> morphsById = new HashMap<>();
 	private final Map<MorphType, List<Morph>> morphsByType = new HashMap<>();
+	/** A bit per type of morph held by the ship (1 << ordinal). */
+	private int morphTypesMask;
 
 	/** Stores last trail update. It occurred less than trailUpdateInterval ago. */
 	private long trailLastUpdate;
 	private final int trailUpdateInterval = Conf.getIntProperty(ConfItem.SHIP_TRAIL_UPDATEINTERVAL);
 	private final Vect3D[] trail = new Vect3D[Conf.getIntProperty(ConfItem.SHIP_TRAIL_NUMBEROFSEGMENTS)];
+	private final Vect3D trailStart = new Vect3D();
+	private final Vect3D trailEnd = new Vect3D();
+	private final Vect3D trailStartToEnd = new Vect3D();
+	private final Vect3D headingDirection = new Vect3D();
+	/** Scratch copies of the kinematics held by the store. */
+	private final Vect3D currentSpeed = new Vect3D();
+	private final Vect3D currentForce = new Vect3D();
 
 	private ShipEditorLayer debugShipEditorLayer;
 	private float maxDpsInflictable;
@@ -81,41 +89,25 @@ public class Ship extends Entity {
 		Model.getModel().getPlayers().add(player);
 
 		// initialize positional information
-		pos.copy(x, y, z);
+		setPos(x, y, z);
 		this.heading = heading;
-		this.mass = mass;
+		setMass(mass);
 
 		// TODO This should be a function of the ship's fitting
 		energy = 100;
 		maxHitPoints = 10 * mass;
 		maxEnergy = 100;
-
-		// init of the ship editor layer used for debugging purposes
-		debugShipEditorLayer = new ShipEditorLayer();
-		debugShipEditorLayer.setShip(this);
 	}
 
 	@Override
 	public void addBehavior(Behavior behavior) {
 
-		// Checks that the behavior can be added to the ship
-		if (behavior != null
-				&& behavior.getClass().isAnnotationPresent(Needs.class)) {
-			ActivatedMorph[] needs = behavior.getClass().getAnnotation(Needs.class).value();
-
-			if (needs != null) {
-				for (ActivatedMorph need : needs) {
-					for (Morph morph : morphsById.values()) {
-						if (morph.getMorphType() == need.morphType()) {
-							super.addBehavior(behavior);
-
-							return;
-						}
-					}
-				}
+		// Checks that the behavior can be added to the ship : it needs at least one of the given morphs
+		if (behavior != null) {
+			BehaviorDescriptor behaviorDescriptor = ClassDescriptors.ofBehavior(behavior.getClass());
+			if (behaviorDescriptor.needsMorphs() && (behaviorDescriptor.getNeededMorphsMask() & morphTypesMask) == 0) {
+				return;
 			}
-
-			return;
 		}
 
 		super.addBehavior(behavior);
@@ -123,6 +115,7 @@ public class Ship extends Entity {
 
 	public void addMorph(Morph morph) {
 		morphsById.put(morph.getId(), morph);
+		morphTypesMask |= 1 << morph.getMorphType().ordinal();
 
 		List<Morph> list = morphsByType.get(morph.getMorphType());
 		if (list == null) {
@@ -148,18 +141,20 @@ public class Ship extends Entity {
 
 		// rotate properly along the speed vector (historically along the steering force vector)
 		float newHeading;
-		float headingFactor = steeringForce.modulus() / maxSteeringForce * mass * 4;
+		Vect3D speed = getSpeed(currentSpeed);
+		float headingFactor = steeringForce.modulus() / maxSteeringForce * getMass() * 4;
 		if (headingFactor > 3) {
-			newHeading = new Vect3D(Vect3D.NORTH).angleWith(steeringForce);
+			newHeading = Vect3D.NORTH.angleWith(steeringForce);
 		} else if (headingFactor > 0) {
-			newHeading = new Vect3D(Vect3D.NORTH).angleWith(new Vect3D(steeringForce).mult(headingFactor).add(new Vect3D(speed).mult(1 - headingFactor / 3)));
+			headingDirection.copy(steeringForce).mult(headingFactor).addScaled(speed, 1 - headingFactor / 3);
+			newHeading = Vect3D.NORTH.angleWith(headingDirection);
 		} else {
-			newHeading = new Vect3D(Vect3D.NORTH).angleWith(speed);
+			newHeading = Vect3D.NORTH.angleWith(speed);
 		}
 
 		// heading = newHeading;
 		float angleDiff = (newHeading - heading + 360) % 360;
-		float maxAngleSpeed = Conf.getIntProperty(ConfItem.MORPH_SIMPLEPROPULSOR_MAXANGLESPEEDPERMASSUNIT) / mass;
+		float maxAngleSpeed = Conf.getIntProperty(ConfItem.MORPH_SIMPLEPROPULSOR_MAXANGLESPEEDPERMASSUNIT) / getMass();
 		if (angleDiff < maxAngleSpeed * Math.max(1, angleDiff / 180) * secondsSinceLastUpdate) {
 			heading = newHeading;
 		} else if (angleDiff < 180) {
@@ -173,7 +168,7 @@ public class Ship extends Entity {
 
 	@Override
 	public Ship clone() {
-		Ship newShip = new Ship(getPos().x, getPos().y, getPos().z, getHeading(),
+		Ship newShip = new Ship(getPosX(), getPosY(), getPosZ(), getHeading(),
 				getMass(), getPlayer());
 
 		// clone morphs
@@ -263,10 +258,6 @@ public class Ship extends Entity {
 		return morphsByType.get(morphType);
 	}
 
-	public float getRealAccelModulus() {
-		return realAccelModulus;
-	}
-
 	@Override
 	protected void handleEvent(Event event) {
 		super.handleEvent(event);
@@ -299,103 +290,147 @@ public class Ship extends Entity {
 		}
 	}
 
+	@Override
+	public float getPickRadius() {
+		// see render : the 128 wide texture is scaled according to the zoom
+		float massScale = getMass() / 10;
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		boolean disappearZoom = massScale / getMass() * zoomFactor < 0.002f;
+		boolean minZoom = massScale / getMass() * zoomFactor < 0.02f;
+		boolean alwaysShown = selected || getPlayer().getFof() == FOF.SELF;
+		if (disappearZoom && !alwaysShown) {
+			return 0;
+		}
+		if (minZoom && alwaysShown) {
+			return 64 / (4 * zoomFactor);
+		}
+		return 64 * Math.max(massScale, 0.02f * getMass() / zoomFactor);
+	}
+
+	/**
+	 * Includes the selection circle, the gauges and the trail.
+	 */
+	@Override
+	protected float getRenderRadius() {
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		float radius = Math.max(64 * getMass() / 10, 22 / zoomFactor) + 20 / zoomFactor;
+
+		Vect3D renderPos = getRenderPos();
+		for (Vect3D trailPoint : trail) {
+			if (trailPoint == null) {
+				break;
+			}
+			radius = Math.max(radius, renderPos.distance(trailPoint));
+		}
+		return radius;
+	}
+
 	@Override
 	public void render(int glMode) {
 
-		float massScale = mass / 10;
+		float massScale = getMass() / 10;
 		float width = 128;
 		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
-		boolean disappearZoom = massScale / mass * zoomFactor < 0.002f;
+		boolean disappearZoom = massScale / getMass() * zoomFactor < 0.002f;
 		if (disappearZoom && !selected && getPlayer().getFof() != FOF.SELF) {
 			return;
 		}
 
-		boolean minZoom = massScale / mass * zoomFactor < 0.02f;
+		boolean minZoom = massScale / getMass() * zoomFactor < 0.02f;
 
 		// render trail
 		renderTrail(glMode);
 
 		// Render behaviors
 		if (!isSelectRendering(glMode)) {
-			for (Behavior behavior : getBehaviors()) {
-				if (behavior instanceof Renderable) {
-					((Renderable) behavior).render(glMode);
-				}
+			BehaviorArray<Renderable> renderableBehaviors = getRenderableBehaviors();
+			for (int i = 0; i < renderableBehaviors.size(); i++) {
+				renderableBehaviors.get(i).render(glMode);
 			}
 		}
 
-		GL11.glTranslatef(pos.x, pos.y, pos.z);
-		GL11.glRotatef(heading, 0, 0, 1);
-
-		// Render selection circle around the ship
-		renderSelection(glMode, massScale, minZoom);
-
 		// Render the ship in itself
+		float red = 1f;
+		float green = 1f;
+		float blue = 1f;
 		if (Model.getModel().getUiContext().isDebugMode()) {
 			// IMPROVE replace this with some more proper mass rendering
 			float energyPercent = energy / 100;
 			if (energyPercent <= 0) {
-				GL11.glColor3f(0.1f, 0.1f, 0.1f);
+				red = green = blue = 0.1f;
 			} else {
-				GL11.glColor3f(1f - energyPercent, energyPercent, 0);
+				red = 1f - energyPercent;
+				green = energyPercent;
+				blue = 0;
 			}
-		} else {
-			GL11.glColor3f(1f, 1f, 1f);
 		}
+		Vect3D renderPos = getRenderPos();
 		if (minZoom && (selected || getPlayer().getFof() == FOF.SELF)) {
-			GL11.glScalef(1f / (4 * zoomFactor), 1f / (4 * zoomFactor), 0);
 			if (isSelectRendering(glMode)) {
+				GL11.glColor3f(red, green, blue);
+				GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+				GL11.glScalef(1f / (4 * zoomFactor), 1f / (4 * zoomFactor), 0);
 				TextureImpl.bindNone();
 				RenderUtils.renderDisc(width / 2);
+				GL11.glScalef(4 * zoomFactor, 4 * zoomFactor, 0);
+				GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
 			} else {
-				zoomedOutTexture.bind();
-				GL11.glBegin(GL11.GL_QUADS);
-				GL11.glTexCoord2f(0, 0);
-				GL11.glVertex2f(-width / 2, -width / 2);
-				GL11.glTexCoord2f(1, 0);
-				GL11.glVertex2f(width / 2, -width / 2);
-				GL11.glTexCoord2f(1, 1);
-				GL11.glVertex2f(width / 2, width / 2);
-				GL11.glTexCoord2f(0, 1);
-				GL11.glVertex2f(-width / 2, width / 2);
-				GL11.glEnd();
+				// the sprite batch is drawn in world coordinates
+				float size = width / (4 * zoomFactor);
+				Model.getModel().getSpriteBatch().draw(zoomedOutTexture, renderPos.x, renderPos.y, size, size, heading, red, green, blue, 1);
 			}
-			GL11.glScalef(4 * zoomFactor, 4 * zoomFactor, 0);
 		} else {
 			if (isSelectRendering(glMode)) {
-				massScale = (float) Math.max(massScale, 0.02 * mass / zoomFactor);
-			}
-
-			GL11.glScalef(massScale, massScale, 0);
-			if (isSelectRendering(glMode)) {
+				float selectScale = (float) Math.max(massScale, 0.02 * getMass() / zoomFactor);
+				GL11.glColor3f(red, green, blue);
+				GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+				GL11.glScalef(selectScale, selectScale, 0);
 				TextureImpl.bindNone();
 				RenderUtils.renderDisc(width / 2);
+				GL11.glScalef(1f / selectScale, 1f / selectScale, 0);
+				GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
 			} else {
-				baseTexture.bind();
-				GL11.glBegin(GL11.GL_QUADS);
-				GL11.glTexCoord2f(0, 0);
-				GL11.glVertex2f(-width / 2, -width / 2);
-				GL11.glTexCoord2f(1, 0);
-				GL11.glVertex2f(width / 2, -width / 2);
-				GL11.glTexCoord2f(1, 1);
-				GL11.glVertex2f(width / 2, width / 2);
-				GL11.glTexCoord2f(0, 1);
-				GL11.glVertex2f(-width / 2, width / 2);
-				GL11.glEnd();
+				// the sprite batch is drawn in world coordinates
+				float size = width * massScale;
+				Model.getModel().getSpriteBatch().draw(baseTexture, renderPos.x, renderPos.y, size, size, heading, red, green, blue, 1);
 			}
-			GL11.glScalef(1f / massScale, 1f / massScale, 0);
 		}
+	}
 
-		GL11.glRotatef(-heading, 0, 0, 1);
+	/**
+	 * Renders the selection circle, the forces in debug mode, the gauges and the morphs for debugging purpose.
+	 */
+	@Override
+	public void renderOverlay(int glMode) {
+		float massScale = getMass() / 10;
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		boolean disappearZoom = massScale / getMass() * zoomFactor < 0.002f;
+		if (disappearZoom && !selected && getPlayer().getFof() != FOF.SELF) {
+			return;
+		}
+
+		boolean minZoom = massScale / getMass() * zoomFactor < 0.02f;
+		boolean forcesShown = Model.getModel().getUiContext().isDebugMode() && !isSelectRendering(glMode);
+		boolean gaugesShown = !isSelectRendering(glMode) && !minZoom || getPlayer().getFof() == FOF.SELF || selected;
+		boolean morphsShown = Model.getModel().getUiContext().isDebugMorphsShown();
+		if (!selected && !forcesShown && !gaugesShown && !morphsShown) {
+			return;
+		}
+
+		Vect3D renderPos = getRenderPos();
+		GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+
+		// Render selection circle around the ship
+		renderSelection(glMode, massScale, minZoom);
 
 		// Render ship forces
-		if (Model.getModel().getUiContext().isDebugMode() && !isSelectRendering(glMode)) {
+		if (forcesShown) {
 			GL11.glColor3f(1, 1, 0);
-			effectiveForce.render(glMode, 1);
+			getForce(currentForce).render(glMode, 1);
 		}
 
 		// Render energy gauge
-		if (!isSelectRendering(glMode) && !minZoom || getPlayer().getFof() == FOF.SELF || selected) {
+		if (gaugesShown) {
 			GL11.glScalef(1f / zoomFactor, 1f / zoomFactor, 1);
 			if (!minZoom) {
 				RenderUtils.renderGauge(50, 16 + 64 * zoomFactor * massScale + 5, Math.min(maxHitPoints - damage, maxHitPoints) / maxHitPoints, 0.2f,
@@ -411,75 +446,31 @@ public class Ship extends Entity {
 		}
 
 		// Render morphs for debugging purpose
-		if (Model.getModel().getUiContext().isDebugMorphsShown()) {
+		if (morphsShown) {
 			GL11.glScalef(1f / (2 * zoomFactor), 1f / (2 * zoomFactor), 1);
+			// the ship editor layer used for debugging purposes is only created when needed
+			if (debugShipEditorLayer == null) {
+				debugShipEditorLayer = new ShipEditorLayer();
+				debugShipEditorLayer.setShip(this);
+			}
 			debugShipEditorLayer.render(glMode);
 			GL11.glScalef(2 * zoomFactor, 2 * zoomFactor, 1);
 		}
 
-		GL11.glTranslatef(-pos.x, -pos.y, -pos.z);
+		GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
 
 	}
 
-	// TODO Replace this method by using RenderUtils.renderCircle(...)
 	private void renderSelection(int glMode, float massScale, boolean minZoom) {
 		if (selected && !isSelectRendering(glMode)) {
-			// render limit of effect zone
-			TextureImpl.bindNone();
-			float tInt = 0; // temporary data holder
-			float tExt = 0; // temporary data holder
-			float xInt;
-			float xExt;
 			float zoomFactor = Model.getModel().getViewport().getZoomFactor();
-
+			float radius;
 			if (!minZoom) {
-				xInt = 64 * massScale - 16; // radius
-				xExt = 64 * massScale - 16 + 6 / zoomFactor; // radius
+				radius = 64 * massScale - 16;
 			} else {
-				xInt = 16 / zoomFactor; // radius
-				xExt = 16 / zoomFactor + 6 / zoomFactor; // radius
-			}
-
-			float xIntBackup = xInt; // radius
-			float xExtBackup = xExt; // radius
-			float yInt = 0;
-			float yExt = 0;
-			float yIntBackup = 0;
-			float yExtBackup = 0;
-			float alphaMax = 1f;
-			for (int i = 0; i < nbSegments; i++) {
-
-				tInt = xInt;
-				tExt = xExt;
-				xInt = cos * xInt - sin * yInt;
-				xExt = cos * xExt - sin * yExt;
-				yInt = sin * tInt + cos * yInt;
-				yExt = sin * tExt + cos * yExt;
-
-				GL11.glBegin(GL11.GL_QUADS);
-				GL11.glColor4f(0, 0.7f, 0, 0);
-				GL11.glVertex2f(xInt, yInt);
-				GL11.glColor4f(0, 0.7f, 0, 0);
-				GL11.glVertex2f(xIntBackup, yIntBackup);
-				GL11.glColor4f(0, 0.7f, 0, alphaMax);
-				GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-				GL11.glColor4f(0, 0.7f, 0, alphaMax);
-				GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-				GL11.glColor4f(0, 0.7f, 0, alphaMax);
-				GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-				GL11.glColor4f(0, 0.7f, 0, alphaMax);
-				GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-				GL11.glColor4f(0, 0.7f, 0, 0);
-				GL11.glVertex2f(xExt, yExt);
-				GL11.glColor4f(0, 0.7f, 0, 0);
-				GL11.glVertex2f(xExtBackup, yExtBackup);
-				GL11.glEnd();
-
-				xIntBackup = xInt;
-				xExtBackup = xExt;
-				yIntBackup = yInt;
-				yExtBackup = yExt;
+				radius = 16 / zoomFactor;
 			}
+			RenderUtils.renderCircle(radius, 6 / zoomFactor, SELECTION_COLOR_BORDER, SELECTION_COLOR_MIDDLE, SELECTION_COLOR_BORDER);
 		}
 	}
 
@@ -487,9 +478,9 @@ public class Ship extends Entity {
 		if (!isSelectRendering(glMode)) {
 			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
 			if (trail[0] != null) {
-				Vect3D start = new Vect3D(pos);
-				Vect3D end = new Vect3D();
-				Vect3D startToEnd = new Vect3D();
+				Vect3D start = trailStart.copy(getRenderPos());
+				Vect3D end = trailEnd;
+				Vect3D startToEnd = trailStartToEnd;
 				for (int i = 0; i < trail.length; i++) {
 					if (trail[i] == null) {
 						break;
@@ -519,14 +510,14 @@ public class Ship extends Entity {
 
 	@Override
 	public String toString() {
-		return "ship:" + pos.toString();
+		return "ship:" + getPos(new Vect3D()).toString();
 	}
 
 	private void updateMorphDependantValues() {
 		// Compute morphs level dependant values
 		// TODO #20 Update these values each time a morph is upgraded
 		maxSteeringForce = 0;
-		maxSpeed = 0;
+		float maxSpeed = 0;
 		maxDpsInflictable = 0;
 
 		// Compute max steering force and max speed
@@ -543,7 +534,8 @@ public class Ship extends Entity {
 			maxSteeringForce *= stackingPenalty;
 			maxSpeed *= stackingPenalty;
 		}
-		maxSteeringForce /= mass;
+		setMaxSpeed(maxSpeed);
+		maxSteeringForce /= getMass();
 
 		// Compute max dps
 		float damageFactor = 0;
@@ -555,7 +547,7 @@ public class Ship extends Entity {
 		maxDpsInflictable = maxDamageLevel1 * damageFactor;
 
 		// update max hit points with armor
-		maxHitPoints = 10 * mass;
+		maxHitPoints = 10 * getMass();
 		if (getMorphsByType(MorphType.ARMOR) != null) {
 			maxHitPoints += Conf.getFloatProperty(ConfItem.MORPH_ARMOR_HITPOINTS_LEVEL1)
 					* getMorphsByType(MorphType.ARMOR).size();
@@ -566,10 +558,12 @@ public class Ship extends Entity {
 	@Override
 	protected void updateTrail() {
 		if (trailLastUpdate == 0 || Model.getModel().getLastUpdateTS() - trailLastUpdate > trailUpdateInterval) {
+			// recycle the oldest trail point
+			Vect3D oldest = trail[trail.length - 1];
 			for (int i = trail.length - 2; i >= 0; i--) {
 				trail[i + 1] = trail[i];
 			}
-			trail[0] = new Vect3D(pos);
+			trail[0] = getPos(oldest == null ? new Vect3D() : oldest);
 			trailLastUpdate += trailUpdateInterval;
 		}
 	}
@@ -4,6 +4,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.EntityHints;
 import net.carmgate.morph.model.entities.common.EntityType;
@@ -39,10 +40,8 @@ public class Star extends Entity {
 	public Star(float x, float y, float z, float mass, float radius, float energyFlow) {
 		super(Player.NO_ONE);
 
-		pos.x = x;
-		pos.y = y;
-		pos.z = z;
-		this.mass = mass;
+		setPos(x, y, z);
+		setMass(mass);
 		this.radius = radius;
 		this.energyFlow = energyFlow;
 	}
@@ -72,9 +71,22 @@ public class Star extends Entity {
 
 	}
 
+	@Override
+	public float getPickRadius() {
+		// the whole sprite is pickable
+		return getRenderRadius();
+	}
+
+	@Override
+	protected float getRenderRadius() {
+		// see render : the texture is 128 wide and never smaller than a few pixels on screen
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		return Math.max(radius, 0.002f * radius / zoomFactor) * 64;
+	}
+
 	@Override
 	public void render(int glMode) {
-		GL11.glTranslatef(pos.x, pos.y, pos.z);
+		Vect3D renderPos = getRenderPos();
 		float scale = radius;
 		float width = 128f;
 
@@ -85,30 +97,26 @@ public class Star extends Entity {
 		}
 
 		GL11.glColor4f(1, 1, 1, 1);
-		GL11.glScalef(scale, scale, 0);
 		if (isSelectRendering(glMode)) {
+			GL11.glTranslatef(renderPos.x, renderPos.y, renderPos.z);
+			GL11.glScalef(scale, scale, 0);
 			TextureImpl.bindNone();
 			RenderUtils.renderDisc(width / 2);
+			GL11.glScalef(1 / scale, 1 / scale, 0);
+			GL11.glTranslatef(-renderPos.x, -renderPos.y, -renderPos.z);
 		} else {
-			baseTexture.bind();
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glTexCoord2f(0, 0);
-			GL11.glVertex2f(-width / 2, -width / 2);
-			GL11.glTexCoord2f(1, 0);
-			GL11.glVertex2f(width / 2, -width / 2);
-			GL11.glTexCoord2f(1, 1);
-			GL11.glVertex2f(width / 2, width / 2);
-			GL11.glTexCoord2f(0, 1);
-			GL11.glVertex2f(-width / 2, width / 2);
-			GL11.glEnd();
+			// the sprite batch is drawn in world coordinates
+			Model.getModel().getSpriteBatch().draw(baseTexture, renderPos.x, renderPos.y, width * scale, width * scale, 0, 1, 1, 1, 1);
 		}
-		GL11.glScalef(1 / scale, 1 / scale, 0);
+	}
 
-		GL11.glTranslatef(-pos.x, -pos.y, -pos.z);
+	@Override
+	public void commitUpdate() {
+		// Nothing to do
 	}
 
 	@Override
-	public void update() {
+	public void updateDecisions() {
 		// Nothing to do
 	}
 
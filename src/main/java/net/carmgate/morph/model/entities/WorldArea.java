@@ -6,20 +6,35 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.Renderable;
 
+import org.apache.commons.collections.Predicate;
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.Texture;
 import org.newdawn.slick.opengl.TextureLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// 0 1 2 3 from top left clockwise
+/**
+ * Quadtree of world areas.
+ * Children are numbered 0 1 2 3 from top left clockwise.
+ * Level 0 world areas are the leaves of the tree.
+ * 
+ * The quadtree also indexes the entities of the world : each entity is registered in the leaf containing it
+ * and is only moved to another leaf when it crosses a leaf boundary.
+ * Entities outside of the root world area are registered in the root itself.
+ * World areas are created on demand and pruned as soon as they hold no entity, unless they are {@link #pin() pinned}.
+ * <b>The entity index is not thread safe</b> : queries can run concurrently, but not while entities are being moved.
+ */
 public class WorldArea implements Renderable {
-	private static Integer nextId = 0;
+	private static final AtomicInteger nextId = new AtomicInteger();
 	private static final int GRID_SIZE = 512;
+	/** Width of the level 0 world areas. */
+	public static final int LEAF_WIDTH = GRID_SIZE << 1;
 	private static final Logger LOGGER = LoggerFactory.getLogger(WorldArea.class);
 	private static Texture[] textures = new Texture[8];
 	private final Vect3D center;
@@ -28,17 +43,34 @@ public class WorldArea implements Renderable {
 	private WorldArea[] children;
 	private final long geoHash;
 	private final int level;
-	private Integer id;
+	private final int id;
 	private final int width;
 
+	/** Entities registered in this very world area (not in its descendants). Lazily created. */
+	private List<Entity> entities;
+	/** Number of entities registered in this world area and all its descendants. */
+	private int entityCount;
+	/** Number of pins on this world area and all its descendants. */
+	private int pinCount;
+
+	/**
+	 * This constructor is used to initialize the renderer.
+	 * Use {@link #WorldArea(int)} to create a root world area.
+	 */
 	public WorldArea() {
 		this(0, 0x22222222, new Vect3D());
 	}
 
+	/**
+	 * Creates a root world area centered on the origin of the world.
+	 * @param level the level of the root. Its width is 1024 * 2^level.
+	 */
+	public WorldArea(int level) {
+		this(level, 0, new Vect3D());
+	}
+
 	private WorldArea(int level, long geoHash, Vect3D center) {
-		synchronized (nextId) {
-			id = nextId++;
-		}
+		id = nextId.getAndIncrement();
 
 		this.level = level;
 		this.geoHash = geoHash;
@@ -46,6 +78,88 @@ public class WorldArea implements Renderable {
 		width = GRID_SIZE << level + 1;
 	}
 
+	/**
+	 * Registers an entity in the leaf containing it (or in this world area if the entity is outside of it).
+	 * This should be called on the root world area.
+	 * @param entity
+	 */
+	public void add(Entity entity) {
+		WorldArea wa = this;
+		if (contains(entity.getPosX(), entity.getPosY())) {
+			wa = createDescendantWA(entity.getPos(new Vect3D()), 0);
+		}
+		wa.addToThis(entity);
+	}
+
+	private void addToThis(Entity entity) {
+		if (entities == null) {
+			entities = new ArrayList<>();
+		}
+		entities.add(entity);
+		entity.setWorldArea(this);
+
+		// propagate to ancestors, without creating new ones
+		for (WorldArea wa = this; wa != null; wa = wa.parent) {
+			wa.entityCount++;
+		}
+	}
+
+	/**
+	 * Adds the matching entities registered in this world area and its descendants to the result.
+	 * If center is not null, the entities must also be within the given distance of the center.
+	 */
+	private void collectEntities(float minX, float minY, float maxX, float maxY, Vect3D center, float radiusSquared,
+			Predicate predicate, List<Entity> result) {
+		if (entities != null) {
+			for (int i = 0; i < entities.size(); i++) {
+				Entity entity = entities.get(i);
+				float x = entity.getPosX();
+				float y = entity.getPosY();
+				if (x < minX || x > maxX || y < minY || y > maxY) {
+					continue;
+				}
+				if (center != null) {
+					float dx = x - center.x;
+					float dy = y - center.y;
+					float dz = entity.getPosZ() - center.z;
+					if (dx * dx + dy * dy + dz * dz >= radiusSquared) {
+						continue;
+					}
+				}
+				if (predicate == null || predicate.evaluate(entity)) {
+					result.add(entity);
+				}
+			}
+		}
+
+		if (children == null) {
+			return;
+		}
+
+		for (WorldArea child : children) {
+			if (child != null && child.entityCount > 0 && child.overlaps(minX, minY, maxX, maxY)) {
+				child.collectEntities(minX, minY, maxX, maxY, center, radiusSquared, predicate, result);
+			}
+		}
+	}
+
+	/**
+	 * @param pos
+	 * @return true if the position is within the bounds of this world area (z is ignored).
+	 */
+	public boolean contains(Vect3D pos) {
+		return contains(pos.x, pos.y);
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return true if the position (x, y) is within the bounds of this world area.
+	 */
+	public boolean contains(float x, float y) {
+		return Math.abs(x - center.x) <= width / 2 && Math.abs(y - center.y) <= width / 2;
+	}
+
 	public WorldArea createDescendantWA(Vect3D focalPoint, int descendantLevel) {
 		WorldArea currentWA = this;
 		while (currentWA.getLevel() > descendantLevel) {
@@ -111,12 +225,51 @@ public class WorldArea implements Renderable {
 			default:
 				throw new IllegalArgumentException("getChild cannot be called with i > 3");
 			}
-			children[i] = new WorldArea(level - 1, geoHash + (i << 2 * (level - 1)), childCenter);
+			children[i] = new WorldArea(level - 1, geoHash + ((long) i << 2 * (level - 1)), childCenter);
 			children[i].setParent(this);
 		}
 		return children[i];
 	}
 
+	/**
+	 * @return the number of entities registered in this world area and its descendants.
+	 */
+	public int getEntityCount() {
+		return entityCount;
+	}
+
+	/**
+	 * Finds the entities within a rectangular region of the world.
+	 * This should be called on the root world area.
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @param predicate additional filter on the entities, might be null
+	 * @param result the entities found are added to this list, it is not cleared beforehand
+	 * @return the result list
+	 */
+	public List<Entity> findEntities(float minX, float minY, float maxX, float maxY, Predicate predicate, List<Entity> result) {
+		collectEntities(minX, minY, maxX, maxY, null, 0, predicate, result);
+		return result;
+	}
+
+	/**
+	 * Finds the entities within a given distance of a location.
+	 * This should be called on the root world area.
+	 * Unlike {@link net.carmgate.morph.model.SpatialGrid}, the result is not sorted.
+	 * @param location center of the search area
+	 * @param radius radius of the search area
+	 * @param predicate additional filter on the entities, might be null
+	 * @param result the entities found are added to this list, it is not cleared beforehand
+	 * @return the result list
+	 */
+	public List<Entity> findEntities(Vect3D location, float radius, Predicate predicate, List<Entity> result) {
+		collectEntities(location.x - radius, location.y - radius, location.x + radius, location.y + radius, location, radius * radius,
+				predicate, result);
+		return result;
+	}
+
 	public long getGeoHash() {
 		return geoHash;
 	}
@@ -210,6 +363,10 @@ public class WorldArea implements Renderable {
 		return parent;
 	}
 
+	public int getWidth() {
+		return width;
+	}
+
 	private boolean hasParent() {
 		return parent != null;
 	}
@@ -225,11 +382,94 @@ public class WorldArea implements Renderable {
 		}
 	}
 
+	private boolean overlaps(float minX, float minY, float maxX, float maxY) {
+		return center.x - width / 2 <= maxX && center.x + width / 2 >= minX
+				&& center.y - width / 2 <= maxY && center.y + width / 2 >= minY;
+	}
+
+	/**
+	 * Keeps this world area and its ancestors in the tree even when they hold no entity.
+	 * Each call must be balanced by a call to {@link #unpin()}.
+	 */
+	public void pin() {
+		for (WorldArea wa = this; wa != null; wa = wa.parent) {
+			wa.pinCount++;
+		}
+	}
+
+	/**
+	 * Detaches this world area and its empty ancestors from the tree, as long as they hold no entity and no pin.
+	 * The root is never detached.
+	 */
+	private void prune() {
+		WorldArea wa = this;
+		while (wa.parent != null && wa.entityCount == 0 && wa.pinCount == 0) {
+			WorldArea parentWA = wa.parent;
+			parentWA.removeChild(wa);
+			wa.parent = null;
+			wa = parentWA;
+		}
+	}
+
+	/**
+	 * Unregisters an entity.
+	 * Removing an entity that is not registered does nothing.
+	 * @param entity
+	 */
+	public void remove(Entity entity) {
+		WorldArea wa = entity.getWorldArea();
+		if (wa == null) {
+			return;
+		}
+		entity.setWorldArea(null);
+		wa.removeFromThis(entity);
+	}
+
+	private void removeChild(WorldArea child) {
+		boolean empty = true;
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] == child) {
+				children[i] = null;
+			} else if (children[i] != null) {
+				empty = false;
+			}
+		}
+		if (empty) {
+			children = null;
+		}
+	}
+
+	private void removeFromThis(Entity entity) {
+		entities.remove(entity);
+
+		for (WorldArea wa = this; wa != null; wa = wa.parent) {
+			wa.entityCount--;
+		}
+		prune();
+	}
+
 	@Override
 	public void render(int glMode) {
+		render(glMode, null);
+	}
+
+	/**
+	 * Renders the leaf world areas overlapping the given bounds.
+	 * @param glMode
+	 * @param worldBounds minX, minY, maxX, maxY or null to render all the world areas
+	 */
+	public void render(int glMode, float[] worldBounds) {
+		if (worldBounds != null && !overlaps(worldBounds[0], worldBounds[1], worldBounds[2], worldBounds[3])) {
+			return;
+		}
+
 		if (level > 0) {
-			for (WorldArea wa : getNotNullChildren()) {
-				wa.render(glMode);
+			if (children != null) {
+				for (WorldArea wa : children) {
+					if (wa != null) {
+						wa.render(glMode, worldBounds);
+					}
+				}
 			}
 			return;
 		}
@@ -265,4 +505,44 @@ public class WorldArea implements Renderable {
 		this.parent = parent;
 	}
 
+	/**
+	 * Releases a pin taken with {@link #pin()}.
+	 * The world area is pruned if it holds no entity and no pin anymore.
+	 */
+	public void unpin() {
+		for (WorldArea wa = this; wa != null; wa = wa.parent) {
+			wa.pinCount--;
+		}
+		prune();
+	}
+
+	/**
+	 * Moves the entity to the leaf containing its current position if it crossed the boundary of its world area.
+	 * The new leaf is searched from the lowest common ancestor of both world areas.
+	 * @param entity
+	 */
+	public void update(Entity entity) {
+		WorldArea oldWA = entity.getWorldArea();
+		float x = entity.getPosX();
+		float y = entity.getPosY();
+		if (oldWA == null || oldWA.level == 0 && oldWA.contains(x, y)) {
+			return;
+		}
+
+		// climb to the first ancestor containing the entity (or to the root)
+		WorldArea newWA = oldWA;
+		while (newWA.parent != null && !newWA.contains(x, y)) {
+			newWA = newWA.parent;
+		}
+		if (newWA.contains(x, y)) {
+			newWA = newWA.createDescendantWA(entity.getPos(new Vect3D()), 0);
+		}
+
+		if (newWA != oldWA) {
+			// add first so that removing from the old world area does not prune the new one
+			newWA.addToThis(entity);
+			oldWA.removeFromThis(entity);
+		}
+	}
+
 }
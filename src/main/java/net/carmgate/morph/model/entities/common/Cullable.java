@@ -0,0 +1,13 @@
+package net.carmgate.morph.model.entities.common;
+
+/**
+ * Renderables implementing this interface can be skipped when they are out of the viewport.
+ */
+public interface Cullable {
+
+	/**
+	 * @param worldBounds the viewport bounds in world coordinates : minX, minY, maxX, maxY
+	 * @return true if something drawn by this object might be visible within the bounds.
+	 */
+	boolean isVisible(float[] worldBounds);
+}
@@ -1,67 +1,68 @@
 package net.carmgate.morph.model.entities.common;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+import net.carmgate.morph.model.EntityRegistry;
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.SpatialGrid;
 import net.carmgate.morph.model.ai.BalancedAI;
 import net.carmgate.morph.model.behaviors.StarsContribution;
 import net.carmgate.morph.model.behaviors.common.Behavior;
+import net.carmgate.morph.model.behaviors.common.BehaviorArray;
 import net.carmgate.morph.model.behaviors.common.ForceGeneratingBehavior;
 import net.carmgate.morph.model.behaviors.common.Movement;
+import net.carmgate.morph.model.behaviors.common.OnRails;
 import net.carmgate.morph.model.behaviors.passive.Dying;
 import net.carmgate.morph.model.behaviors.passive.TakingDamage;
 import net.carmgate.morph.model.behaviors.steering.Orbit;
+import net.carmgate.morph.model.common.ClassDescriptors;
+import net.carmgate.morph.model.common.ClassDescriptors.BehaviorDescriptor;
+import net.carmgate.morph.model.common.ClassDescriptors.EntityDescriptor;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.Ship;
 import net.carmgate.morph.model.entities.Star;
+import net.carmgate.morph.model.entities.WorldArea;
 import net.carmgate.morph.model.entities.common.listener.DeathListener;
 import net.carmgate.morph.model.events.Die;
 import net.carmgate.morph.model.events.Event;
 import net.carmgate.morph.model.events.TakeDamage;
+import net.carmgate.morph.model.physics.KinematicsStore;
 import net.carmgate.morph.model.player.Player;
 import net.carmgate.morph.model.player.Player.PlayerType;
+import net.carmgate.morph.ui.common.RenderUtils;
 
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.collections.Predicate;
 import org.lwjgl.opengl.GL11;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public abstract class Entity implements Renderable, Selectable, Updatable {
-
-	private static final class SameClassPredicate implements Predicate {
-		private final Class<?> behaviorClass;
-
-		public SameClassPredicate(Class<?> behaviorClass) {
-			this.behaviorClass = behaviorClass;
-		}
-
-		@Override
-		public boolean evaluate(Object object) {
-			return behaviorClass.isInstance(object);
-		}
-	}
+public abstract class Entity implements Renderable, Selectable, Updatable, Cullable {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Entity.class);
-	private static Integer nextId = 0;
-	protected final int id;
+	/** The id given by the {@link net.carmgate.morph.model.EntityRegistry} when the entity is added to the model. */
+	private int id = EntityRegistry.NO_ID;
 
-	/** The ship position in the world. */
-	protected final Vect3D pos = new Vect3D();
-	protected final Vect3D speed = new Vect3D();
+	/**
+	 * The store owning the position, speed, force, mass and max speed of the entity.
+	 * The accessors of these properties are views over the slot of the entity in this store.
+	 */
+	private KinematicsStore kinematics;
+	private int kinematicsSlot;
+	/** The ship position at the beginning of the current simulation tick. */
+	private final Vect3D previousPos = new Vect3D();
+	/** The interpolated position used for rendering. Reused from one frame to the next. */
+	private final Vect3D renderPos = new Vect3D();
+	// The position and speed given by the behavior placing the entity, if any. Reused from one tick to the next.
+	private final Vect3D railsPos = new Vect3D();
+	private final Vect3D railsSpeed = new Vect3D();
 	/** The ship orientation in the world. */
 	protected float heading;
 
 	protected float maxSteeringForce;
-	protected float maxSpeed;
 	protected final Vect3D steeringForce = new Vect3D();
-	protected final Vect3D effectiveForce = new Vect3D();
+	/** The sum of the forces of the tick, before it is stored in the kinematics. */
+	private final Vect3D effectiveForce = new Vect3D();
 
-	// TODO remove the initial 10 value
-	protected float mass = 10;
 	protected float damage = 0;
 	protected float maxHitPoints;
 	protected float energy;
@@ -70,21 +71,37 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 	protected boolean selected;
 	private final Player player;
 
-	private final Set<Behavior> behaviorSet = new HashSet<>();
-	private final Set<Behavior> pendingBehaviorsRemoval = new HashSet<>();
-	private final Set<Behavior> pendingBehaviorsAddition = new HashSet<>();
+	/** The active behaviors, in the order they were added. */
+	private final BehaviorArray<Behavior> behaviors = new BehaviorArray<>();
+	private final BehaviorArray<Behavior> pendingBehaviorsRemoval = new BehaviorArray<>();
+	private final BehaviorArray<Behavior> pendingBehaviorsAddition = new BehaviorArray<>();
+	/** The kind bits (see {@link BehaviorDescriptor#getKindBit()}) of the active behaviors. */
+	private long behaviorKinds;
+	// The active behaviors by category, rebuilt when the behaviors change
+	private final BehaviorArray<Movement> movements = new BehaviorArray<>();
+	private final BehaviorArray<ForceGeneratingBehavior> forceGeneratingBehaviors = new BehaviorArray<>();
+	private final BehaviorArray<Renderable> renderableBehaviors = new BehaviorArray<>();
+	private final BehaviorArray<Cullable> cullableBehaviors = new BehaviorArray<>();
+	/** The first active behavior placing the entity, if any : the entity is then not integrated. */
+	private OnRails onRails;
 	private StarsContribution starsContribution;
 
 	private boolean dead;
-	protected float realAccelModulus;
 	private final List<Event> newEventList = new ArrayList<>();
 	private final List<Event> eventList = new ArrayList<>();
 	private final List<DeathListener> deathListeners = new ArrayList<>();
 
+	/** Key of the {@link SpatialGrid} cell holding the entity, {@link SpatialGrid#NO_CELL} if not indexed. */
+	private long spatialGridCell = SpatialGrid.NO_CELL;
+	/** The {@link WorldArea} holding the entity, null if not indexed. */
+	private WorldArea worldArea;
+	/** The hints of the entity class. */
+	private final EntityDescriptor descriptor = ClassDescriptors.ofEntity(getClass());
+
 	protected Entity(Player player) {
-		synchronized (nextId) {
-			id = nextId++;
-		}
+		new KinematicsStore(1).add(this);
+		// TODO remove the initial 10 value
+		setMass(10);
 
 		// TODO We should not have to exclude Stars within Entity
 		// Entity should not have to know Stars
@@ -103,7 +120,9 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 	 * @return true if it was possible to add the behavior
 	 */
 	public void addBehavior(Behavior behavior) {
-		pendingBehaviorsAddition.add(behavior);
+		if (!pendingBehaviorsAddition.contains(behavior)) {
+			pendingBehaviorsAddition.add(behavior);
+		}
 		// TODO Find a better way of handling this
 		if (behavior instanceof Orbit) {
 			((Orbit) behavior).setStarsContribution(starsContribution);
@@ -139,18 +158,18 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 	 */
 	protected void cloneBehaviors(Entity clone) {
 		// clone behaviors
-		for (Behavior behavior : behaviorSet) {
-			clone.addBehavior(behavior.cloneForEntity(clone));
+		for (int i = 0; i < behaviors.size(); i++) {
+			clone.addBehavior(behaviors.get(i).cloneForEntity(clone));
 		}
 
 		// clone behaviors being added
-		for (Behavior behavior : pendingBehaviorsAddition) {
-			clone.addBehavior(behavior.cloneForEntity(clone));
+		for (int i = 0; i < pendingBehaviorsAddition.size(); i++) {
+			clone.addBehavior(pendingBehaviorsAddition.get(i).cloneForEntity(clone));
 		}
 
 		// clone behaviors
-		for (Behavior behavior : pendingBehaviorsRemoval) {
-			clone.removeBehavior(behavior.cloneForEntity(clone));
+		for (int i = 0; i < pendingBehaviorsRemoval.size(); i++) {
+			clone.removeBehavior(pendingBehaviorsRemoval.get(i).cloneForEntity(clone));
 		}
 
 	}
@@ -159,45 +178,34 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		effectiveForce.nullify();
 		steeringForce.nullify();
 
-		// if no movement needed, no update needed
-		for (Behavior behavior : behaviorSet) {
-
-			// if the behavior is a movement, use the generated steering force
-			if (behavior instanceof Movement) {
-				applySteeringForce(((Movement) behavior).getSteeringForce());
-			}
+		// movements contribute with their steering force
+		for (int i = 0; i < movements.size(); i++) {
+			applySteeringForce(movements.get(i).getSteeringForce());
+		}
 
-			// if the behavior is generating a force, we must apply it
-			if (behavior instanceof ForceGeneratingBehavior) {
-				effectiveForce.add(((ForceGeneratingBehavior) behavior).getNonSteeringForce());
-			}
+		// force generating behaviors contribute with a force that is not capped
+		for (int i = 0; i < forceGeneratingBehaviors.size(); i++) {
+			effectiveForce.add(forceGeneratingBehaviors.get(i).getNonSteeringForce());
 		}
 
 		// cap steeringForce to maximum steering force
 		steeringForce.truncate(getMaxSteeringForce());
 		effectiveForce.add(steeringForce);
 
-	}
-
-	private void computeSpeedAndPos() {
-		// real accel is necessary to calculate propulsors energy consumption
-		// it is the difference between the speed in the new cycle and
-		// the speed in the previous cycle
-		Vect3D realAccel = new Vect3D(speed);
-		speed.add(new Vect3D(effectiveForce).mult(1f / mass).mult(Model.getModel().getSecondsSinceLastUpdate())).truncate(maxSpeed);
-		realAccel.substract(speed);
-		realAccelModulus = realAccel.modulus();
-		pos.add(new Vect3D(speed).mult(Model.getModel().getSecondsSinceLastUpdate()));
+		kinematics.setForce(kinematicsSlot, effectiveForce.x, effectiveForce.y, effectiveForce.z);
 	}
 
 	/**
 	 * Adds orders.
 	 * The orders are effectively added at the end of the update cycle
 	 * once the current update cycle orders have been processed.
+	 * This method can be called concurrently by other entities during the decision phase.
 	 * @param order
 	 */
 	public final void fireEvent(Event order) {
-		newEventList.add(order);
+		synchronized (newEventList) {
+			newEventList.add(order);
+		}
 	}
 
 	protected BalancedAI getAI() {
@@ -205,8 +213,36 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		return null;
 	}
 
-	protected Set<Behavior> getBehaviors() {
-		return behaviorSet;
+	/**
+	 * @return the radius, around the render position, of the area drawn by the entity itself (behaviors excluded).
+	 */
+	protected abstract float getRenderRadius();
+
+	/**
+	 * @return the radius, around the render position, of the disc in which the entity can be picked at the current zoom.
+	 * 0 if the entity is not displayed at the current zoom.
+	 */
+	public abstract float getPickRadius();
+
+	/**
+	 * @return the active behaviors, in the order they were added, to be iterated by index. It must not be modified.
+	 */
+	public final BehaviorArray<Behavior> getBehaviors() {
+		return behaviors;
+	}
+
+	/**
+	 * @return the active behavior placing the entity, or null if the entity is integrated from the forces applied to it
+	 */
+	public final OnRails getOnRails() {
+		return onRails;
+	}
+
+	/**
+	 * @return the active behaviors that render something, to be iterated by index
+	 */
+	protected BehaviorArray<Renderable> getRenderableBehaviors() {
+		return renderableBehaviors;
 	}
 
 	public final float getDamage() {
@@ -217,17 +253,51 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		return deathListeners;
 	}
 
+	/**
+	 * @param result the vector to fill
+	 * @return the result, filled with the force applied to the entity during the current tick
+	 */
+	public final Vect3D getForce(Vect3D result) {
+		return result.copy(kinematics.getForceX(kinematicsSlot), kinematics.getForceY(kinematicsSlot), kinematics.getForceZ(kinematicsSlot));
+	}
+
 	public final float getHeading() {
 		return heading;
 	}
 
+	public final EntityDescriptor getDescriptor() {
+		return descriptor;
+	}
+
 	@Override
 	public final int getId() {
 		return id;
 	}
 
+	/**
+	 * Only meant to be called by the {@link EntityRegistry}.
+	 * @param id
+	 */
+	public final void setId(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * @return the store owning the kinematic state of the entity
+	 */
+	public final KinematicsStore getKinematics() {
+		return kinematics;
+	}
+
+	/**
+	 * @return the slot of the entity in its kinematics store
+	 */
+	public final int getKinematicsSlot() {
+		return kinematicsSlot;
+	}
+
 	public final float getMass() {
-		return mass;
+		return kinematics.getMass(kinematicsSlot);
 	}
 
 	public float getMaxHitPoints() {
@@ -235,7 +305,7 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 	}
 
 	public final float getMaxSpeed() {
-		return maxSpeed;
+		return kinematics.getMaxSpeed(kinematicsSlot);
 	}
 
 	public final float getMaxSteeringForce() {
@@ -249,12 +319,74 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		return player;
 	}
 
-	public final Vect3D getPos() {
-		return pos;
+	/**
+	 * @param result the vector to fill
+	 * @return the result, filled with the position of the entity
+	 */
+	public final Vect3D getPos(Vect3D result) {
+		return result.copy(kinematics.getPosX(kinematicsSlot), kinematics.getPosY(kinematicsSlot), kinematics.getPosZ(kinematicsSlot));
+	}
+
+	public final float getPosX() {
+		return kinematics.getPosX(kinematicsSlot);
+	}
+
+	public final float getPosY() {
+		return kinematics.getPosY(kinematicsSlot);
+	}
+
+	public final float getPosZ() {
+		return kinematics.getPosZ(kinematicsSlot);
+	}
+
+	/**
+	 * Real accel is necessary to calculate propulsors energy consumption.
+	 * @return the modulus of the difference between the speed after the last integration and the speed before
+	 */
+	public final float getRealAccelModulus() {
+		return kinematics.getRealAccelModulus(kinematicsSlot);
+	}
+
+	/**
+	 * The position at which the entity should be rendered.
+	 * It is interpolated between the positions of the last two simulation ticks
+	 * so that the movement stays smooth whatever the frame rate.
+	 * @return a vector reused from one call to the next, it should not be modified
+	 */
+	public final Vect3D getRenderPos() {
+		float alpha = Model.getModel().getInterpolationAlpha();
+		renderPos.copy(previousPos.x + (getPosX() - previousPos.x) * alpha,
+				previousPos.y + (getPosY() - previousPos.y) * alpha,
+				previousPos.z + (getPosZ() - previousPos.z) * alpha);
+		return renderPos;
 	}
 
-	public final Vect3D getSpeed() {
-		return speed;
+	public final long getSpatialGridCell() {
+		return spatialGridCell;
+	}
+
+	/**
+	 * @param result the vector to fill
+	 * @return the result, filled with the speed of the entity
+	 */
+	public final Vect3D getSpeed(Vect3D result) {
+		return result.copy(kinematics.getSpeedX(kinematicsSlot), kinematics.getSpeedY(kinematicsSlot), kinematics.getSpeedZ(kinematicsSlot));
+	}
+
+	public final float getSpeedX() {
+		return kinematics.getSpeedX(kinematicsSlot);
+	}
+
+	public final float getSpeedY() {
+		return kinematics.getSpeedY(kinematicsSlot);
+	}
+
+	public final float getSpeedZ() {
+		return kinematics.getSpeedZ(kinematicsSlot);
+	}
+
+	public final WorldArea getWorldArea() {
+		return worldArea;
 	}
 
 	/**
@@ -284,22 +416,51 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 			handleEvent(event);
 		}
 		eventList.clear();
-		eventList.addAll(newEventList);
-		newEventList.clear();
+		synchronized (newEventList) {
+			eventList.addAll(newEventList);
+			newEventList.clear();
+		}
 	}
 
+	/**
+	 * @param behaviorClass
+	 * @return true if one of the active behaviors is an instance of the given class
+	 */
 	public boolean hasBehaviorByClass(Class<?> behaviorClass) {
 		if (behaviorClass == null) {
 			LOGGER.error("This method parameter should not be null");
 		}
 
-		return CollectionUtils.countMatches(behaviorSet, new SameClassPredicate(behaviorClass)) > 0;
+		return (behaviorKinds & ClassDescriptors.getBehaviorKindsMask(behaviorClass)) != 0;
 	}
 
 	public final boolean isDead() {
 		return dead;
 	}
 
+	/**
+	 * Selected entities are always rendered, so that their orders are visible.
+	 * Otherwise, an entity is visible if its own drawing or one of its cullable behaviors is visible.
+	 */
+	@Override
+	public boolean isVisible(float[] worldBounds) {
+		if (selected) {
+			return true;
+		}
+
+		Vect3D renderPos = getRenderPos();
+		if (RenderUtils.isCircleVisible(renderPos.x, renderPos.y, getRenderRadius(), worldBounds)) {
+			return true;
+		}
+
+		for (int i = 0; i < cullableBehaviors.size(); i++) {
+			if (cullableBehaviors.get(i).isVisible(worldBounds)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public final boolean isSelected() {
 		return selected;
@@ -310,18 +471,60 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 				Model.getModel().getUiContext().isDebugMode() && Model.getModel().getUiContext().isDebugSelectViewMode();
 	}
 
+	/**
+	 * Rebuilds the kind bits and the categories of the active behaviors.
+	 */
+	private void indexBehaviors() {
+		behaviorKinds = 0;
+		movements.clear();
+		forceGeneratingBehaviors.clear();
+		renderableBehaviors.clear();
+		cullableBehaviors.clear();
+		onRails = null;
+
+		for (int i = 0; i < behaviors.size(); i++) {
+			Behavior behavior = behaviors.get(i);
+			BehaviorDescriptor behaviorDescriptor = ClassDescriptors.ofBehavior(behavior.getClass());
+			behaviorKinds |= behaviorDescriptor.getKindBit();
+			if (behaviorDescriptor.isMovement()) {
+				movements.add((Movement) behavior);
+			}
+			if (behaviorDescriptor.isForceGenerating()) {
+				forceGeneratingBehaviors.add((ForceGeneratingBehavior) behavior);
+			}
+			if (behaviorDescriptor.isRenderable()) {
+				renderableBehaviors.add((Renderable) behavior);
+			}
+			if (behaviorDescriptor.isCullable()) {
+				cullableBehaviors.add((Cullable) behavior);
+			}
+			if (behaviorDescriptor.isOnRails() && onRails == null) {
+				onRails = (OnRails) behavior;
+			}
+		}
+	}
+
 	public final void processPendingBehaviors() {
+		if (pendingBehaviorsRemoval.isEmpty() && pendingBehaviorsAddition.isEmpty()) {
+			return;
+		}
+
 		// Cleaning
-		for (Behavior behavior : pendingBehaviorsRemoval) {
-			behaviorSet.remove(behavior);
+		for (int i = 0; i < pendingBehaviorsRemoval.size(); i++) {
+			behaviors.remove(pendingBehaviorsRemoval.get(i));
 		}
 		pendingBehaviorsRemoval.clear();
 
 		// Executing pending behavior addition
-		for (Behavior behavior : pendingBehaviorsAddition) {
-			behaviorSet.add(behavior);
+		for (int i = 0; i < pendingBehaviorsAddition.size(); i++) {
+			Behavior behavior = pendingBehaviorsAddition.get(i);
+			if (!behaviors.contains(behavior)) {
+				behaviors.add(behavior);
+			}
 		}
 		pendingBehaviorsAddition.clear();
+
+		indexBehaviors();
 	}
 
 	/**
@@ -331,7 +534,9 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 	 * @param behavior to remove
 	 */
 	public final void removeBehavior(Behavior behavior) {
-		pendingBehaviorsRemoval.add(behavior);
+		if (!pendingBehaviorsRemoval.contains(behavior)) {
+			pendingBehaviorsRemoval.add(behavior);
+		}
 	}
 
 	/**
@@ -344,14 +549,24 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 			LOGGER.error("This method parameter should not be null");
 		}
 
+		long kindsMask = ClassDescriptors.getBehaviorKindsMask(behaviorClass);
+
 		// Remove active behaviors
-		CollectionUtils.select(behaviorSet, new SameClassPredicate(behaviorClass), pendingBehaviorsRemoval);
+		if ((behaviorKinds & kindsMask) != 0) {
+			for (int i = 0; i < behaviors.size(); i++) {
+				Behavior behavior = behaviors.get(i);
+				if ((ClassDescriptors.ofBehavior(behavior.getClass()).getKindBit() & kindsMask) != 0) {
+					removeBehavior(behavior);
+				}
+			}
+		}
 
 		// Remove behaviors that were added in the current iteration
-		Set<Behavior> tempSet = new HashSet<>();
-		CollectionUtils.selectRejected(pendingBehaviorsAddition, new SameClassPredicate(behaviorClass), tempSet);
-		pendingBehaviorsAddition.clear();
-		pendingBehaviorsAddition.addAll(tempSet);
+		for (int i = pendingBehaviorsAddition.size() - 1; i >= 0; i--) {
+			if ((ClassDescriptors.ofBehavior(pendingBehaviorsAddition.get(i).getClass()).getKindBit() & kindsMask) != 0) {
+				pendingBehaviorsAddition.removeAt(i);
+			}
+		}
 	}
 
 	/**
@@ -361,6 +576,15 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		deathListeners.remove(deathListener);
 	}
 
+	/**
+	 * Renders what is drawn over the body of the entity, such as gauges or debug information.
+	 * Since the body may only be queued in the sprite batch by {@link #render(int)}, the overlays are rendered
+	 * in a separate pass, once the sprite batch has been flushed. This renders nothing by default.
+	 * @param glMode {@link GL11#GL_RENDER} or {@link GL11#GL_SELECT}
+	 */
+	public void renderOverlay(int glMode) {
+	}
+
 	public final void setDamage(float damage) {
 		this.damage = damage;
 	}
@@ -373,14 +597,121 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 		this.heading = heading;
 	}
 
+	/**
+	 * Only meant to be called by the {@link KinematicsStore}.
+	 * @param kinematics the store owning the kinematic state of the entity
+	 * @param kinematicsSlot the slot of the entity in this store
+	 */
+	public final void setKinematics(KinematicsStore kinematics, int kinematicsSlot) {
+		this.kinematics = kinematics;
+		this.kinematicsSlot = kinematicsSlot;
+	}
+
+	protected final void setMass(float mass) {
+		kinematics.setMass(kinematicsSlot, mass);
+	}
+
+	protected final void setMaxSpeed(float maxSpeed) {
+		kinematics.setMaxSpeed(kinematicsSlot, maxSpeed);
+	}
+
+	public final void setPos(float x, float y, float z) {
+		kinematics.setPos(kinematicsSlot, x, y, z);
+	}
+
+	public final void setPos(Vect3D pos) {
+		kinematics.setPos(kinematicsSlot, pos.x, pos.y, pos.z);
+	}
+
+	public final void setSpatialGridCell(long spatialGridCell) {
+		this.spatialGridCell = spatialGridCell;
+	}
+
+	public final void setSpeed(float x, float y, float z) {
+		kinematics.setSpeed(kinematicsSlot, x, y, z);
+	}
+
+	public final void setSpeed(Vect3D speed) {
+		kinematics.setSpeed(kinematicsSlot, speed.x, speed.y, speed.z);
+	}
+
+	public final void setWorldArea(WorldArea worldArea) {
+		this.worldArea = worldArea;
+	}
+
 	@Override
 	public final void setSelected(boolean selected) {
 		this.selected = selected;
 	}
 
+	/**
+	 * Stores the current position as the position at the beginning of the simulation tick.
+	 */
+	public final void storePreviousPos() {
+		previousPos.copy(getPosX(), getPosY(), getPosZ());
+	}
+
+	/**
+	 * Second phase of the update : applies the forces computed during {@link #updateDecisions()},
+	 * then handles the events received.
+	 * This phase only modifies the state of the entity itself.
+	 */
+	public void commitUpdate() {
+		if (onRails == null) {
+			kinematics.integrate(kinematicsSlot, kinematicsSlot + 1, Model.getModel().getSecondsSinceLastUpdate());
+		}
+		completeUpdate();
+	}
+
+	/**
+	 * Last part of {@link #commitUpdate()}, once the entity has been integrated : places the entity if it is on rails,
+	 * handles the events received and updates the trail.
+	 * The entities integrated in batch by their {@link KinematicsStore} only run this part.
+	 */
+	public final void completeUpdate() {
+		if (onRails != null) {
+			onRails.getPositionAndSpeed(Model.getModel().getSimulationTime(), railsPos, railsSpeed);
+			setPos(railsPos);
+			setSpeed(railsSpeed);
+		}
+
+		// Handle orders
+		handleEvents();
+
+		// update trail
+		updateTrail();
+	}
+
 	// FIXME
 	@Override
 	public void update() {
+		updateDecisions();
+		commitUpdate();
+	}
+
+	/**
+	 * First phase of the update : runs the AI and the behaviors and computes the resulting forces.
+	 * This phase reads the state of the other entities but only modifies the state of the entity itself,
+	 * except for the events fired at other entities.
+	 * Therefore, as long as no entity is in its commit phase, several entities can run this phase concurrently.
+	 */
+	public void updateDecisions() {
+		runAI();
+
+		// Update behaviors
+		for (int i = 0; i < behaviors.size(); i++) {
+			Behavior behavior = behaviors.get(i);
+			behavior.run();
+			behavior.computeXpContribution();
+		}
+
+		completeDecisions();
+	}
+
+	/**
+	 * Runs the AI of the entity, if any. This is the first part of {@link #updateDecisions()}.
+	 */
+	public final void runAI() {
 		// handle AI assignements if appropriate
 		// TODO This is not implemented so far, and this probably is not the best way to handle it
 		if (player.getPlayerType() == PlayerType.AI) {
@@ -389,22 +720,17 @@ public abstract class Entity implements Renderable, Selectable, Updatable {
 				getAI().run();
 			}
 		}
+	}
 
-		// Update behaviors
-		for (Behavior behavior : behaviorSet) {
-			behavior.run();
-			behavior.computeXpContribution();
+	/**
+	 * Last part of {@link #updateDecisions()}, once the behaviors have run : computes the resulting forces and orientation.
+	 */
+	public final void completeDecisions() {
+		// the entities on rails are not integrated
+		if (onRails == null) {
+			computeForcesFromBehavior();
 		}
-
-		computeForcesFromBehavior();
 		autoRotate();
-		computeSpeedAndPos();
-
-		// Handle orders
-		handleEvents();
-
-		// update trail
-		updateTrail();
 	}
 
 	protected void updateTrail() {
@@ -10,6 +10,13 @@ public @interface EntityHints {
 
 	EntityType entityType();
 
+	/**
+	 * If true, the update of the entities of this class is split in a decision phase and a commit phase
+	 * which can both be run in parallel with other entities of any class with the same hint.
+	 * See {@link Entity#updateDecisions()} and {@link Entity#commitUpdate()}.
+	 */
+	boolean parallelUpdate() default false;
+
 	boolean selectable() default true;
 
 }
@@ -0,0 +1,139 @@
+package net.carmgate.morph.model.physics;
+
+import java.util.Arrays;
+
+import net.carmgate.morph.model.Constants;
+
+/**
+ * Structure of arrays holding the bodies attracting the entities, as seen by the {@link GravitySolver}s.
+ * Only the stars give energy and kill the entities entering them : the other bodies have no energy flow and no killing radius.
+ */
+public class Attractors {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int size;
+	private float[] x = new float[INITIAL_CAPACITY];
+	private float[] y = new float[INITIAL_CAPACITY];
+	/** G times the mass of the body. */
+	private float[] gm = new float[INITIAL_CAPACITY];
+	private float[] energyFlow = new float[INITIAL_CAPACITY];
+	private float[] killingRadius = new float[INITIAL_CAPACITY];
+
+	/**
+	 * @param bodyX
+	 * @param bodyY
+	 * @param mass
+	 * @param bodyEnergyFlow the energy received per second by an entity at a distance of 1 is this value times the square root of its mass
+	 * @param bodyKillingRadius
+	 */
+	public void add(float bodyX, float bodyY, float mass, float bodyEnergyFlow, float bodyKillingRadius) {
+		if (size == x.length) {
+			int capacity = size * 2;
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			gm = Arrays.copyOf(gm, capacity);
+			energyFlow = Arrays.copyOf(energyFlow, capacity);
+			killingRadius = Arrays.copyOf(killingRadius, capacity);
+		}
+		x[size] = bodyX;
+		y[size] = bodyY;
+		gm[size] = (float) (Constants.SIMPLE_G * mass);
+		energyFlow[size] = bodyEnergyFlow;
+		killingRadius[size] = bodyKillingRadius;
+		size++;
+	}
+
+	/**
+	 * Adds the contribution of the i-th body to the sample.
+	 */
+	void addContribution(int i, float sampleX, float sampleY, GravitySample sample) {
+		float dx = x[i] - sampleX;
+		float dy = y[i] - sampleY;
+		sample.add(dx, dy, gm[i], energyFlow[i]);
+		if (dx * dx + dy * dy < killingRadius[i] * killingRadius[i]) {
+			sample.setKilling();
+		}
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Replaces the bodies with the ones of the given attractors.
+	 * @param attractors
+	 */
+	void copy(Attractors attractors) {
+		clear();
+		for (int i = 0; i < attractors.size; i++) {
+			if (size == x.length) {
+				x = Arrays.copyOf(x, size * 2);
+				y = Arrays.copyOf(y, size * 2);
+				gm = Arrays.copyOf(gm, size * 2);
+				energyFlow = Arrays.copyOf(energyFlow, size * 2);
+				killingRadius = Arrays.copyOf(killingRadius, size * 2);
+			}
+			x[size] = attractors.x[i];
+			y[size] = attractors.y[i];
+			gm[size] = attractors.gm[i];
+			energyFlow[size] = attractors.energyFlow[i];
+			killingRadius[size] = attractors.killingRadius[i];
+			size++;
+		}
+	}
+
+	float getEnergyFlow(int i) {
+		return energyFlow[i];
+	}
+
+	float getGM(int i) {
+		return gm[i];
+	}
+
+	float getKillingRadius(int i) {
+		return killingRadius[i];
+	}
+
+	float getX(int i) {
+		return x[i];
+	}
+
+	float getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * @param attractors
+	 * @return true if both hold the same bodies in the same order
+	 */
+	boolean sameAs(Attractors attractors) {
+		if (size != attractors.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (x[i] != attractors.x[i] || y[i] != attractors.y[i] || gm[i] != attractors.gm[i] || energyFlow[i] != attractors.energyFlow[i]
+					|| killingRadius[i] != attractors.killingRadius[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sums the contributions of all the bodies.
+	 * @param sampleX
+	 * @param sampleY
+	 * @param sample the result holder
+	 */
+	void sumAt(float sampleX, float sampleY, GravitySample sample) {
+		sample.clear();
+		for (int i = 0; i < size; i++) {
+			addContribution(i, sampleX, sampleY, sample);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package net.carmgate.morph.model.physics;
+
+import java.util.Arrays;
+
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.WorldArea;
+
+/**
+ * Barnes-Hut approximation of the field : the attractors are grouped in a quadtree aligned on the {@link WorldArea} cells,
+ * and a cell far enough from the sampled position contributes as a single body at its center of mass.
+ * A cell is far enough if its width divided by its distance to the position is under the opening angle.
+ * Cells containing the position or closer to it than the killing radius of one of their stars are always opened.
+ * The attractors of a level 0 cell are summed one by one.
+ * The quadtree is rebuilt on each update in O(n log n) and each sample costs O(log n).
+ * The attractors outside of the root world area are summed one by one for each sample.
+ */
+public class BarnesHutGravitySolver implements GravitySolver {
+
+	private static final int NONE = -1;
+
+	private final int rootLevel;
+	private final float rootHalfWidth;
+	private final float openingAngleSquared;
+
+	private Attractors attractors = new Attractors();
+
+	// the cells, the root cell is the cell 0
+	private int cellCount;
+	private int[] cellLevel = new int[64];
+	private float[] cellCenterX = new float[64];
+	private float[] cellCenterY = new float[64];
+	/** 4 children per cell : 0 for (-x, -y), 1 for (+x, -y), 2 for (-x, +y), 3 for (+x, +y). */
+	private int[] cellChildren = new int[256];
+	private float[] cellGM = new float[64];
+	/** Sums of the positions weighted by GM during the build, then centers of mass. */
+	private float[] cellComX = new float[64];
+	private float[] cellComY = new float[64];
+	private float[] cellEnergyFlow = new float[64];
+	private float[] cellMaxKillingRadius = new float[64];
+	/** The first attractor of the level 0 cells, the next ones are chained by {@link #nextAttractor}. */
+	private int[] cellFirstAttractor = new int[64];
+
+	private int[] nextAttractor = new int[16];
+	/** The attractors outside of the root cell, chained by {@link #nextAttractor}. */
+	private int firstOutsideAttractor;
+
+	/**
+	 * @param rootLevel the level of the root world area
+	 * @param openingAngle the maximum ratio between the width of a cell and its distance to be approximated by its center of mass
+	 */
+	public BarnesHutGravitySolver(int rootLevel, float openingAngle) {
+		this.rootLevel = rootLevel;
+		rootHalfWidth = (float) WorldArea.LEAF_WIDTH * (1 << rootLevel) / 2;
+		openingAngleSquared = openingAngle * openingAngle;
+	}
+
+	/**
+	 * Adds the contribution of the cell and its descendants.
+	 */
+	private void accumulate(int cell, float x, float y, GravitySample sample) {
+		if (cellLevel[cell] == 0) {
+			for (int i = cellFirstAttractor[cell]; i != NONE; i = nextAttractor[i]) {
+				attractors.addContribution(i, x, y, sample);
+			}
+			return;
+		}
+
+		float halfWidth = (float) WorldArea.LEAF_WIDTH * (1 << cellLevel[cell]) / 2;
+		float outsideX = Math.max(Math.abs(x - cellCenterX[cell]) - halfWidth, 0);
+		float outsideY = Math.max(Math.abs(y - cellCenterY[cell]) - halfWidth, 0);
+		float boundsDistanceSquared = outsideX * outsideX + outsideY * outsideY;
+		float dx = cellComX[cell] - x;
+		float dy = cellComY[cell] - y;
+		float width = 2 * halfWidth;
+		if (boundsDistanceSquared > 0 && width * width < openingAngleSquared * (dx * dx + dy * dy)
+				&& boundsDistanceSquared > cellMaxKillingRadius[cell] * cellMaxKillingRadius[cell]) {
+			sample.add(dx, dy, cellGM[cell], cellEnergyFlow[cell]);
+			return;
+		}
+
+		for (int quadrant = 0; quadrant < 4; quadrant++) {
+			int child = cellChildren[cell * 4 + quadrant];
+			if (child != NONE) {
+				accumulate(child, x, y, sample);
+			}
+		}
+	}
+
+	private int addCell(int level, float centerX, float centerY) {
+		if (cellCount == cellLevel.length) {
+			int capacity = cellCount * 2;
+			cellLevel = Arrays.copyOf(cellLevel, capacity);
+			cellCenterX = Arrays.copyOf(cellCenterX, capacity);
+			cellCenterY = Arrays.copyOf(cellCenterY, capacity);
+			cellChildren = Arrays.copyOf(cellChildren, capacity * 4);
+			cellGM = Arrays.copyOf(cellGM, capacity);
+			cellComX = Arrays.copyOf(cellComX, capacity);
+			cellComY = Arrays.copyOf(cellComY, capacity);
+			cellEnergyFlow = Arrays.copyOf(cellEnergyFlow, capacity);
+			cellMaxKillingRadius = Arrays.copyOf(cellMaxKillingRadius, capacity);
+			cellFirstAttractor = Arrays.copyOf(cellFirstAttractor, capacity);
+		}
+
+		int cell = cellCount++;
+		cellLevel[cell] = level;
+		cellCenterX[cell] = centerX;
+		cellCenterY[cell] = centerY;
+		Arrays.fill(cellChildren, cell * 4, cell * 4 + 4, NONE);
+		cellGM[cell] = 0;
+		cellComX[cell] = 0;
+		cellComY[cell] = 0;
+		cellEnergyFlow[cell] = 0;
+		cellMaxKillingRadius[cell] = 0;
+		cellFirstAttractor[cell] = NONE;
+		return cell;
+	}
+
+	/**
+	 * @return the number of cells of the quadtree, for diagnostic purposes
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	private void insert(int i) {
+		float x = attractors.getX(i);
+		float y = attractors.getY(i);
+		if (Math.abs(x) > rootHalfWidth || Math.abs(y) > rootHalfWidth) {
+			nextAttractor[i] = firstOutsideAttractor;
+			firstOutsideAttractor = i;
+			return;
+		}
+
+		int cell = 0;
+		while (true) {
+			float gm = attractors.getGM(i);
+			cellGM[cell] += gm;
+			cellComX[cell] += x * gm;
+			cellComY[cell] += y * gm;
+			cellEnergyFlow[cell] += attractors.getEnergyFlow(i);
+			cellMaxKillingRadius[cell] = Math.max(cellMaxKillingRadius[cell], attractors.getKillingRadius(i));
+
+			int level = cellLevel[cell];
+			if (level == 0) {
+				nextAttractor[i] = cellFirstAttractor[cell];
+				cellFirstAttractor[cell] = i;
+				return;
+			}
+
+			int quadrant = (x >= cellCenterX[cell] ? 1 : 0) | (y >= cellCenterY[cell] ? 2 : 0);
+			int child = cellChildren[cell * 4 + quadrant];
+			if (child == NONE) {
+				float childHalfWidth = (float) WorldArea.LEAF_WIDTH * (1 << level - 1) / 2;
+				child = addCell(level - 1, cellCenterX[cell] + ((quadrant & 1) == 0 ? -childHalfWidth : childHalfWidth),
+						cellCenterY[cell] + ((quadrant & 2) == 0 ? -childHalfWidth : childHalfWidth));
+				cellChildren[cell * 4 + quadrant] = child;
+			}
+			cell = child;
+		}
+	}
+
+	@Override
+	public GravitySample sample(Vect3D pos, GravitySample sample) {
+		sample.clear();
+		if (attractors.size() > 0) {
+			accumulate(0, pos.x, pos.y, sample);
+		}
+		for (int i = firstOutsideAttractor; i != NONE; i = nextAttractor[i]) {
+			attractors.addContribution(i, pos.x, pos.y, sample);
+		}
+		return sample;
+	}
+
+	@Override
+	public void update(Attractors newAttractors) {
+		attractors = newAttractors;
+		if (nextAttractor.length < attractors.size()) {
+			nextAttractor = new int[attractors.size() * 2];
+		}
+
+		cellCount = 0;
+		firstOutsideAttractor = NONE;
+		addCell(rootLevel, 0, 0);
+		for (int i = 0; i < attractors.size(); i++) {
+			insert(i);
+		}
+
+		// centers of mass
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (cellGM[cell] > 0) {
+				cellComX[cell] /= cellGM[cell];
+				cellComY[cell] /= cellGM[cell];
+			} else {
+				cellComX[cell] = cellCenterX[cell];
+				cellComY[cell] = cellCenterY[cell];
+			}
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package net.carmgate.morph.model.physics;
+
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * Sums the contributions of all the attractors for each sample.
+ * This is exact but costs O(n) per sample : use it as a reference to check the other solvers.
+ */
+public class DirectSumGravitySolver implements GravitySolver {
+
+	private Attractors attractors = new Attractors();
+
+	@Override
+	public GravitySample sample(Vect3D pos, GravitySample sample) {
+		attractors.sumAt(pos.x, pos.y, sample);
+		return sample;
+	}
+
+	@Override
+	public void update(Attractors newAttractors) {
+		attractors = newAttractors;
+	}
+}
@@ -0,0 +1,185 @@
+package net.carmgate.morph.model.physics;
+
+import java.util.Arrays;
+
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.WorldArea;
+
+/**
+ * Gravity and energy field of the attractors, precomputed over the cells of the {@link WorldArea} quadtree.
+ * A cell is split until it is at least <i>resolution</i> times its own width away from every attractor.
+ * The field is sampled at the corners of the resulting cells and bilinearly interpolated in between.
+ * Since the gravity decreases as the square of the distance, the relative error is about 0.75 / resolution².
+ * The field is evaluated exactly from each attractor in the leaves that are still too close to an attractor,
+ * in the ones intersecting a killing radius and outside of the root world area.
+ * 
+ * This is meant for static attractors, such as the stars : the field is only rebuilt when the attractors given to
+ * {@link #update(Attractors)} differ from the previous ones.
+ */
+public class GravityField implements GravitySolver {
+
+	private static final int INNER = -1;
+	private static final int EXACT = -2;
+	/** ax, ay and energy flow at the 4 corners of a cell : (minX, minY), (maxX, minY), (minX, maxY), (maxX, maxY). */
+	private static final int SAMPLES_PER_CELL = 12;
+
+	private final int rootLevel;
+	private final float rootHalfWidth;
+	private final float resolution;
+
+	/** The attractors the field was built from. */
+	private final Attractors attractors = new Attractors();
+
+	// the cells, as a quadtree stored in arrays. The root cell is the cell 0.
+	private int cellCount;
+	/** The sample offset of the leaves, or {@link #INNER} or {@link #EXACT}. */
+	private int[] cellSamples = new int[64];
+	/** 4 children per inner cell : 0 for (-x, -y), 1 for (+x, -y), 2 for (-x, +y), 3 for (+x, +y). */
+	private int[] cellChildren = new int[256];
+	private int sampleCount;
+	private float[] samples = new float[64 * SAMPLES_PER_CELL];
+
+	/**
+	 * @param rootLevel the level of the root world area
+	 * @param resolution the minimum ratio between the distance of a cell to the stars and its width
+	 */
+	public GravityField(int rootLevel, float resolution) {
+		this.rootLevel = rootLevel;
+		rootHalfWidth = (float) WorldArea.LEAF_WIDTH * (1 << rootLevel) / 2;
+		this.resolution = resolution;
+	}
+
+	private int addCell() {
+		if (cellCount == cellSamples.length) {
+			cellSamples = Arrays.copyOf(cellSamples, cellCount * 2);
+			cellChildren = Arrays.copyOf(cellChildren, cellCount * 2 * 4);
+		}
+		return cellCount++;
+	}
+
+	/**
+	 * Splits the cell as long as needed.
+	 * @return the index of the cell
+	 */
+	private int build(int level, float centerX, float centerY, float halfWidth) {
+		int cell = addCell();
+
+		// distance from the cell to the closest attractor and killing radii
+		boolean tooClose = false;
+		for (int i = 0; i < attractors.size() && !tooClose; i++) {
+			float dx = Math.max(Math.abs(attractors.getX(i) - centerX) - halfWidth, 0);
+			float dy = Math.max(Math.abs(attractors.getY(i) - centerY) - halfWidth, 0);
+			float distance = (float) Math.sqrt(dx * dx + dy * dy);
+			tooClose = distance < resolution * 2 * halfWidth || distance <= attractors.getKillingRadius(i);
+		}
+
+		if (!tooClose) {
+			cellSamples[cell] = addSamples(centerX, centerY, halfWidth);
+		} else if (level == 0) {
+			cellSamples[cell] = EXACT;
+		} else {
+			cellSamples[cell] = INNER;
+			float childHalfWidth = halfWidth / 2;
+			for (int quadrant = 0; quadrant < 4; quadrant++) {
+				float childCenterX = centerX + ((quadrant & 1) == 0 ? -childHalfWidth : childHalfWidth);
+				float childCenterY = centerY + ((quadrant & 2) == 0 ? -childHalfWidth : childHalfWidth);
+				int child = build(level - 1, childCenterX, childCenterY, childHalfWidth);
+				cellChildren[cell * 4 + quadrant] = child;
+			}
+		}
+		return cell;
+	}
+
+	private int addSamples(float centerX, float centerY, float halfWidth) {
+		if ((sampleCount + 1) * SAMPLES_PER_CELL > samples.length) {
+			samples = Arrays.copyOf(samples, samples.length * 2);
+		}
+
+		int offset = sampleCount * SAMPLES_PER_CELL;
+		GravitySample sample = new GravitySample();
+		for (int corner = 0; corner < 4; corner++) {
+			float x = centerX + ((corner & 1) == 0 ? -halfWidth : halfWidth);
+			float y = centerY + ((corner & 2) == 0 ? -halfWidth : halfWidth);
+			attractors.sumAt(x, y, sample);
+			samples[offset + corner] = sample.getAccelerationX();
+			samples[offset + 4 + corner] = sample.getAccelerationY();
+			samples[offset + 8 + corner] = sample.getEnergyFlow();
+		}
+		sampleCount++;
+		return offset;
+	}
+
+	/**
+	 * @return the number of cells of the field, for diagnostic purposes
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	@Override
+	public GravitySample sample(Vect3D pos, GravitySample sample) {
+		float x = pos.x;
+		float y = pos.y;
+		if (cellCount == 0 || Math.abs(x) > rootHalfWidth || Math.abs(y) > rootHalfWidth) {
+			attractors.sumAt(x, y, sample);
+			return sample;
+		}
+
+		// find the leaf containing the position
+		int cell = 0;
+		float centerX = 0;
+		float centerY = 0;
+		float halfWidth = rootHalfWidth;
+		while (cellSamples[cell] == INNER) {
+			halfWidth /= 2;
+			int quadrant = 0;
+			if (x >= centerX) {
+				quadrant |= 1;
+				centerX += halfWidth;
+			} else {
+				centerX -= halfWidth;
+			}
+			if (y >= centerY) {
+				quadrant |= 2;
+				centerY += halfWidth;
+			} else {
+				centerY -= halfWidth;
+			}
+			cell = cellChildren[cell * 4 + quadrant];
+		}
+
+		int offset = cellSamples[cell];
+		if (offset == EXACT) {
+			attractors.sumAt(x, y, sample);
+			return sample;
+		}
+
+		// bilinear interpolation between the corners
+		float tx = (x - centerX + halfWidth) / (2 * halfWidth);
+		float ty = (y - centerY + halfWidth) / (2 * halfWidth);
+		float w0 = (1 - tx) * (1 - ty);
+		float w1 = tx * (1 - ty);
+		float w2 = (1 - tx) * ty;
+		float w3 = tx * ty;
+		sample.set(w0 * samples[offset] + w1 * samples[offset + 1] + w2 * samples[offset + 2] + w3 * samples[offset + 3],
+				w0 * samples[offset + 4] + w1 * samples[offset + 5] + w2 * samples[offset + 6] + w3 * samples[offset + 7],
+				w0 * samples[offset + 8] + w1 * samples[offset + 9] + w2 * samples[offset + 10] + w3 * samples[offset + 11],
+				false);
+		return sample;
+	}
+
+	/**
+	 * Rebuilds the field if the attractors changed since last time.
+	 */
+	@Override
+	public void update(Attractors newAttractors) {
+		if (cellCount > 0 && attractors.sameAs(newAttractors)) {
+			return;
+		}
+		attractors.copy(newAttractors);
+
+		cellCount = 0;
+		sampleCount = 0;
+		build(rootLevel, 0, 0, rootHalfWidth);
+	}
+}
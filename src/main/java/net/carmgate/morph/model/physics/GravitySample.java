@@ -0,0 +1,79 @@
+package net.carmgate.morph.model.physics;
+
+/**
+ * Holds the gravity and energy field at a given position, as computed by a {@link GravitySolver}.
+ * Instances are meant to be kept by the caller and reused from one sample to the next.
+ */
+public class GravitySample {
+	private float accelerationX;
+	private float accelerationY;
+	private float energyFlow;
+	private boolean killing;
+
+	/**
+	 * Adds the contribution of a body.
+	 * @param dx x of the body relative to the sampled position
+	 * @param dy y of the body relative to the sampled position
+	 * @param gm G times the mass of the body
+	 * @param bodyEnergyFlow the energy flow of the body
+	 */
+	void add(float dx, float dy, float gm, float bodyEnergyFlow) {
+		float distanceSquared = dx * dx + dy * dy;
+		if (distanceSquared == 0) {
+			// a body does not attract itself
+			return;
+		}
+
+		float distance = (float) Math.sqrt(distanceSquared);
+		float acceleration = gm / distanceSquared;
+		accelerationX += dx / distance * acceleration;
+		accelerationY += dy / distance * acceleration;
+		energyFlow += bodyEnergyFlow / distance;
+	}
+
+	void clear() {
+		accelerationX = 0;
+		accelerationY = 0;
+		energyFlow = 0;
+		killing = false;
+	}
+
+	/**
+	 * @return the gravity force per mass unit along x
+	 */
+	public float getAccelerationX() {
+		return accelerationX;
+	}
+
+	/**
+	 * @return the gravity force per mass unit along y
+	 */
+	public float getAccelerationY() {
+		return accelerationY;
+	}
+
+	/**
+	 * @return the energy received from the stars per second and per square root of mass unit
+	 */
+	public float getEnergyFlow() {
+		return energyFlow;
+	}
+
+	/**
+	 * @return true if the position is within the killing radius of a star
+	 */
+	public boolean isKilling() {
+		return killing;
+	}
+
+	void set(float accelerationX, float accelerationY, float energyFlow, boolean killing) {
+		this.accelerationX = accelerationX;
+		this.accelerationY = accelerationY;
+		this.energyFlow = energyFlow;
+		this.killing = killing;
+	}
+
+	void setKilling() {
+		killing = true;
+	}
+}
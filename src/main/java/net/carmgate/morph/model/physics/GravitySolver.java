@@ -0,0 +1,33 @@
+package net.carmgate.morph.model.physics;
+
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * Computes the gravity and energy field generated by the {@link Attractors}.
+ * The solver is updated once per tick, then sampled concurrently by the entities.
+ */
+public interface GravitySolver {
+
+	public static enum Type {
+		/** {@link GravityField} : precomputed, only fit for static attractors. */
+		FIELD,
+		/** {@link BarnesHutGravitySolver} : O(log n) per sample. */
+		BARNES_HUT,
+		/** {@link DirectSumGravitySolver} : exact and O(n) per sample, the reference for accuracy tests. */
+		DIRECT_SUM;
+	}
+
+	/**
+	 * Samples the field at the given position (z is ignored).
+	 * @param pos
+	 * @param sample the result holder
+	 * @return the result holder
+	 */
+	GravitySample sample(Vect3D pos, GravitySample sample);
+
+	/**
+	 * Prepares the solver for the next samples. This must not be called while the solver is sampled.
+	 * @param attractors the bodies of the world. They are not modified until the next update.
+	 */
+	void update(Attractors attractors);
+}
@@ -0,0 +1,277 @@
+package net.carmgate.morph.model.physics;
+
+import net.carmgate.morph.model.entities.common.Entity;
+
+/**
+ * Structure of arrays owning the kinematic state of entities : position, speed, force, mass and max speed.
+ * Each entity belongs to a single store, in which it owns a slot. The accessors of the entity
+ * (see {@link Entity#getPosX()} for instance) read and write the arrays of its store, there is no other copy of this state.
+ * 
+ * A new entity gets a store of its own. The model moves the entities it updates in parallel into a shared store,
+ * so that they are integrated in batch by {@link #integrate(int, int, float)}, and moves them back to a store
+ * of their own when they are removed from the world.
+ * The slots are kept contiguous : when an entity leaves a store, the entity in the last slot is moved to the freed one.
+ * 
+ * <b>This class is not thread safe</b> : entities must not join or leave a store while it is read or integrated.
+ * However, disjoint slot ranges can be read, written and integrated concurrently.
+ */
+public class KinematicsStore {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private Entity[] entities;
+	private float[] posX;
+	private float[] posY;
+	private float[] posZ;
+	private float[] speedX;
+	private float[] speedY;
+	private float[] speedZ;
+	private float[] forceX;
+	private float[] forceY;
+	private float[] forceZ;
+	private float[] mass;
+	private float[] maxSpeed;
+	/** Modulus of the speed variation during the last integration. */
+	private float[] realAccelModulus;
+
+	private int size;
+
+	public KinematicsStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity the number of slots initially allocated, the store grows when needed
+	 */
+	public KinematicsStore(int capacity) {
+		allocate(capacity);
+	}
+
+	/**
+	 * Gives a slot to the entity. The kinematic state of the slot is zeroed.
+	 * The entity must not belong to another store, see {@link #moveTo(int, KinematicsStore)}.
+	 * @param entity
+	 */
+	public void add(Entity entity) {
+		if (size == entities.length) {
+			allocate(size * 2);
+		}
+
+		int slot = size++;
+		entities[slot] = entity;
+		posX[slot] = posY[slot] = posZ[slot] = 0;
+		speedX[slot] = speedY[slot] = speedZ[slot] = 0;
+		forceX[slot] = forceY[slot] = forceZ[slot] = 0;
+		mass[slot] = maxSpeed[slot] = realAccelModulus[slot] = 0;
+		entity.setKinematics(this, slot);
+	}
+
+	private void allocate(int capacity) {
+		entities = copy(entities, capacity);
+		posX = copy(posX, capacity);
+		posY = copy(posY, capacity);
+		posZ = copy(posZ, capacity);
+		speedX = copy(speedX, capacity);
+		speedY = copy(speedY, capacity);
+		speedZ = copy(speedZ, capacity);
+		forceX = copy(forceX, capacity);
+		forceY = copy(forceY, capacity);
+		forceZ = copy(forceZ, capacity);
+		mass = copy(mass, capacity);
+		maxSpeed = copy(maxSpeed, capacity);
+		realAccelModulus = copy(realAccelModulus, capacity);
+	}
+
+	private Entity[] copy(Entity[] array, int capacity) {
+		Entity[] newArray = new Entity[capacity];
+		if (array != null) {
+			System.arraycopy(array, 0, newArray, 0, size);
+		}
+		return newArray;
+	}
+
+	private float[] copy(float[] array, int capacity) {
+		float[] newArray = new float[capacity];
+		if (array != null) {
+			System.arraycopy(array, 0, newArray, 0, size);
+		}
+		return newArray;
+	}
+
+	/**
+	 * @param slot
+	 * @return the entity owning the slot
+	 */
+	public Entity getEntity(int slot) {
+		return entities[slot];
+	}
+
+	public float getForceX(int slot) {
+		return forceX[slot];
+	}
+
+	public float getForceY(int slot) {
+		return forceY[slot];
+	}
+
+	public float getForceZ(int slot) {
+		return forceZ[slot];
+	}
+
+	public float getMass(int slot) {
+		return mass[slot];
+	}
+
+	public float getMaxSpeed(int slot) {
+		return maxSpeed[slot];
+	}
+
+	public float getPosX(int slot) {
+		return posX[slot];
+	}
+
+	public float getPosY(int slot) {
+		return posY[slot];
+	}
+
+	public float getPosZ(int slot) {
+		return posZ[slot];
+	}
+
+	/**
+	 * @param slot
+	 * @return the modulus of the speed variation during the last integration of the slot
+	 */
+	public float getRealAccelModulus(int slot) {
+		return realAccelModulus[slot];
+	}
+
+	public float getSpeedX(int slot) {
+		return speedX[slot];
+	}
+
+	public float getSpeedY(int slot) {
+		return speedY[slot];
+	}
+
+	public float getSpeedZ(int slot) {
+		return speedZ[slot];
+	}
+
+	/**
+	 * Integrates the slots of the given range over the given duration : the force changes the speed, which changes the position.
+	 * The speed is capped to the max speed of each slot.
+	 * @param from first slot (inclusive)
+	 * @param to last slot (exclusive)
+	 * @param seconds duration of the integration step
+	 */
+	public void integrate(int from, int to, float seconds) {
+		for (int i = from; i < to; i++) {
+			float factor = seconds / mass[i];
+			float newSpeedX = speedX[i] + forceX[i] * factor;
+			float newSpeedY = speedY[i] + forceY[i] * factor;
+			float newSpeedZ = speedZ[i] + forceZ[i] * factor;
+
+			float speedModulusSquared = newSpeedX * newSpeedX + newSpeedY * newSpeedY + newSpeedZ * newSpeedZ;
+			if (speedModulusSquared > maxSpeed[i] * maxSpeed[i]) {
+				float truncateFactor = maxSpeed[i] / (float) Math.sqrt(speedModulusSquared);
+				newSpeedX *= truncateFactor;
+				newSpeedY *= truncateFactor;
+				newSpeedZ *= truncateFactor;
+			}
+
+			// real accel is necessary to calculate propulsors energy consumption
+			float accelX = newSpeedX - speedX[i];
+			float accelY = newSpeedY - speedY[i];
+			float accelZ = newSpeedZ - speedZ[i];
+			realAccelModulus[i] = (float) Math.sqrt(accelX * accelX + accelY * accelY + accelZ * accelZ);
+
+			speedX[i] = newSpeedX;
+			speedY[i] = newSpeedY;
+			speedZ[i] = newSpeedZ;
+			posX[i] += newSpeedX * seconds;
+			posY[i] += newSpeedY * seconds;
+			posZ[i] += newSpeedZ * seconds;
+		}
+	}
+
+	/**
+	 * Moves the entity owning a slot, and its kinematic state, to another store.
+	 * @param slot
+	 * @param target
+	 */
+	public void moveTo(int slot, KinematicsStore target) {
+		if (target == this) {
+			return;
+		}
+
+		target.add(entities[slot]);
+		int targetSlot = target.size - 1;
+		target.posX[targetSlot] = posX[slot];
+		target.posY[targetSlot] = posY[slot];
+		target.posZ[targetSlot] = posZ[slot];
+		target.speedX[targetSlot] = speedX[slot];
+		target.speedY[targetSlot] = speedY[slot];
+		target.speedZ[targetSlot] = speedZ[slot];
+		target.forceX[targetSlot] = forceX[slot];
+		target.forceY[targetSlot] = forceY[slot];
+		target.forceZ[targetSlot] = forceZ[slot];
+		target.mass[targetSlot] = mass[slot];
+		target.maxSpeed[targetSlot] = maxSpeed[slot];
+		target.realAccelModulus[targetSlot] = realAccelModulus[slot];
+
+		// move the last slot to the freed one
+		int last = size - 1;
+		if (slot != last) {
+			entities[slot] = entities[last];
+			posX[slot] = posX[last];
+			posY[slot] = posY[last];
+			posZ[slot] = posZ[last];
+			speedX[slot] = speedX[last];
+			speedY[slot] = speedY[last];
+			speedZ[slot] = speedZ[last];
+			forceX[slot] = forceX[last];
+			forceY[slot] = forceY[last];
+			forceZ[slot] = forceZ[last];
+			mass[slot] = mass[last];
+			maxSpeed[slot] = maxSpeed[last];
+			realAccelModulus[slot] = realAccelModulus[last];
+			entities[slot].setKinematics(this, slot);
+		}
+		entities[last] = null;
+		size--;
+	}
+
+	public void setForce(int slot, float x, float y, float z) {
+		forceX[slot] = x;
+		forceY[slot] = y;
+		forceZ[slot] = z;
+	}
+
+	public void setMass(int slot, float mass) {
+		this.mass[slot] = mass;
+	}
+
+	public void setMaxSpeed(int slot, float maxSpeed) {
+		this.maxSpeed[slot] = maxSpeed;
+	}
+
+	public void setPos(int slot, float x, float y, float z) {
+		posX[slot] = x;
+		posY[slot] = y;
+		posZ[slot] = z;
+	}
+
+	public void setSpeed(int slot, float x, float y, float z) {
+		speedX[slot] = x;
+		speedY[slot] = y;
+		speedZ[slot] = z;
+	}
+
+	/**
+	 * @return the number of slots in use
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,34 @@
+package net.carmgate.morph.ui;
+
+import net.carmgate.morph.model.common.FastRandom;
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * Emits all its particles at once, in every direction.
+ * Typically used for explosions.
+ */
+public class BurstEmitter extends ParticleEmitter {
+
+	private final float maxEjectionSpeed;
+
+	/**
+	 * @param pos the emission point
+	 * @param baseSpeed the speed added to the speed of each particle
+	 * @param count the number of particles
+	 * @param maxEjectionSpeed the particles are ejected at a speed within [0, maxEjectionSpeed[
+	 * @param initialLife the particles initial life
+	 * @param initialLifeDeviation the standard deviation of the particles initial life
+	 * @param minInitialAlpha
+	 * @param maxInitialAlpha
+	 */
+	public BurstEmitter(Vect3D pos, Vect3D baseSpeed, int count, float maxEjectionSpeed, float initialLife, float initialLifeDeviation,
+			float minInitialAlpha, float maxInitialAlpha) {
+		super(pos, baseSpeed, count, 0, 0, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+		this.maxEjectionSpeed = maxEjectionSpeed;
+	}
+
+	@Override
+	protected void computeEjectionSpeed(Vect3D particleSpeed, FastRandom random) {
+		particleSpeed.copy(maxEjectionSpeed, 0, 0).rotate(random.nextFloat() * 360).mult(random.nextFloat());
+	}
+}
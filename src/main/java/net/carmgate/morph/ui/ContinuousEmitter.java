@@ -0,0 +1,34 @@
+package net.carmgate.morph.ui;
+
+import net.carmgate.morph.model.common.FastRandom;
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * Emits particles at a constant rate, in every direction.
+ */
+public class ContinuousEmitter extends ParticleEmitter {
+
+	private final float maxEjectionSpeed;
+
+	/**
+	 * @param pos the emission point
+	 * @param baseSpeed the speed added to the speed of each particle
+	 * @param rate the number of particles per second
+	 * @param duration the duration of the emission (in seconds). A negative duration lasts until {@link #stop()} is called.
+	 * @param maxEjectionSpeed the particles are ejected at a speed within [0, maxEjectionSpeed[
+	 * @param initialLife the particles initial life
+	 * @param initialLifeDeviation the standard deviation of the particles initial life
+	 * @param minInitialAlpha
+	 * @param maxInitialAlpha
+	 */
+	public ContinuousEmitter(Vect3D pos, Vect3D baseSpeed, float rate, float duration, float maxEjectionSpeed, float initialLife,
+			float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
+		super(pos, baseSpeed, 0, rate, duration, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+		this.maxEjectionSpeed = maxEjectionSpeed;
+	}
+
+	@Override
+	protected void computeEjectionSpeed(Vect3D particleSpeed, FastRandom random) {
+		particleSpeed.copy(maxEjectionSpeed, 0, 0).rotate(random.nextFloat() * 360).mult(random.nextFloat());
+	}
+}
@@ -0,0 +1,50 @@
+package net.carmgate.morph.ui;
+
+import net.carmgate.morph.model.common.FastRandom;
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * Emits particles within a cone around a given ejection speed.
+ * It can emit an initial burst, a continuous flow or both.
+ */
+public class DirectionalEmitter extends ParticleEmitter {
+
+	private final Vect3D ejectionSpeed = new Vect3D();
+	private float spreadAngle;
+
+	/**
+	 * @param pos the emission point
+	 * @param baseSpeed the speed added to the speed of each particle
+	 * @param ejectionSpeed the speed of the particles at the center of the cone, it is copied
+	 * @param spreadAngle the angle of the cone (in degrees)
+	 * @param burstCount the number of particles emitted at once
+	 * @param rate the number of particles per second after the burst
+	 * @param duration the duration of the continuous emission (in seconds). A negative duration lasts until {@link #stop()} is called.
+	 * @param initialLife the particles initial life
+	 * @param initialLifeDeviation the standard deviation of the particles initial life
+	 * @param minInitialAlpha
+	 * @param maxInitialAlpha
+	 */
+	public DirectionalEmitter(Vect3D pos, Vect3D baseSpeed, Vect3D ejectionSpeed, float spreadAngle, int burstCount, float rate, float duration,
+			float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
+		super(pos, baseSpeed, burstCount, rate, duration, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+		this.ejectionSpeed.copy(ejectionSpeed);
+		this.spreadAngle = spreadAngle;
+	}
+
+	/**
+	 * Sets up a pooled emitter, see {@link #DirectionalEmitter}.
+	 * The ejection speed is given by its components so that the caller does not need a vector.
+	 */
+	void reset(Vect3D pos, Vect3D baseSpeed, float ejectionSpeedX, float ejectionSpeedY, float spreadAngle, int burstCount, float rate,
+			float duration, float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
+		reset(pos, baseSpeed, burstCount, rate, duration, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+		ejectionSpeed.copy(ejectionSpeedX, ejectionSpeedY, 0);
+		this.spreadAngle = spreadAngle;
+	}
+
+	@Override
+	protected void computeEjectionSpeed(Vect3D particleSpeed, FastRandom random) {
+		particleSpeed.copy(ejectionSpeed).rotate((random.nextFloat() - 0.5f) * spreadAngle);
+	}
+}
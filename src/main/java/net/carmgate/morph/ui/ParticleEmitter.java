@@ -0,0 +1,137 @@
+package net.carmgate.morph.ui;
+
+import net.carmgate.morph.model.common.FastRandom;
+import net.carmgate.morph.model.common.Vect3D;
+
+/**
+ * A particle emitter owned by the {@link ParticleEngine}.
+ * An emitter emits an initial burst of particles, then emits particles at a given rate during a given duration.
+ * It is driven by the simulation time, so the number of particles it emits does not depend on the frame rate.
+ * The engine may emit less particles than requested if the global spawn budget is exceeded.
+ * Emitters obtained from the engine pool are recycled once finished, see {@link ParticleEngine#addDirectionalEmitter}.
+ */
+public abstract class ParticleEmitter {
+
+	/** The emission point. It is copied when the emitter is (re)set. */
+	protected final Vect3D pos = new Vect3D();
+	/** The speed added to the speed of each particle. It is copied when the emitter is (re)set. */
+	protected final Vect3D baseSpeed = new Vect3D();
+
+	private int burstCount;
+	private float rate;
+	private float duration;
+
+	private float initialLife;
+	private float initialLifeDeviation;
+	private float minInitialAlpha;
+	private float maxInitialAlpha;
+
+	private float elapsed;
+	/** Fraction of particle owed by the continuous emission and not emitted yet. */
+	private float owed;
+	private int demand;
+	/** Fraction of particle left over when the demand was scaled down to fit the spawn budget. */
+	private float scaledRemainder;
+	private boolean stopped;
+	/** True if the emitter belongs to the pool of the engine : it is then recycled once finished. */
+	boolean pooled;
+
+	private final Vect3D particleSpeed = new Vect3D();
+
+	/**
+	 * @param pos the emission point
+	 * @param baseSpeed the speed added to the speed of each particle
+	 * @param burstCount the number of particles emitted at once on first update
+	 * @param rate the number of particles emitted per second after the burst
+	 * @param duration the duration of the continuous emission (in seconds). A negative duration lasts until {@link #stop()} is called.
+	 * @param initialLife the particles initial life
+	 * @param initialLifeDeviation the standard deviation of the particles initial life
+	 * @param minInitialAlpha
+	 * @param maxInitialAlpha
+	 */
+	protected ParticleEmitter(Vect3D pos, Vect3D baseSpeed, int burstCount, float rate, float duration, float initialLife, float initialLifeDeviation,
+			float minInitialAlpha, float maxInitialAlpha) {
+		reset(pos, baseSpeed, burstCount, rate, duration, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+	}
+
+	/**
+	 * Computes the speed of a new particle, without the base speed.
+	 * @param particleSpeed the vector to fill
+	 * @param random the random generator to use
+	 */
+	protected abstract void computeEjectionSpeed(Vect3D particleSpeed, FastRandom random);
+
+	/**
+	 * Computes how many particles this emitter wants to emit during the current tick.
+	 * @param seconds duration of the tick
+	 * @return the number of particles requested
+	 */
+	int computeDemand(float seconds) {
+		demand = burstCount;
+		burstCount = 0;
+
+		if (!stopped && rate > 0 && (duration < 0 || elapsed < duration)) {
+			float emissionTime = duration < 0 ? seconds : Math.min(seconds, duration - elapsed);
+			owed += rate * emissionTime;
+			demand += (int) owed;
+			owed -= (int) owed;
+		}
+		elapsed += seconds;
+
+		return demand;
+	}
+
+	/**
+	 * Emits the particles requested by the last call to {@link #computeDemand(float)}, scaled down to fit the spawn budget.
+	 * The particles that do not fit are dropped, not postponed. Only the fraction of particle left over by the scaling
+	 * is carried to the next tick, so that a small emitter still emits its share of the budget over time.
+	 * @param engine the engine to add the particles to
+	 * @param scale the share of the demand that can be emitted, within [0, 1]
+	 */
+	void emit(ParticleEngine engine, float scale) {
+		float scaledDemand = demand * scale + scaledRemainder;
+		int count = (int) scaledDemand;
+		scaledRemainder = scaledDemand - count;
+		for (int i = 0; i < count; i++) {
+			computeEjectionSpeed(particleSpeed, engine.random);
+			particleSpeed.add(baseSpeed);
+			engine.addParticle(pos, particleSpeed, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+		}
+		demand = 0;
+	}
+
+	/**
+	 * @return true if this emitter will not emit any more particle.
+	 */
+	public boolean isFinished() {
+		return burstCount == 0 && (stopped || rate <= 0 || duration >= 0 && elapsed >= duration);
+	}
+
+	/**
+	 * Sets up the emitter as if it had just been created, see {@link #ParticleEmitter}.
+	 */
+	final void reset(Vect3D pos, Vect3D baseSpeed, int burstCount, float rate, float duration, float initialLife, float initialLifeDeviation,
+			float minInitialAlpha, float maxInitialAlpha) {
+		this.pos.copy(pos);
+		this.baseSpeed.copy(baseSpeed);
+		this.burstCount = burstCount;
+		this.rate = rate;
+		this.duration = duration;
+		this.initialLife = initialLife;
+		this.initialLifeDeviation = initialLifeDeviation;
+		this.minInitialAlpha = minInitialAlpha;
+		this.maxInitialAlpha = maxInitialAlpha;
+		elapsed = 0;
+		owed = 0;
+		demand = 0;
+		scaledRemainder = 0;
+		stopped = false;
+	}
+
+	/**
+	 * Stops the continuous emission. The emitter is removed from the engine on next update.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+}
@@ -2,104 +2,190 @@ package net.carmgate.morph.ui;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
+import net.carmgate.morph.conf.Conf;
+import net.carmgate.morph.conf.Conf.ConfItem;
 import net.carmgate.morph.model.Model;
+import net.carmgate.morph.model.common.FastRandom;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Renderable;
 import net.carmgate.morph.model.entities.common.Updatable;
+import net.carmgate.morph.ui.common.RenderUtils;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.opengl.Texture;
 import org.newdawn.slick.opengl.TextureLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// IMPROVE Might be interesting to implement several fading types.
+/**
+ * Handles the particles with a fixed capacity pool.
+ * The particles attributes are stored in primitive arrays used as a ring buffer, oldest particle first.
+ * Dead particles are compacted away on each update while keeping that order, so that when the pool is full,
+ * the oldest particle is evicted in constant time to make room for the new one.
+ * All the particles are rendered with a single draw call : their quads are computed on the CPU
+ * and written into vertex arrays each frame.
+ * Particles are usually spawned by {@link ParticleEmitter}s. On each simulation tick, the emitters share a global spawn budget :
+ * if they request more particles than the budget allows, each of them emits the same fraction of its request.
+ */
 public class ParticleEngine implements Renderable, Updatable {
 
-	// IMPROVE Might be interesting to implement several fading types.
-	public static class Particle {
-		private final Vect3D pos;
-		private final Vect3D speed;
-		private final float rot = (float) (Math.random() * 360);
-
-		private final float initialLuminosity;
-		private float luminosity = 0;
-
-		private final float maxLife;
-
-		private float life;
-		private final Random random = new Random();
+	/** The texture under the morph image. */
+	private static Texture baseTexture;
 
-		/**
-		 * Create a new particle
-		 * @param pos
-		 * @param speed
-		 * @param life the time it takes for the particle to die (in millis)
-		 * @param initialAlpha 
-		 */
-		public Particle(Vect3D pos, Vect3D speed, float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
-			this.pos = pos;
-			this.speed = speed;
-			maxLife = life = Math.max(0, (float) random.nextGaussian() * initialLifeDeviation + initialLife);
-			initialLuminosity = luminosity = (float) (Math.random() * (maxInitialAlpha - minInitialAlpha) + minInitialAlpha);
-		}
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParticleEngine.class);
 
-		public float getInitialLuminosity() {
-			return initialLuminosity;
-		}
+	private final int capacity;
+	private final float[] posX;
+	private final float[] posY;
+	private final float[] speedX;
+	private final float[] speedY;
+	/** Cosine and sine of each particle rotation, computed once at spawn time. */
+	private final float[] rotCos;
+	private final float[] rotSin;
+	private final float[] initialLuminosity;
+	private final float[] luminosity;
+	private final float[] maxLife;
+	private final float[] life;
+
+	/** Index of the oldest particle. */
+	private int head;
+	private int count;
+
+	// Vertex arrays, 4 vertices per particle. They are allocated on first render so that headless runs do not pay for them.
+	private FloatBuffer vertexBuffer;
+	private FloatBuffer texCoordBuffer;
+	private FloatBuffer colorBuffer;
+
+	protected final FastRandom random = new FastRandom();
+
+	private final float spawnBudgetPerSecond = Conf.getFloatProperty(ConfItem.PARTICLES_SPAWNBUDGETPERSECOND);
+	private final List<ParticleEmitter> emitters = new ArrayList<>();
+	/** Emitters added since last update. Emitters can be added concurrently during the entities update. */
+	private final List<ParticleEmitter> newEmitters = new ArrayList<>();
+	/** Finished pooled emitters, ready to be reused. Guarded by {@link #newEmitters}. */
+	private final List<DirectionalEmitter> directionalEmitterPool = new ArrayList<>();
+
+	public ParticleEngine() {
+		this(Conf.getIntProperty(ConfItem.PARTICLES_MAXCOUNT));
+	}
 
-		public float getLife() {
-			return life;
-		}
+	/**
+	 * @param capacity the maximum number of live particles
+	 */
+	public ParticleEngine(int capacity) {
+		this.capacity = capacity;
+		posX = new float[capacity];
+		posY = new float[capacity];
+		speedX = new float[capacity];
+		speedY = new float[capacity];
+		rotCos = new float[capacity];
+		rotSin = new float[capacity];
+		initialLuminosity = new float[capacity];
+		luminosity = new float[capacity];
+		maxLife = new float[capacity];
+		life = new float[capacity];
+	}
 
-		public float getLuminosity() {
-			return luminosity;
+	/**
+	 * Create a new particle.
+	 * The provided vectors are copied and can be reused by the caller.
+	 * If the pool is full, the oldest particle is replaced.
+	 * @param pos
+	 * @param speed
+	 * @param initialLife the time it takes for the particle to die
+	 * @param initialLifeDeviation the standard deviation of the initial life
+	 * @param minInitialAlpha
+	 * @param maxInitialAlpha
+	 */
+	public void addParticle(Vect3D pos, Vect3D speed, float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
+		// particles are only eye candy
+		if (Model.getModel().isHeadless() || capacity == 0) {
+			return;
 		}
 
-		public float getMaxLife() {
-			return maxLife;
+		int index;
+		if (count == capacity) {
+			// evict the oldest particle
+			index = head;
+			head = (head + 1) % capacity;
+		} else {
+			index = (head + count) % capacity;
+			count++;
 		}
 
-		public Vect3D getPos() {
-			return pos;
+		posX[index] = pos.x;
+		posY[index] = pos.y;
+		speedX[index] = speed.x;
+		speedY[index] = speed.y;
+		if (speed.x != 0 || speed.y != 0) {
+			double angle = Math.toRadians(random.nextGaussian() * 2);
+			float cos = (float) Math.cos(angle);
+			float sin = (float) Math.sin(angle);
+			speedX[index] = cos * speed.x - sin * speed.y;
+			speedY[index] = sin * speed.x + cos * speed.y;
 		}
+		double rot = Math.toRadians(random.nextFloat() * 360);
+		rotCos[index] = (float) Math.cos(rot);
+		rotSin[index] = (float) Math.sin(rot);
+		maxLife[index] = life[index] = Math.max(0, random.nextGaussian() * initialLifeDeviation + initialLife);
+		initialLuminosity[index] = luminosity[index] = random.nextFloat() * (maxInitialAlpha - minInitialAlpha) + minInitialAlpha;
+	}
 
-		public float getRot() {
-			return rot;
+	/**
+	 * Adds an emitter. It starts emitting on next update.
+	 * This method can be called concurrently by the entities during their update.
+	 * @param emitter
+	 */
+	public void addEmitter(ParticleEmitter emitter) {
+		// particles are only eye candy
+		if (Model.getModel().isHeadless()) {
+			return;
 		}
 
-		public Vect3D getSpeed() {
-			return speed;
+		synchronized (newEmitters) {
+			newEmitters.add(emitter);
 		}
+	}
 
-		public void setLife(float life) {
-			this.life = life;
+	/**
+	 * Adds a directional emitter taken from a pool. It starts emitting on next update and is recycled once finished.
+	 * Since the caller gets no reference to the emitter, it cannot stop it : the emission must have a duration.
+	 * This method can be called concurrently by the entities during their update.
+	 * See {@link DirectionalEmitter#DirectionalEmitter} for the parameters.
+	 */
+	public void addDirectionalEmitter(Vect3D pos, Vect3D baseSpeed, float ejectionSpeedX, float ejectionSpeedY, float spreadAngle,
+			int burstCount, float rate, float duration, float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
+		// particles are only eye candy
+		if (Model.getModel().isHeadless()) {
+			return;
 		}
 
-		public void setLuminosity(float luminosity) {
-			this.luminosity = luminosity;
+		synchronized (newEmitters) {
+			DirectionalEmitter emitter;
+			if (directionalEmitterPool.isEmpty()) {
+				emitter = new DirectionalEmitter(pos, baseSpeed, new Vect3D(), spreadAngle, burstCount, rate, duration, initialLife,
+						initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+				emitter.pooled = true;
+			} else {
+				emitter = directionalEmitterPool.remove(directionalEmitterPool.size() - 1);
+			}
+			emitter.reset(pos, baseSpeed, ejectionSpeedX, ejectionSpeedY, spreadAngle, burstCount, rate, duration, initialLife,
+					initialLifeDeviation, minInitialAlpha, maxInitialAlpha);
+			newEmitters.add(emitter);
 		}
-
 	}
 
-	/** The texture under the morph image. */
-	private static Texture baseTexture;
-
-	private static final Logger LOGGER = LoggerFactory.getLogger(ParticleEngine.class);
-
-	private final List<Particle> particles = new LinkedList<>();
-
-	protected final Random random = new Random();
-
-	public void addParticle(Vect3D pos, Vect3D speed, float initialLife, float initialLifeDeviation, float minInitialAlpha, float maxInitialAlpha) {
-		if (speed.modulus() != 0) {
-			speed.rotate((float) random.nextGaussian() * 2);
-		}
-		particles.add(new Particle(pos, speed, initialLife, initialLifeDeviation, minInitialAlpha, maxInitialAlpha));
+	/**
+	 * @return the number of live particles
+	 */
+	public int getParticleCount() {
+		return count;
 	}
 
 	@Override
@@ -115,35 +201,95 @@ public class ParticleEngine implements Renderable, Updatable {
 
 	}
 
+	private void initBuffers() {
+		vertexBuffer = BufferUtils.createFloatBuffer(capacity * 4 * 2);
+		colorBuffer = BufferUtils.createFloatBuffer(capacity * 4 * 4);
+
+		// texture coordinates are the same for every particle
+		texCoordBuffer = BufferUtils.createFloatBuffer(capacity * 4 * 2);
+		for (int i = 0; i < capacity; i++) {
+			texCoordBuffer.put(0).put(0);
+			texCoordBuffer.put(1).put(0);
+			texCoordBuffer.put(1).put(1);
+			texCoordBuffer.put(0).put(1);
+		}
+		texCoordBuffer.flip();
+	}
+
 	@Override
 	public void render(int glMode) {
-		GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
-		for (Particle particle : particles) {
-			// LOGGER.debug("Rendering particle: " + particle);
-			GL11.glTranslatef(particle.getPos().x, particle.getPos().y, 0);
-			GL11.glRotatef(particle.getRot(), 0, 0, 1);
-
-			float factor = 5;
-			float particleSize = 0.01f + (particle.getMaxLife() - particle.getLife()) * factor;
-			GL11.glScalef(particleSize, particleSize, 1);
-
-			GL11.glColor4f(1, 1, 1, particle.getLuminosity());
-			baseTexture.bind();
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glTexCoord2f(0, 0);
-			GL11.glVertex2f(-baseTexture.getTextureWidth() / 2, -baseTexture.getTextureWidth() / 2);
-			GL11.glTexCoord2f(1, 0);
-			GL11.glVertex2f(baseTexture.getTextureWidth() / 2, -baseTexture.getTextureWidth() / 2);
-			GL11.glTexCoord2f(1, 1);
-			GL11.glVertex2f(baseTexture.getTextureWidth() / 2, baseTexture.getTextureHeight() / 2);
-			GL11.glTexCoord2f(0, 1);
-			GL11.glVertex2f(-baseTexture.getTextureWidth() / 2, baseTexture.getTextureHeight() / 2);
-			GL11.glEnd();
-
-			GL11.glScalef(1f / particleSize, 1f / particleSize, 1);
-			GL11.glRotatef(-particle.getRot(), 0, 0, 1);
-			GL11.glTranslatef(-particle.getPos().x, -particle.getPos().y, 0);
+		render(glMode, null);
+	}
+
+	/**
+	 * Renders the particles within the given bounds.
+	 * @param glMode
+	 * @param worldBounds minX, minY, maxX, maxY or null to render all the particles
+	 */
+	public void render(int glMode, float[] worldBounds) {
+		if (count == 0) {
+			return;
+		}
+
+		if (vertexBuffer == null) {
+			initBuffers();
 		}
+
+		// Bake position, size, rotation and alpha of each particle into the vertex arrays
+		float halfWidth = baseTexture.getTextureWidth() / 2;
+		float halfHeight = baseTexture.getTextureHeight() / 2;
+		float factor = 5;
+		int renderedCount = 0;
+		vertexBuffer.clear();
+		colorBuffer.clear();
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % capacity;
+
+			float particleSize = 0.01f + (maxLife[index] - life[index]) * factor;
+			float x = posX[index];
+			float y = posY[index];
+			// the rotated quad is within the circle of radius halfDiagonal * particleSize
+			if (worldBounds != null && !RenderUtils.isCircleVisible(x, y, (halfWidth + halfHeight) * particleSize, worldBounds)) {
+				continue;
+			}
+			renderedCount++;
+
+			float cos = rotCos[index] * particleSize;
+			float sin = rotSin[index] * particleSize;
+
+			// corners (-w, -h), (w, -h), (w, h), (-w, h) rotated, scaled and translated
+			vertexBuffer.put(x - cos * halfWidth + sin * halfHeight).put(y - sin * halfWidth - cos * halfHeight);
+			vertexBuffer.put(x + cos * halfWidth + sin * halfHeight).put(y + sin * halfWidth - cos * halfHeight);
+			vertexBuffer.put(x + cos * halfWidth - sin * halfHeight).put(y + sin * halfWidth + cos * halfHeight);
+			vertexBuffer.put(x - cos * halfWidth - sin * halfHeight).put(y - sin * halfWidth + cos * halfHeight);
+
+			float alpha = luminosity[index];
+			for (int j = 0; j < 4; j++) {
+				colorBuffer.put(1).put(1).put(1).put(alpha);
+			}
+		}
+		vertexBuffer.flip();
+		colorBuffer.flip();
+		if (renderedCount == 0) {
+			return;
+		}
+
+		GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE);
+		baseTexture.bind();
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glVertexPointer(2, 0, vertexBuffer);
+		GL11.glTexCoordPointer(2, 0, texCoordBuffer);
+		GL11.glColorPointer(4, 0, colorBuffer);
+
+		GL11.glDrawArrays(GL11.GL_QUADS, 0, renderedCount * 4);
+
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		// the current color is undefined after using a color array
+		GL11.glColor4f(1, 1, 1, 1);
 		GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 	}
 
@@ -151,27 +297,66 @@ public class ParticleEngine implements Renderable, Updatable {
 	public void update() {
 		float secsSinceLastUpdate = Model.getModel().getSecondsSinceLastUpdate();
 
-		// Update all particles
-		List<Particle> particlesToRemove = new ArrayList<>();
-		for (Particle particle : particles) {
-			Vect3D pos = particle.getPos();
-			Vect3D speed = particle.getSpeed();
-			pos.x += speed.x * secsSinceLastUpdate;
-			pos.y += speed.y * secsSinceLastUpdate;
-			pos.z += speed.z * secsSinceLastUpdate;
+		// Update all particles and compact the live ones toward the head of the ring
+		int liveCount = 0;
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % capacity;
 
 			// linear decrease in luminosity
-			particle.setLuminosity(particle.getInitialLuminosity() * particle.getLife() / particle.getMaxLife());
-			particle.setLife(particle.getLife() - secsSinceLastUpdate / particle.getMaxLife());
+			float newLuminosity = initialLuminosity[index] * life[index] / maxLife[index];
+			float newLife = life[index] - secsSinceLastUpdate / maxLife[index];
+			if (newLife <= 0 || newLuminosity <= 0) {
+				continue;
+			}
 
-			if (particle.getLife() <= 0 || particle.getLuminosity() <= 0) {
-				particlesToRemove.add(particle);
+			int target = (head + liveCount) % capacity;
+			posX[target] = posX[index] + speedX[index] * secsSinceLastUpdate;
+			posY[target] = posY[index] + speedY[index] * secsSinceLastUpdate;
+			luminosity[target] = newLuminosity;
+			life[target] = newLife;
+			if (target != index) {
+				speedX[target] = speedX[index];
+				speedY[target] = speedY[index];
+				rotCos[target] = rotCos[index];
+				rotSin[target] = rotSin[index];
+				initialLuminosity[target] = initialLuminosity[index];
+				maxLife[target] = maxLife[index];
 			}
+			liveCount++;
+		}
+		count = liveCount;
+
+		updateEmitters(secsSinceLastUpdate);
+	}
+
+	private void updateEmitters(float secsSinceLastUpdate) {
+		synchronized (newEmitters) {
+			emitters.addAll(newEmitters);
+			newEmitters.clear();
 		}
 
-		// Remove dead particles
-		for (Particle particle : particlesToRemove) {
-			particles.remove(particle);
+		int demand = 0;
+		for (int i = 0; i < emitters.size(); i++) {
+			demand += emitters.get(i).computeDemand(secsSinceLastUpdate);
+		}
+
+		// Share the spawn budget between the emitters
+		float budget = spawnBudgetPerSecond * secsSinceLastUpdate;
+		float scale = demand <= budget ? 1 : budget / demand;
+
+		for (int i = emitters.size() - 1; i >= 0; i--) {
+			ParticleEmitter emitter = emitters.get(i);
+			emitter.emit(this, scale);
+			if (emitter.isFinished()) {
+				// swap remove, the emitters order does not matter
+				emitters.set(i, emitters.get(emitters.size() - 1));
+				emitters.remove(emitters.size() - 1);
+				if (emitter.pooled) {
+					synchronized (newEmitters) {
+						directionalEmitterPool.add((DirectionalEmitter) emitter);
+					}
+				}
+			}
 		}
 	}
 }
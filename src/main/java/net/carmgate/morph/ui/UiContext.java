@@ -14,6 +14,12 @@ public class UiContext {
 	private boolean debugMode = false;
 	private boolean debugMorphsShown = false;
 	private boolean debugSelectViewMode = false;
+	/** The rectangle being dragged to select entities : x and y of both corners in window coordinates. null if there is none. */
+	private int[] selectionBox;
+
+	public int[] getSelectionBox() {
+		return selectionBox;
+	}
 
 	public UIState getUiState() {
 		return uiState;
@@ -35,6 +41,10 @@ public class UiContext {
 		return paused;
 	}
 
+	public void setSelectionBox(int[] selectionBox) {
+		this.selectionBox = selectionBox;
+	}
+
 	public void setUiState(UIState uiState) {
 		this.uiState = uiState;
 	}
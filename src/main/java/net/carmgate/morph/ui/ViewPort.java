@@ -31,6 +31,37 @@ public class ViewPort {
 		return focalPoint;
 	}
 
+	/**
+	 * Computes the bounds of the region of the world seen through the viewport.
+	 * @param window the window displaying the viewport
+	 * @param bounds an array of at least 4 floats filled with minX, minY, maxX, maxY (in world coordinates)
+	 * @return the bounds array
+	 */
+	public float[] getWorldBounds(Window window, float[] bounds) {
+		// the focal point is scaled by the zoom factor (see NormalLayer)
+		float halfWidth = window.getWidth() / 2f;
+		float halfHeight = window.getHeight() / 2f;
+		bounds[0] = (focalPoint.x - halfWidth) / zoomFactor;
+		bounds[1] = (focalPoint.y - halfHeight) / zoomFactor;
+		bounds[2] = (focalPoint.x + halfWidth) / zoomFactor;
+		bounds[3] = (focalPoint.y + halfHeight) / zoomFactor;
+		return bounds;
+	}
+
+	/**
+	 * Converts a position in the window into world coordinates.
+	 * @param window the window displaying the viewport
+	 * @param xInWindow x in window coordinates (from the left of the window)
+	 * @param yInWindow y in window coordinates (from the bottom of the window)
+	 * @param result the vector receiving the world coordinates
+	 * @return the result vector
+	 */
+	public Vect3D getWorldPos(Window window, float xInWindow, float yInWindow, Vect3D result) {
+		// the focal point is scaled by the zoom factor (see NormalLayer)
+		return result.copy((xInWindow - window.getWidth() / 2f + focalPoint.x) / zoomFactor,
+				(window.getHeight() / 2f - yInWindow + focalPoint.y) / zoomFactor, 0);
+	}
+
 	public Entity getLockedOnEntity() {
 		return lockedOnEntity;
 	}
@@ -1,8 +1,11 @@
 package net.carmgate.morph.ui.common;
 
+import java.nio.FloatBuffer;
+
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.common.Vect3D;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.TrueTypeFont;
@@ -10,112 +13,185 @@ import org.newdawn.slick.opengl.TextureImpl;
 
 public class RenderUtils {
 
-	private static final int nbSegments = 200;
-	private static final double deltaAngle = (float) (2 * Math.PI / nbSegments);
-	private static final float cos = (float) Math.cos(deltaAngle);
-	private static final float sin = (float) Math.sin(deltaAngle);
+	// Unit circle geometry, computed once for each level of detail
+	private static final int[] LOD_SEGMENTS = { 16, 32, 64, 128, 256 };
+	/** Maximum distance (in pixels) between a circle and the segments used to draw it. */
+	private static final float MAX_LOD_ERROR = 0.5f;
+	private static final float[][] LOD_COS = new float[LOD_SEGMENTS.length][];
+	private static final float[][] LOD_SIN = new float[LOD_SEGMENTS.length][];
+	private static final float[] LOD_COS_HALF_STEP = new float[LOD_SEGMENTS.length];
+
+	static {
+		for (int lod = 0; lod < LOD_SEGMENTS.length; lod++) {
+			int nbSegments = LOD_SEGMENTS[lod];
+			// the first point is repeated at the end to close the circle
+			LOD_COS[lod] = new float[nbSegments + 1];
+			LOD_SIN[lod] = new float[nbSegments + 1];
+			for (int i = 0; i <= nbSegments; i++) {
+				double angle = 2 * Math.PI * i / nbSegments;
+				LOD_COS[lod][i] = (float) Math.cos(angle);
+				LOD_SIN[lod][i] = (float) Math.sin(angle);
+			}
+			LOD_COS_HALF_STEP[lod] = (float) Math.cos(Math.PI / nbSegments);
+		}
+	}
+
+	// Display lists of the unit circle by level of detail, compiled on first use
+	private static int[] outlineLists;
+	private static int[] discLists;
+
+	// Vertex arrays used to draw the rings
+	private static FloatBuffer ringVertexBuffer;
+	private static FloatBuffer ringColorBuffer;
 
 	// Change the logic to make the font private
 	public static TrueTypeFont font;
 
+	/**
+	 * @param x center of the circle
+	 * @param y center of the circle
+	 * @param radius radius of the circle
+	 * @param worldBounds minX, minY, maxX, maxY
+	 * @return true if the bounding box of the circle overlaps the bounds.
+	 */
+	public static boolean isCircleVisible(float x, float y, float radius, float[] worldBounds) {
+		return x + radius >= worldBounds[0] && x - radius <= worldBounds[2]
+				&& y + radius >= worldBounds[1] && y - radius <= worldBounds[3];
+	}
+
+	/**
+	 * @param from
+	 * @param to
+	 * @param worldBounds minX, minY, maxX, maxY
+	 * @return true if the bounding box of the segment overlaps the bounds.
+	 */
+	public static boolean isSegmentVisible(Vect3D from, Vect3D to, float[] worldBounds) {
+		return Math.max(from.x, to.x) >= worldBounds[0] && Math.min(from.x, to.x) <= worldBounds[2]
+				&& Math.max(from.y, to.y) >= worldBounds[1] && Math.min(from.y, to.y) <= worldBounds[3];
+	}
+
+	/**
+	 * Renders a ring going from radius to radius + lineWidth, with a color gradient from the inner circle
+	 * to the middle of the ring, then to the outer circle.
+	 * The circle is assumed to be drawn in world coordinates to choose its level of detail.
+	 * @param radius inner radius
+	 * @param lineWidth width of the ring
+	 * @param colorInt color of the inner circle
+	 * @param colorMiddle color of the middle of the ring
+	 * @param colorExt color of the outer circle
+	 */
 	public static void renderCircle(float radius, float lineWidth, Float[] colorInt, Float[] colorMiddle, Float[] colorExt) {
-		// render limit of effect zone
-		TextureImpl.bindNone();
-		float tInt = 0; // temporary data holder
-		float tExt = 0; // temporary data holder
-		float xInt;
-		float xExt;
-
-		xInt = radius; // radius
-		xExt = radius + lineWidth; // radius
-
-		float xIntBackup = xInt; // radius
-		float xExtBackup = xExt; // radius
-		float yInt = 0;
-		float yExt = 0;
-		float yIntBackup = 0;
-		float yExtBackup = 0;
-		for (int i = 0; i < nbSegments; i++) {
-
-			tInt = xInt;
-			tExt = xExt;
-			xInt = cos * xInt - sin * yInt;
-			xExt = cos * xExt - sin * yExt;
-			yInt = sin * tInt + cos * yInt;
-			yExt = sin * tExt + cos * yExt;
+		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
+		int lod = getLevelOfDetail((radius + lineWidth) * zoomFactor);
+		float[] unitCos = LOD_COS[lod];
+		float[] unitSin = LOD_SIN[lod];
+		int nbVertices = (LOD_SEGMENTS[lod] + 1) * 2;
 
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glColor4f(colorInt[0], colorInt[1], colorInt[2], colorInt[3]);
-			GL11.glVertex2f(xInt, yInt);
-			GL11.glColor4f(colorInt[0], colorInt[1], colorInt[2], colorInt[3]);
-			GL11.glVertex2f(xIntBackup, yIntBackup);
-			GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-			GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-			GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-			GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-			GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-			GL11.glVertex2f(xExt, yExt);
-			GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-			GL11.glVertex2f(xExtBackup, yExtBackup);
-			GL11.glEnd();
+		if (ringVertexBuffer == null) {
+			int maxVertices = (LOD_SEGMENTS[LOD_SEGMENTS.length - 1] + 1) * 2 * 2;
+			ringVertexBuffer = BufferUtils.createFloatBuffer(maxVertices * 2);
+			ringColorBuffer = BufferUtils.createFloatBuffer(maxVertices * 4);
+		}
+
+		// two quad strips : inner half of the ring, then outer half of the ring
+		float middleRadius = radius + lineWidth / 2;
+		ringVertexBuffer.clear();
+		ringColorBuffer.clear();
+		putRingStrip(unitCos, unitSin, radius, colorInt, middleRadius, colorMiddle);
+		putRingStrip(unitCos, unitSin, middleRadius, colorMiddle, radius + lineWidth, colorExt);
+		ringVertexBuffer.flip();
+		ringColorBuffer.flip();
 
-			xIntBackup = xInt;
-			xExtBackup = xExt;
-			yIntBackup = yInt;
-			yExtBackup = yExt;
+		TextureImpl.bindNone();
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glVertexPointer(2, 0, ringVertexBuffer);
+		GL11.glColorPointer(4, 0, ringColorBuffer);
+		GL11.glDrawArrays(GL11.GL_QUAD_STRIP, 0, nbVertices);
+		GL11.glDrawArrays(GL11.GL_QUAD_STRIP, nbVertices, nbVertices);
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		// the current color is undefined after using a color array
+		GL11.glColor4f(1, 1, 1, 1);
+	}
+
+	/**
+	 * Renders the outline of a circle with the current color.
+	 * @param radius
+	 * @param screenRadius the radius of the circle on screen (in pixels), used to choose the level of detail
+	 */
+	public static void renderCircleOutline(float radius, float screenRadius) {
+		if (outlineLists == null) {
+			outlineLists = compileUnitCircleLists(GL11.GL_LINE_LOOP);
 		}
+
+		TextureImpl.bindNone();
+		GL11.glScalef(radius, radius, 1);
+		GL11.glCallList(outlineLists[getLevelOfDetail(screenRadius)]);
+		GL11.glScalef(1f / radius, 1f / radius, 1);
 	}
 
+	/**
+	 * Renders a disc with the current color.
+	 * The disc is assumed to be drawn in world coordinates to choose its level of detail.
+	 * @param radius
+	 */
 	public static void renderDisc(float radius) {
-		// render limit of effect zone
+		if (discLists == null) {
+			discLists = compileUnitCircleLists(GL11.GL_TRIANGLE_FAN);
+		}
+
 		TextureImpl.bindNone();
-		float tInt = 0; // temporary data holder
-		float tExt = 0; // temporary data holder
-		float xInt;
-		float xExt;
-
-		xInt = 0; // radius
-		xExt = radius; // radius
-
-		float xIntBackup = xInt; // radius
-		float xExtBackup = xExt; // radius
-		float yInt = 0;
-		float yExt = 0;
-		float yIntBackup = 0;
-		float yExtBackup = 0;
-		for (int i = 0; i < nbSegments; i++) {
-
-			tExt = xExt;
-			xExt = cos * xExt - sin * yExt;
-			yExt = sin * tExt + cos * yExt;
+		GL11.glScalef(radius, radius, 1);
+		GL11.glCallList(discLists[getLevelOfDetail(radius * Model.getModel().getViewport().getZoomFactor())]);
+		GL11.glScalef(1f / radius, 1f / radius, 1);
+	}
 
-			GL11.glBegin(GL11.GL_QUADS);
-			// GL11.glColor4f(colorInt[0], colorInt[1], colorInt[2], colorInt[3]);
-			GL11.glVertex2f(xInt, yInt);
-			// GL11.glColor4f(colorInt[0], colorInt[1], colorInt[2], colorInt[3]);
-			GL11.glVertex2f(xIntBackup, yIntBackup);
-			// GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-			// GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-			// GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExtBackup + xIntBackup) / 2, (yExtBackup + yIntBackup) / 2);
-			// GL11.glColor4f(colorMiddle[0], colorMiddle[1], colorMiddle[2], colorMiddle[3]);
-			GL11.glVertex2f((xExt + xInt) / 2, (yExt + yInt) / 2);
-			// GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-			GL11.glVertex2f(xExt, yExt);
-			// GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-			GL11.glVertex2f(xExtBackup, yExtBackup);
+	/**
+	 * Compiles a display list of the unit circle for each level of detail.
+	 * @param glMode {@link GL11#GL_LINE_LOOP} for an outline or {@link GL11#GL_TRIANGLE_FAN} for a disc
+	 * @return the display lists indexed by level of detail
+	 */
+	private static int[] compileUnitCircleLists(int glMode) {
+		int[] lists = new int[LOD_SEGMENTS.length];
+		int firstList = GL11.glGenLists(LOD_SEGMENTS.length);
+		for (int lod = 0; lod < LOD_SEGMENTS.length; lod++) {
+			lists[lod] = firstList + lod;
+			GL11.glNewList(lists[lod], GL11.GL_COMPILE);
+			GL11.glBegin(glMode);
+			if (glMode == GL11.GL_TRIANGLE_FAN) {
+				GL11.glVertex2f(0, 0);
+			}
+			int nbVertices = glMode == GL11.GL_TRIANGLE_FAN ? LOD_SEGMENTS[lod] + 1 : LOD_SEGMENTS[lod];
+			for (int i = 0; i < nbVertices; i++) {
+				GL11.glVertex2f(LOD_COS[lod][i], LOD_SIN[lod][i]);
+			}
 			GL11.glEnd();
+			GL11.glEndList();
+		}
+		return lists;
+	}
 
-			xIntBackup = xInt;
-			xExtBackup = xExt;
-			yIntBackup = yInt;
-			yExtBackup = yExt;
+	/**
+	 * @param screenRadius the radius of the circle on screen (in pixels)
+	 * @return the smallest level of detail for which the segments do not deviate from the circle by more than {@link #MAX_LOD_ERROR} pixels
+	 */
+	public static int getLevelOfDetail(float screenRadius) {
+		for (int lod = 0; lod < LOD_SEGMENTS.length - 1; lod++) {
+			// distance between the middle of a segment and the circle
+			if (screenRadius * (1 - LOD_COS_HALF_STEP[lod]) <= MAX_LOD_ERROR) {
+				return lod;
+			}
+		}
+		return LOD_SEGMENTS.length - 1;
+	}
+
+	private static void putRingStrip(float[] unitCos, float[] unitSin, float innerRadius, Float[] innerColor, float outerRadius, Float[] outerColor) {
+		for (int i = 0; i < unitCos.length; i++) {
+			ringVertexBuffer.put(unitCos[i] * innerRadius).put(unitSin[i] * innerRadius);
+			ringColorBuffer.put(innerColor[0]).put(innerColor[1]).put(innerColor[2]).put(innerColor[3]);
+			ringVertexBuffer.put(unitCos[i] * outerRadius).put(unitSin[i] * outerRadius);
+			ringColorBuffer.put(outerColor[0]).put(outerColor[1]).put(outerColor[2]).put(outerColor[3]);
 		}
 	}
 
@@ -168,19 +244,29 @@ public class RenderUtils {
 
 	public static void renderLine(Vect3D from, Vect3D to, float width, Float[] colorInt, Float[] colorExt) {
 		TextureImpl.bindNone();
-		Vect3D ortho = new Vect3D(to).substract(from).normalize(width / 2).rotate(90);
+		// ortho is the (from, to) vector rotated by 90 degrees, with a modulus of width / 2
+		float dx = to.x - from.x;
+		float dy = to.y - from.y;
+		float length = (float) Math.sqrt(dx * dx + dy * dy);
+		float orthoX = 0;
+		float orthoY = 0;
+		if (length != 0) {
+			orthoX = -dy / length * width / 2;
+			orthoY = dx / length * width / 2;
+		}
+
 		GL11.glBegin(GL11.GL_QUADS);
 		GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-		GL11.glVertex2f(from.x - ortho.x, from.y - ortho.y);
-		GL11.glVertex2f(to.x - ortho.x, to.y - ortho.y);
+		GL11.glVertex2f(from.x - orthoX, from.y - orthoY);
+		GL11.glVertex2f(to.x - orthoX, to.y - orthoY);
 		GL11.glColor4f(colorInt[0], colorInt[1], colorInt[2], colorInt[3]);
 		GL11.glVertex2f(to.x, to.y);
 		GL11.glVertex2f(from.x, from.y);
 		GL11.glVertex2f(to.x, to.y);
 		GL11.glVertex2f(from.x, from.y);
 		GL11.glColor4f(colorExt[0], colorExt[1], colorExt[2], colorExt[3]);
-		GL11.glVertex2f(from.x + ortho.x, from.y + ortho.y);
-		GL11.glVertex2f(to.x + ortho.x, to.y + ortho.y);
+		GL11.glVertex2f(from.x + orthoX, from.y + orthoY);
+		GL11.glVertex2f(to.x + orthoX, to.y + orthoY);
 		GL11.glEnd();
 	}
 
@@ -0,0 +1,165 @@
+package net.carmgate.morph.ui.common;
+
+import java.nio.FloatBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * Accumulates textured quads and draws them with one draw call per texture.
+ * The quads are transformed on the CPU, in the coordinates in use when {@link #flush()} is called.
+ * Quads sharing a texture are drawn in the order they were added, but all the quads of a texture
+ * are drawn before the quads of the next texture.
+ * <b>This class is not thread safe</b> : it should only be used by the rendering thread.
+ */
+public class SpriteBatch {
+
+	/** The quads waiting to be drawn for a given texture. */
+	private static class TextureBatch {
+		private float[] vertices = new float[16 * 8];
+		private float[] colors = new float[16 * 16];
+		private int spriteCount;
+
+		private void ensureCapacity() {
+			if (spriteCount * 8 == vertices.length) {
+				float[] newVertices = new float[vertices.length * 2];
+				System.arraycopy(vertices, 0, newVertices, 0, vertices.length);
+				vertices = newVertices;
+				float[] newColors = new float[colors.length * 2];
+				System.arraycopy(colors, 0, newColors, 0, colors.length);
+				colors = newColors;
+			}
+		}
+	}
+
+	private final Map<Texture, TextureBatch> batches = new LinkedHashMap<>();
+
+	// Vertex arrays shared by all the textures, 4 vertices per sprite
+	private int bufferCapacity;
+	private FloatBuffer vertexBuffer;
+	private FloatBuffer texCoordBuffer;
+	private FloatBuffer colorBuffer;
+
+	/**
+	 * Adds a textured quad to the batch.
+	 * The whole texture is mapped on the quad.
+	 * @param texture
+	 * @param x center of the quad
+	 * @param y center of the quad
+	 * @param width width of the quad before rotation
+	 * @param height height of the quad before rotation
+	 * @param angle rotation of the quad around its center (in degrees)
+	 * @param r
+	 * @param g
+	 * @param b
+	 * @param a
+	 */
+	public void draw(Texture texture, float x, float y, float width, float height, float angle, float r, float g, float b, float a) {
+		TextureBatch batch = batches.get(texture);
+		if (batch == null) {
+			batch = new TextureBatch();
+			batches.put(texture, batch);
+		}
+		batch.ensureCapacity();
+
+		float cos = 1;
+		float sin = 0;
+		if (angle != 0) {
+			double angleInRadians = Math.toRadians(angle);
+			cos = (float) Math.cos(angleInRadians);
+			sin = (float) Math.sin(angleInRadians);
+		}
+		float halfWidthCos = width / 2 * cos;
+		float halfWidthSin = width / 2 * sin;
+		float halfHeightCos = height / 2 * cos;
+		float halfHeightSin = height / 2 * sin;
+
+		// corners (-w, -h), (w, -h), (w, h), (-w, h) rotated and translated
+		float[] vertices = batch.vertices;
+		int i = batch.spriteCount * 8;
+		vertices[i++] = x - halfWidthCos + halfHeightSin;
+		vertices[i++] = y - halfWidthSin - halfHeightCos;
+		vertices[i++] = x + halfWidthCos + halfHeightSin;
+		vertices[i++] = y + halfWidthSin - halfHeightCos;
+		vertices[i++] = x + halfWidthCos - halfHeightSin;
+		vertices[i++] = y + halfWidthSin + halfHeightCos;
+		vertices[i++] = x - halfWidthCos - halfHeightSin;
+		vertices[i++] = y - halfWidthSin + halfHeightCos;
+
+		float[] colors = batch.colors;
+		int j = batch.spriteCount * 16;
+		for (int k = 0; k < 4; k++) {
+			colors[j++] = r;
+			colors[j++] = g;
+			colors[j++] = b;
+			colors[j++] = a;
+		}
+
+		batch.spriteCount++;
+	}
+
+	private void ensureBufferCapacity(int spriteCount) {
+		if (spriteCount <= bufferCapacity) {
+			return;
+		}
+
+		bufferCapacity = Math.max(spriteCount, bufferCapacity * 2);
+		vertexBuffer = BufferUtils.createFloatBuffer(bufferCapacity * 4 * 2);
+		colorBuffer = BufferUtils.createFloatBuffer(bufferCapacity * 4 * 4);
+
+		// texture coordinates are the same for every sprite
+		texCoordBuffer = BufferUtils.createFloatBuffer(bufferCapacity * 4 * 2);
+		for (int i = 0; i < bufferCapacity; i++) {
+			texCoordBuffer.put(0).put(0);
+			texCoordBuffer.put(1).put(0);
+			texCoordBuffer.put(1).put(1);
+			texCoordBuffer.put(0).put(1);
+		}
+		texCoordBuffer.flip();
+	}
+
+	/**
+	 * Draws all the pending quads, one draw call per texture, and empties the batch.
+	 */
+	public void flush() {
+		boolean clientStatesEnabled = false;
+		for (Map.Entry<Texture, TextureBatch> entry : batches.entrySet()) {
+			TextureBatch batch = entry.getValue();
+			if (batch.spriteCount == 0) {
+				continue;
+			}
+
+			if (!clientStatesEnabled) {
+				GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+				GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+				GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+				clientStatesEnabled = true;
+			}
+
+			ensureBufferCapacity(batch.spriteCount);
+			vertexBuffer.clear();
+			vertexBuffer.put(batch.vertices, 0, batch.spriteCount * 8).flip();
+			colorBuffer.clear();
+			colorBuffer.put(batch.colors, 0, batch.spriteCount * 16).flip();
+
+			entry.getKey().bind();
+			GL11.glVertexPointer(2, 0, vertexBuffer);
+			GL11.glTexCoordPointer(2, 0, texCoordBuffer);
+			GL11.glColorPointer(4, 0, colorBuffer);
+			GL11.glDrawArrays(GL11.GL_QUADS, 0, batch.spriteCount * 4);
+
+			batch.spriteCount = 0;
+		}
+
+		if (clientStatesEnabled) {
+			GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+			GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+			GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+			// the current color is undefined after using a color array
+			GL11.glColor4f(1, 1, 1, 1);
+		}
+	}
+}
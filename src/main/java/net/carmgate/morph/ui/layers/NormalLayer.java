@@ -1,15 +1,21 @@
 package net.carmgate.morph.ui.layers;
 
+import net.carmgate.morph.model.EntityMap;
 import net.carmgate.morph.model.Model;
 import net.carmgate.morph.model.common.Vect3D;
 import net.carmgate.morph.model.entities.common.Entity;
 import net.carmgate.morph.model.entities.common.Renderable;
+import net.carmgate.morph.ui.Window;
 import net.carmgate.morph.ui.common.RenderingSteps;
 
 import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.opengl.TextureImpl;
 
 public class NormalLayer implements Renderable {
 
+	/** The viewport bounds in world coordinates, reused from one frame to the next. */
+	private final float[] worldBounds = new float[4];
+
 	@Override
 	public void initRenderer() {
 	}
@@ -19,28 +25,81 @@ public class NormalLayer implements Renderable {
 		Vect3D focalPoint = Model.getModel().getViewport().getFocalPoint();
 		float zoomFactor = Model.getModel().getViewport().getZoomFactor();
 		if (Model.getModel().getViewport().getLockedOnEntity() != null) {
-			focalPoint.copy(new Vect3D().add(Model.getModel().getViewport().getLockedOnEntity().getPos()).mult(
-					zoomFactor));
+			focalPoint.copy(Model.getModel().getViewport().getLockedOnEntity().getRenderPos()).mult(zoomFactor);
 		}
 
 		GL11.glTranslatef(-focalPoint.x, -focalPoint.y, -focalPoint.z);
 		GL11.glScalef(zoomFactor, zoomFactor, 1);
 
-		Model.getModel().getRootWA().render(glMode);
+		// Culling : only what intersects the viewport is rendered
+		Model.getModel().getViewport().getWorldBounds(Model.getModel().getWindow(), worldBounds);
+
+		Model.getModel().getRootWA().render(glMode, worldBounds);
 
 		// Rendering all renderable elements
 		for (RenderingSteps renderingStep : RenderingSteps.values()) {
-			if (Model.getModel().getEntitiesByRenderingType(renderingStep) != null) {
-				for (Entity renderable : Model.getModel().getEntitiesByRenderingType(renderingStep).values()) {
-					renderable.render(glMode);
+			EntityMap entityMap = Model.getModel().getEntitiesByRenderingType(renderingStep);
+			if (entityMap != null) {
+				for (int i = 0; i < entityMap.size(); i++) {
+					Entity renderable = entityMap.valueAt(i);
+					if (renderable.isVisible(worldBounds)) {
+						renderable.render(glMode);
+					}
+				}
+			}
+
+			// Draw the sprites of the step, then the overlays on top of them, before the next step
+			Model.getModel().getSpriteBatch().flush();
+			if (entityMap != null) {
+				for (int i = 0; i < entityMap.size(); i++) {
+					Entity renderable = entityMap.valueAt(i);
+					if (renderable.isVisible(worldBounds)) {
+						renderable.renderOverlay(glMode);
+					}
 				}
 			}
 		}
 
 		// Render particles
-		Model.getModel().getParticleEngine().render(glMode);
+		Model.getModel().getParticleEngine().render(glMode, worldBounds);
 
 		GL11.glScalef(1f / zoomFactor, 1f / zoomFactor, 1);
 		GL11.glTranslatef(focalPoint.x, focalPoint.y, focalPoint.z);
+
+		renderSelectionBox();
+	}
+
+	/**
+	 * Renders the rectangle being dragged to select entities, if any.
+	 */
+	private void renderSelectionBox() {
+		int[] selectionBox = Model.getModel().getUiContext().getSelectionBox();
+		if (selectionBox == null) {
+			return;
+		}
+
+		// window coordinates to screen coordinates : the origin is at the center of the window and y goes down
+		Window window = Model.getModel().getWindow();
+		float x1 = selectionBox[0] - window.getWidth() / 2f;
+		float y1 = window.getHeight() / 2f - selectionBox[1];
+		float x2 = selectionBox[2] - window.getWidth() / 2f;
+		float y2 = window.getHeight() / 2f - selectionBox[3];
+
+		TextureImpl.bindNone();
+		GL11.glColor4f(0, 0.7f, 0, 0.15f);
+		GL11.glBegin(GL11.GL_QUADS);
+		GL11.glVertex2f(x1, y1);
+		GL11.glVertex2f(x2, y1);
+		GL11.glVertex2f(x2, y2);
+		GL11.glVertex2f(x1, y2);
+		GL11.glEnd();
+		GL11.glColor4f(0, 0.7f, 0, 1);
+		GL11.glBegin(GL11.GL_LINE_LOOP);
+		GL11.glVertex2f(x1, y1);
+		GL11.glVertex2f(x2, y1);
+		GL11.glVertex2f(x2, y2);
+		GL11.glVertex2f(x1, y2);
+		GL11.glEnd();
+		GL11.glColor4f(1, 1, 1, 1);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package net.carmgate.morph.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import net.carmgate.morph.model.entities.Ship;
+import net.carmgate.morph.model.entities.common.Entity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntityMapTest {
+
+	private Ship[] ships;
+
+	private static void assertSameContent(Map<Integer, Entity> expected, EntityMap entityMap) {
+		assertEquals(expected.size(), entityMap.size());
+		int i = 0;
+		for (Entity entity : expected.values()) {
+			assertSame(entity, entityMap.valueAt(i++));
+		}
+		for (Entity entity : expected.values()) {
+			assertSame(entity, entityMap.get(entity.getId()));
+		}
+	}
+
+	@Before
+	public void createShips() {
+		Model.getModel().setHeadless(true);
+		EntityRegistry entityRegistry = new EntityRegistry();
+		ships = new Ship[3000];
+		for (int i = 0; i < ships.length; i++) {
+			ships[i] = new Ship();
+			entityRegistry.register(ships[i]);
+		}
+	}
+
+	/**
+	 * Checks the map against a LinkedHashMap on random operations, with removals batched between the compactions.
+	 */
+	@Test
+	public void randomOperationsMatchLinkedHashMap() {
+		Random random = new Random(1);
+		EntityMap entityMap = new EntityMap();
+		Map<Integer, Entity> expected = new LinkedHashMap<>();
+
+		for (int step = 0; step < 200000; step++) {
+			Ship ship = ships[random.nextInt(ships.length)];
+			switch (random.nextInt(3)) {
+			case 0:
+				assertSame(expected.put(ship.getId(), ship), entityMap.put(ship.getId(), ship));
+				break;
+			case 1:
+				assertSame(expected.remove(ship.getId()), entityMap.remove(ship.getId()));
+				break;
+			default:
+				assertSame(expected.get(ship.getId()), entityMap.get(ship.getId()));
+				break;
+			}
+			assertEquals(expected.size(), entityMap.size());
+
+			if (step % 997 == 0) {
+				entityMap.compact();
+				assertSameContent(expected, entityMap);
+			}
+		}
+		entityMap.compact();
+		assertSameContent(expected, entityMap);
+	}
+
+	@Test
+	public void removalsInARowKeepTheOrder() {
+		EntityMap entityMap = new EntityMap();
+		Map<Integer, Entity> expected = new LinkedHashMap<>();
+		for (int i = 0; i < ships.length - 1; i++) {
+			entityMap.put(ships[i].getId(), ships[i]);
+			expected.put(ships[i].getId(), ships[i]);
+		}
+
+		// remove every third entity without compacting in between
+		int i = 0;
+		for (Iterator<Integer> it = expected.keySet().iterator(); it.hasNext(); i++) {
+			int id = it.next();
+			if (i % 3 == 0) {
+				it.remove();
+				assertSame(ships[i], entityMap.remove(id));
+				assertNull(entityMap.get(id));
+			}
+		}
+		assertEquals(expected.size(), entityMap.size());
+
+		// the map cannot be iterated before being compacted
+		try {
+			entityMap.valueAt(0);
+			fail("The holes left by the removals must not be exposed");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		// the entities added after the removals go after the remaining ones
+		Ship ship = ships[ships.length - 1];
+		entityMap.put(ship.getId(), ship);
+		expected.put(ship.getId(), ship);
+
+		entityMap.compact();
+		assertSameContent(expected, entityMap);
+	}
+
+	@Test
+	public void removedIdsReinsertedAfterCompactionGoLast() {
+		EntityMap entityMap = new EntityMap();
+		Map<Integer, Entity> expected = new LinkedHashMap<>();
+		for (Ship ship : ships) {
+			entityMap.put(ship.getId(), ship);
+			expected.put(ship.getId(), ship);
+		}
+
+		List<Ship> removed = new ArrayList<>();
+		for (int i = 0; i < ships.length; i += 2) {
+			entityMap.remove(ships[i].getId());
+			expected.remove(ships[i].getId());
+			removed.add(ships[i]);
+		}
+		entityMap.compact();
+		assertSameContent(expected, entityMap);
+
+		for (Ship ship : removed) {
+			assertNull(entityMap.put(ship.getId(), ship));
+			expected.put(ship.getId(), ship);
+		}
+		assertSameContent(expected, entityMap);
+
+		// and once more, so that the reinserted ids are removed from the rebuilt table
+		for (int i = 0; i < ships.length; i += 3) {
+			assertSame(ships[i], entityMap.remove(ships[i].getId()));
+			expected.remove(ships[i].getId());
+		}
+		entityMap.compact();
+		assertSameContent(expected, entityMap);
+	}
+}
@@ -0,0 +1,133 @@
+package net.carmgate.morph.model.behaviors.steering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.carmgate.morph.model.Constants;
+import net.carmgate.morph.model.behaviors.common.OnRails;
+import net.carmgate.morph.model.common.Vect3D;
+import net.carmgate.morph.model.entities.Planet;
+import net.carmgate.morph.model.entities.Star;
+import net.carmgate.morph.model.entities.Station;
+import net.carmgate.morph.model.entities.common.Entity;
+
+import org.junit.Test;
+
+public class KeplerOrbitTest {
+
+	private static final float SEMI_MAJOR_AXIS = 100000;
+	private static final float ECCENTRICITY = 0.5f;
+	private static final int TICK_RATE = 60;
+
+	/**
+	 * Checks the vis-viva equation v² = GM (2 / r - 1 / a) and the direction of the orbit over a whole period.
+	 */
+	private static void assertVisViva(boolean clockwise) {
+		Star star = new Star(3000, 3000, 0, 20000, 500, 4000000);
+		Planet planet = new Planet(null, 1000, 100, 0);
+		KeplerOrbit orbit = new KeplerOrbit(planet, star, SEMI_MAJOR_AXIS, ECCENTRICITY, 30, 0, clockwise);
+		double gm = Constants.SIMPLE_G * (star.getMass() + planet.getMass());
+		double period = 2 * Math.PI * Math.sqrt(Math.pow(SEMI_MAJOR_AXIS, 3) / gm);
+
+		Vect3D position = new Vect3D();
+		Vect3D speed = new Vect3D();
+		for (int i = 0; i < 1000; i++) {
+			orbit.getPositionAndSpeed(period * i / 1000, position, speed);
+			double dx = position.x - star.getPosX();
+			double dy = position.y - star.getPosY();
+			double r = Math.hypot(dx, dy);
+			assertTrue("distance " + r, r >= SEMI_MAJOR_AXIS * (1 - ECCENTRICITY) - 1 && r <= SEMI_MAJOR_AXIS * (1 + ECCENTRICITY) + 1);
+
+			double expectedSpeed = Math.sqrt(gm * (2 / r - 1 / SEMI_MAJOR_AXIS));
+			assertEquals("speed at " + r, expectedSpeed, Math.hypot(speed.x, speed.y), expectedSpeed * 1e-5);
+
+			double angularMomentum = dx * speed.y - dy * speed.x;
+			assertTrue("direction", clockwise ? angularMomentum < 0 : angularMomentum > 0);
+		}
+	}
+
+	@Test
+	public void visVivaHoldsCounterClockwise() {
+		assertVisViva(false);
+	}
+
+	@Test
+	public void visVivaHoldsClockwise() {
+		assertVisViva(true);
+	}
+
+	/**
+	 * The position is the same whether computed alone or with the speed, and the speed is its derivative,
+	 * including through a hierarchy of orbits.
+	 */
+	@Test
+	public void speedIsTheDerivativeOfThePosition() {
+		Star star = new Star(3000, 3000, 0, 20000, 500, 4000000);
+		Planet planet = new Planet(null, 1000, 100, 0);
+		planet.addBehavior(new KeplerOrbit(planet, star, 500000, 0.2f, 45, 10, false));
+		planet.processPendingBehaviors();
+		Station station = new Station(null, 100, 50, 0, null);
+		KeplerOrbit stationOrbit = new KeplerOrbit(station, planet, 7000, 0.1f, 0, 90, true);
+
+		Vect3D position = new Vect3D();
+		Vect3D speed = new Vect3D();
+		Vect3D alonePosition = new Vect3D();
+		Vect3D before = new Vect3D();
+		Vect3D after = new Vect3D();
+		double dt = 1;
+		for (int i = 0; i < 100; i++) {
+			double time = i * 97.3;
+			stationOrbit.getPositionAndSpeed(time, position, speed);
+			stationOrbit.getPosition(time, alonePosition);
+			assertEquals(alonePosition.x, position.x, 0);
+			assertEquals(alonePosition.y, position.y, 0);
+
+			stationOrbit.getPosition(time - dt, before);
+			stationOrbit.getPosition(time + dt, after);
+			double speedModulus = Math.hypot(speed.x, speed.y);
+			assertEquals(speed.x, (after.x - before.x) / (2 * dt), speedModulus * 0.01);
+			assertEquals(speed.y, (after.y - before.y) / (2 * dt), speedModulus * 0.01);
+		}
+	}
+
+	/**
+	 * Follows a station orbiting a planet orbiting a star tick after tick for an hour, as {@link Entity#commitUpdate()} does :
+	 * the speeds, integrated over the ticks, lead to the positions given by the orbits, and the station stays on its orbit.
+	 */
+	@Test
+	public void orbitsDoNotDriftOverOneHourOfTicks() {
+		Star star = new Star(3000, 3000, 0, 20000, 500, 4000000);
+		Planet planet = new Planet(null, 1000, 100, 0);
+		planet.addBehavior(new KeplerOrbit(planet, star, 500000, 0.2f, 45, 10, false));
+		planet.processPendingBehaviors();
+		OnRails planetRails = planet.getOnRails();
+		Station station = new Station(null, 100, 50, 0, null);
+		KeplerOrbit stationOrbit = new KeplerOrbit(station, planet, 7000, 0.1f, 0, 90, true);
+
+		Vect3D position = new Vect3D();
+		Vect3D speed = new Vect3D();
+		Vect3D planetPosition = new Vect3D();
+		stationOrbit.getPositionAndSpeed(0, position, speed);
+		double integratedX = position.x;
+		double integratedY = position.y;
+		double previousSpeedX = speed.x;
+		double previousSpeedY = speed.y;
+
+		double dt = 1.0 / TICK_RATE;
+		for (int tick = 1; tick <= 3600 * TICK_RATE; tick++) {
+			double time = tick * dt;
+			stationOrbit.getPositionAndSpeed(time, position, speed);
+			integratedX += (previousSpeedX + speed.x) / 2 * dt;
+			integratedY += (previousSpeedY + speed.y) / 2 * dt;
+			previousSpeedX = speed.x;
+			previousSpeedY = speed.y;
+
+			planetRails.getPosition(time, planetPosition);
+			double r = position.distance(planetPosition);
+			assertTrue("distance " + r + " at " + time, r >= 7000 * 0.9 - 1 && r <= 7000 * 1.1 + 1);
+		}
+
+		assertEquals(position.x, integratedX, 1);
+		assertEquals(position.y, integratedY, 1);
+	}
+}
@@ -0,0 +1,131 @@
+package net.carmgate.morph.model.physics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.carmgate.morph.model.common.Vect3D;
+
+import org.junit.Test;
+
+/**
+ * Compares the approximated solvers with the {@link DirectSumGravitySolver} on seeded random attractors.
+ * The acceleration error is relative to the sum of the magnitudes of the contributions, so that it does not blow up
+ * where the contributions cancel each other.
+ */
+public class GravitySolverTest {
+
+	private static final int ROOT_LEVEL = 14;
+	private static final float KILLING_RADIUS = 1500;
+	private static final int SAMPLE_COUNT = 20000;
+
+	private static Attractors createAttractors(Random random, int count) {
+		Attractors attractors = new Attractors();
+		for (int i = 0; i < count; i++) {
+			attractors.add((float) random.nextGaussian() * 300000, (float) random.nextGaussian() * 300000, 1000 + random.nextFloat() * 20000,
+					4000000, KILLING_RADIUS);
+		}
+		return attractors;
+	}
+
+	/**
+	 * Half of the positions are spread over the world, the other half are around the killing radius of an attractor.
+	 */
+	private static Vect3D[] createPositions(Random random, Attractors attractors) {
+		Vect3D[] positions = new Vect3D[SAMPLE_COUNT];
+		for (int i = 0; i < positions.length; i++) {
+			if (i % 2 == 0) {
+				positions[i] = new Vect3D((float) random.nextGaussian() * 400000, (float) random.nextGaussian() * 400000, 0);
+			} else {
+				int attractor = random.nextInt(attractors.size());
+				double distance = KILLING_RADIUS * (0.5 + random.nextDouble());
+				double angle = random.nextDouble() * 2 * Math.PI;
+				positions[i] = new Vect3D(attractors.getX(attractor) + (float) (distance * Math.cos(angle)),
+						attractors.getY(attractor) + (float) (distance * Math.sin(angle)), 0);
+			}
+		}
+		return positions;
+	}
+
+	private static double sumOfMagnitudes(Attractors attractors, Vect3D pos) {
+		double sum = 0;
+		for (int i = 0; i < attractors.size(); i++) {
+			double dx = attractors.getX(i) - pos.x;
+			double dy = attractors.getY(i) - pos.y;
+			double distanceSquared = dx * dx + dy * dy;
+			if (distanceSquared > 0) {
+				sum += attractors.getGM(i) / distanceSquared;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Samples both solvers at the given positions and checks the errors.
+	 * The killing flag must always match.
+	 */
+	private static void assertCloseToDirectSum(GravitySolver solver, Attractors attractors, Vect3D[] positions, double maxAccelerationError,
+			double meanAccelerationError, double maxEnergyFlowError) {
+		DirectSumGravitySolver directSum = new DirectSumGravitySolver();
+		directSum.update(attractors);
+		solver.update(attractors);
+
+		GravitySample expected = new GravitySample();
+		GravitySample actual = new GravitySample();
+		double accelerationErrorSum = 0;
+		int killingCount = 0;
+		for (Vect3D pos : positions) {
+			directSum.sample(pos, expected);
+			solver.sample(pos, actual);
+
+			double accelerationError = Math.hypot(expected.getAccelerationX() - actual.getAccelerationX(),
+					expected.getAccelerationY() - actual.getAccelerationY()) / sumOfMagnitudes(attractors, pos);
+			assertTrue("acceleration error " + accelerationError + " at " + pos, accelerationError <= maxAccelerationError);
+			accelerationErrorSum += accelerationError;
+			assertEquals("energy flow at " + pos, expected.getEnergyFlow(), actual.getEnergyFlow(), maxEnergyFlowError * expected.getEnergyFlow());
+			assertEquals("killing at " + pos, expected.isKilling(), actual.isKilling());
+			if (expected.isKilling()) {
+				killingCount++;
+			}
+		}
+
+		double meanError = accelerationErrorSum / positions.length;
+		assertTrue("mean acceleration error " + meanError, meanError <= meanAccelerationError);
+		// about half of the positions around the attractors are within their killing radius
+		assertTrue("killing positions " + killingCount, killingCount > positions.length / 5);
+	}
+
+	@Test
+	public void barnesHutMatchesDirectSum() {
+		Random random = new Random(1000);
+		Attractors attractors = createAttractors(random, 1000);
+		Vect3D[] positions = createPositions(random, attractors);
+		assertCloseToDirectSum(new BarnesHutGravitySolver(ROOT_LEVEL, 0.5f), attractors, positions, 0.1, 0.005, 0.1);
+	}
+
+	@Test
+	public void barnesHutMatchesDirectSumWithFewAttractors() {
+		Random random = new Random(3);
+		Attractors attractors = createAttractors(random, 3);
+		Vect3D[] positions = createPositions(random, attractors);
+		assertCloseToDirectSum(new BarnesHutGravitySolver(ROOT_LEVEL, 0.5f), attractors, positions, 0.1, 0.005, 0.1);
+	}
+
+	@Test
+	public void gravityFieldMatchesDirectSum() {
+		// the field is meant for a few static attractors : the interpolation error is about 0.75 / resolution²
+		Random random = new Random(3);
+		Attractors attractors = createAttractors(random, 3);
+		Vect3D[] positions = createPositions(random, attractors);
+		assertCloseToDirectSum(new GravityField(ROOT_LEVEL, 8), attractors, positions, 0.015, 0.002, 0.01);
+	}
+
+	@Test
+	public void gravityFieldMatchesDirectSumWithManyAttractors() {
+		Random random = new Random(100);
+		Attractors attractors = createAttractors(random, 100);
+		Vect3D[] positions = createPositions(random, attractors);
+		assertCloseToDirectSum(new GravityField(ROOT_LEVEL, 8), attractors, positions, 0.015, 0.002, 0.01);
+	}
+}
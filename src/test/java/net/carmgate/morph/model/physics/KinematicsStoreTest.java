@@ -0,0 +1,78 @@
+package net.carmgate.morph.model.physics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import net.carmgate.morph.model.entities.Star;
+import net.carmgate.morph.model.entities.common.Entity;
+
+import org.junit.Test;
+
+/**
+ * Checks the integration of the {@link KinematicsStore} and that the entities keep their state when they change stores.
+ */
+public class KinematicsStoreTest {
+
+	private static final float EPSILON = 1e-5f;
+
+	@Test
+	public void integrateAppliesForceThenSpeed() {
+		Entity entity = new Star(10, 20, 0, 2, 0, 0);
+		KinematicsStore store = entity.getKinematics();
+		int slot = entity.getKinematicsSlot();
+		store.setMaxSpeed(slot, 100);
+		store.setSpeed(slot, 1, 0, 0);
+		store.setForce(slot, 4, -2, 0);
+
+		store.integrate(slot, slot + 1, 0.5f);
+
+		assertEquals(2, entity.getSpeedX(), EPSILON);
+		assertEquals(-0.5f, entity.getSpeedY(), EPSILON);
+		assertEquals(11, entity.getPosX(), EPSILON);
+		assertEquals(19.75f, entity.getPosY(), EPSILON);
+		assertEquals((float) Math.hypot(1, 0.5f), entity.getRealAccelModulus(), EPSILON);
+	}
+
+	@Test
+	public void integrateCapsSpeedToMaxSpeed() {
+		Entity entity = new Star(0, 0, 0, 1, 0, 0);
+		KinematicsStore store = entity.getKinematics();
+		int slot = entity.getKinematicsSlot();
+		store.setMaxSpeed(slot, 5);
+		store.setForce(slot, 300, 400, 0);
+
+		store.integrate(slot, slot + 1, 1);
+
+		assertEquals(3, entity.getSpeedX(), EPSILON);
+		assertEquals(4, entity.getSpeedY(), EPSILON);
+		assertEquals(5, entity.getRealAccelModulus(), EPSILON);
+	}
+
+	@Test
+	public void moveToKeepsStateAndFillsTheFreedSlot() {
+		KinematicsStore shared = new KinematicsStore(1);
+		Entity[] entities = new Entity[3];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = new Star(i, i * 10, 0, i + 1, 0, 0);
+			entities[i].getKinematics().moveTo(entities[i].getKinematicsSlot(), shared);
+		}
+		assertEquals(3, shared.size());
+
+		// leave the shared store from the first slot : the last entity takes its place
+		KinematicsStore detached = new KinematicsStore(1);
+		shared.moveTo(entities[0].getKinematicsSlot(), detached);
+
+		assertEquals(2, shared.size());
+		assertSame(detached, entities[0].getKinematics());
+		assertEquals(0, entities[0].getPosX(), EPSILON);
+		assertEquals(1, entities[0].getMass(), EPSILON);
+		assertSame(entities[2], shared.getEntity(0));
+		assertEquals(0, entities[2].getKinematicsSlot());
+		for (int i = 1; i < entities.length; i++) {
+			assertSame(shared, entities[i].getKinematics());
+			assertEquals(i, entities[i].getPosX(), EPSILON);
+			assertEquals(i * 10, entities[i].getPosY(), EPSILON);
+			assertEquals(i + 1, entities[i].getMass(), EPSILON);
+		}
+	}
+}